@@ -0,0 +1,139 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DTO.AnaliseTarefaRequest;
+import com.example.demo.DTO.IssueSummary;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Massa de dados dos benchmarks.
+ *
+ * <ul>
+ *   <li>issues.json (raiz do módulo, ou -Dfixtures.dir): issues reais do Jira com todos os subcampos;</li>
+ *   <li>issues_summary.json (classpath): as mesmas issues já resumidas;</li>
+ *   <li>gerador sintético determinístico (seed fixa) para 10k–1M issues.</li>
+ * </ul>
+ */
+public final class BenchmarkFixtures {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String[] STATUSES = {"To Do", "In Progress", "Done", "Blocked", "Em revisão"};
+    private static final String[] TYPES = {"Task", "Bug", "Story", "Epic"};
+    private static final String[] ASSIGNEES = {
+            "BEATRIZ PAREDES DO NASCIMENTO", "CECÍLIA MEDEIROS SOUZA", "ISABELLA BATISTA",
+            "MELISSA FILGUEIRAS", null
+    };
+    private static final String[] VERBS = {"Criar", "Ajustar", "Revisar", "Integrar", "Documentar"};
+    private static final String[] OBJECTS = {
+            "tela de login", "relatório de contratação", "dashboard de métricas",
+            "fluxo de admissão", "API de colaboradores", "pipeline de CI"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    // ============================
+    // Fixtures reais
+    // ============================
+    public static List<Map<String, Object>> loadJiraIssues() {
+        File file = new File(System.getProperty("fixtures.dir", "."), "issues.json");
+        try {
+            // Jackson detecta o BOM (o arquivo do módulo está em UTF-16)
+            return MAPPER.readValue(file, new TypeReference<>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fixture não encontrada: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    public static List<IssueSummary> loadIssueSummaries() {
+        try (InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream("issues_summary.json")) {
+            if (in == null) {
+                throw new IllegalStateException("issues_summary.json não está no classpath");
+            }
+            return List.of(MAPPER.readValue(in, IssueSummary[].class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ============================
+    // Gerador sintético
+    // ============================
+
+    /**
+     * Páginas JSON do /search/jql com {@code pageSize} issues cada, a partir dos modelos do issues.json
+     * (chaves e ids trocados para que cada issue seja distinta).
+     */
+    public static byte[][] jiraPages(int pages, int pageSize) {
+        List<Map<String, Object>> templates = loadJiraIssues();
+        byte[][] result = new byte[pages][];
+        int seq = 0;
+
+        try {
+            for (int p = 0; p < pages; p++) {
+                List<Map<String, Object>> pageIssues = new ArrayList<>(pageSize);
+                for (int i = 0; i < pageSize; i++, seq++) {
+                    Map<String, Object> issue = new LinkedHashMap<>(templates.get(seq % templates.size()));
+                    issue.put("key", "AP-" + (seq + 1));
+                    issue.put("id", String.valueOf(10_000 + seq));
+                    pageIssues.add(issue);
+                }
+
+                Map<String, Object> page = new LinkedHashMap<>();
+                page.put("issues", pageIssues);
+                page.put("nextPageToken", "token-" + (p + 1));
+                page.put("isLast", p == pages - 1);
+                result[p] = MAPPER.writeValueAsBytes(page);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    public static List<IssueSummary> syntheticSummaries(int count) {
+        return syntheticSummaries(count, 42L);
+    }
+
+    public static List<IssueSummary> syntheticSummaries(int count, long seed) {
+        Random random = new Random(seed);
+        LocalDate base = LocalDate.of(2025, 10, 1);
+        List<IssueSummary> issues = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            LocalDate created = base.plusDays(random.nextInt(120));
+            String timestamp = created + "T10:" + String.format("%02d", random.nextInt(60)) + ":00.000-0300";
+            String duedate = random.nextInt(3) == 0 ? created.plusDays(random.nextInt(90)).toString() : null;
+
+            issues.add(new IssueSummary(
+                    "AP-" + (i + 1),
+                    VERBS[random.nextInt(VERBS.length)] + " " + OBJECTS[random.nextInt(OBJECTS.length)] + " " + (i % 500),
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    ASSIGNEES[random.nextInt(ASSIGNEES.length)],
+                    "AnalisAI - projeto",
+                    TYPES[random.nextInt(TYPES.length)],
+                    timestamp,
+                    timestamp,
+                    duedate
+            ));
+        }
+        return issues;
+    }
+
+    public static AnaliseTarefaRequest toRequest(IssueSummary issue) {
+        return new AnaliseTarefaRequest(
+                issue.issuetype(), issue.created(), issue.updated(), issue.assignee(),
+                issue.key(), issue.summary(), issue.status(), List.of()
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.Service.CaminhoCritico;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CaminhoCritico com N tarefas: montagem completa contra alterações de uma tarefa só.
+ *
+ * Cada tarefa depende de 0 a 3 tarefas entre as 200 anteriores (duração 1 a 5 dias), então quase
+ * todo o projeto fica "depois" das primeiras tarefas: o que mede é quanto a propagação corta.
+ * A dependência invertida aponta para uma tarefa posterior, o que exige a verificação de ciclo e a
+ * reordenação topológica (quando forma ciclo é recusada); cada chamada também desfaz a alteração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CaminhoCriticoBenchmark {
+
+    private static final int JANELA = 200;
+
+    @Param({"10000", "100000"})
+    private int tarefas;
+
+    private List<CaminhoCritico.No> nos;
+    private CaminhoCritico grafo;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random gerador = new Random(42);
+        nos = new ArrayList<>(tarefas);
+        for (int i = 0; i < tarefas; i++) {
+            nos.add(new CaminhoCritico.No(i, 1 + gerador.nextInt(5), dependencias(gerador, i)));
+        }
+        grafo = CaminhoCritico.construir(nos);
+        random = new Random(7);
+    }
+
+    private static long[] dependencias(Random random, int i) {
+        int quantas = i == 0 ? 0 : random.nextInt(4);
+        long[] deps = new long[quantas];
+        for (int k = 0; k < quantas; k++) {
+            deps[k] = Math.max(0, i - 1 - random.nextInt(JANELA));
+        }
+        return Arrays.stream(deps).distinct().toArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int construirCompleto() {
+        return CaminhoCritico.construir(nos).duracaoProjeto();
+    }
+
+    @Benchmark
+    public int alterarDuracao() {
+        CaminhoCritico.No no = nos.get(random.nextInt(tarefas));
+        grafo.alterarDuracao(no.id(), no.duracao() + 2);
+        int duracao = grafo.duracaoProjeto();
+        grafo.alterarDuracao(no.id(), no.duracao());
+        return duracao;
+    }
+
+    @Benchmark
+    public int trocarDependencias() {
+        int i = 1 + random.nextInt(tarefas - 1);
+        CaminhoCritico.No no = nos.get(i);
+        grafo.atualizar(no.id(), no.duracao(), dependencias(random, i));
+        int duracao = grafo.duracaoProjeto();
+        grafo.atualizar(no.id(), no.duracao(), no.dependencias());
+        return duracao;
+    }
+
+    @Benchmark
+    public int dependenciaInvertida() {
+        int i = random.nextInt(tarefas - 1);
+        int posterior = Math.min(tarefas - 1, i + 1 + random.nextInt(JANELA));
+        CaminhoCritico.No no = nos.get(i);
+        long[] comPosterior = Arrays.copyOf(no.dependencias(), no.dependencias().length + 1);
+        comPosterior[comPosterior.length - 1] = posterior;
+        try {
+            grafo.atualizar(no.id(), no.duracao(), comPosterior);
+        } catch (IllegalArgumentException ciclo) {
+            return -1;
+        }
+        int duracao = grafo.duracaoProjeto();
+        grafo.atualizar(no.id(), no.duracao(), no.dependencias());
+        return duracao;
+    }
+}
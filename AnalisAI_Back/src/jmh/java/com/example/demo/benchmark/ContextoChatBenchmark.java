@@ -0,0 +1,63 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.Service.Bm25Index;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice BM25 do contexto do chat: construção sobre N issues sintéticas e busca das top-8 por pergunta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ContextoChatBenchmark {
+
+    private static final String[] PERGUNTAS = {
+            "Quais tarefas de login estão atrasadas?",
+            "O que falta no relatório de contratação?",
+            "Resumo do pipeline de CI e quem está cuidando",
+            "Status da AP-1234",
+            "Tem algo bloqueado na API de colaboradores?"
+    };
+
+    @Param({"10000", "50000"})
+    private int issues;
+
+    private List<IssueSummary> summaries;
+    private Bm25Index<IssueSummary> index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        summaries = BenchmarkFixtures.syntheticSummaries(issues);
+        index = build();
+    }
+
+    private Bm25Index<IssueSummary> build() {
+        Bm25Index<IssueSummary> novo = new Bm25Index<>();
+        for (IssueSummary issue : summaries) {
+            novo.put(issue.key(), String.join(" ", issue.key(), issue.summary(), issue.status(),
+                    issue.assignee(), issue.issuetype()), issue);
+        }
+        return novo;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object buildIndex() {
+        return build();
+    }
+
+    @Benchmark
+    public Object buscarTop8() {
+        String pergunta = PERGUNTAS[next];
+        next = (next + 1) % PERGUNTAS.length;
+        return index.buscar(pergunta, 8);
+    }
+}
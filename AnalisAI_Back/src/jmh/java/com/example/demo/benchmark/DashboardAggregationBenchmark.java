@@ -0,0 +1,35 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.Service.DashboardStatsReferencia;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregação completa do dashboard (DashboardStatsReferencia, em src/test) sobre N issues sintéticas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DashboardAggregationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int issues;
+
+    private List<IssueSummary> summaries;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        summaries = BenchmarkFixtures.syntheticSummaries(issues);
+    }
+
+    @Benchmark
+    public Object calcularStats() {
+        return DashboardStatsReferencia.calcular(summaries);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DTO.AnaliseTarefaRequest;
+import com.example.demo.Service.AnaliseIaService;
+import com.example.demo.Service.AnalisePayloadMap;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do pedido de análise ao Gemini: prompt, schema de resposta e payload serializado
+ * (o que o WebClient envia). Medido por tarefa, sobre as issues do issues_summary.json.
+ * encodePrecompiled é o caminho usado em produção; buildAndSerializePayload é a forma Map + Jackson
+ * (AnalisePayloadMap, em src/test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeminiPayloadBenchmark {
+
+    private AnaliseIaService iaService;
+    private List<AnaliseTarefaRequest> requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Nenhuma chamada HTTP é feita: só os métodos de montagem são exercitados
+        iaService = new AnaliseIaService(WebClient.builder(), BenchmarkFixtures.MAPPER, null, null, null, 20, 8000, 4, 90000);
+        requests = BenchmarkFixtures.loadIssueSummaries().stream()
+                .map(BenchmarkFixtures::toRequest)
+                .toList();
+    }
+
+    private AnaliseTarefaRequest nextRequest() {
+        AnaliseTarefaRequest request = requests.get(next);
+        next = (next + 1) % requests.size();
+        return request;
+    }
+
+    @Benchmark
+    public Object buildPrompt() {
+        return AnalisePayloadMap.prompt(nextRequest());
+    }
+
+    @Benchmark
+    public Object buildResponseSchema() {
+        return iaService.buildResponseSchema();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializePayload() throws Exception {
+        return BenchmarkFixtures.MAPPER.writeValueAsBytes(AnalisePayloadMap.payload(iaService, nextRequest()));
+    }
+
+    @Benchmark
+    public byte[] encodePrecompiled() {
+        return iaService.encodeAnalysisPayload(nextRequest());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.Model.Projeto;
+import com.example.demo.Model.Tarefa;
+import com.example.demo.Repository.ProjetoRepository;
+import com.example.demo.Service.CronogramaService;
+import com.example.demo.Service.ImportacaoTarefasService;
+import com.example.demo.Service.TarefaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga de N tarefas (H2 em memória, 100 projetos, 1 em cada 10 dependendo de uma tarefa já existente):
+ * a importação em massa de um corpo NDJSON contra o caminho de POST /tarefas (salvarTarefa uma a uma).
+ * A tabela de tarefas é esvaziada antes de cada execução.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ImportacaoTarefasBenchmark {
+
+    private static final int PROJETOS = 100;
+
+    @Param({"10000", "100000"})
+    private int tarefas;
+
+    private ConfigurableApplicationContext context;
+    private ImportacaoTarefasService importacao;
+    private TarefaService tarefaService;
+    private CronogramaService cronogramaService;
+    private ProjetoRepository projetoRepository;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> projetoIds;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] args = ProjetoRecalculoBenchmark.h2Properties().entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+
+        importacao = context.getBean(ImportacaoTarefasService.class);
+        tarefaService = context.getBean(TarefaService.class);
+        cronogramaService = context.getBean(CronogramaService.class);
+        projetoRepository = context.getBean(ProjetoRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<Projeto> projetos = new ArrayList<>(PROJETOS);
+        for (int p = 0; p < PROJETOS; p++) {
+            Projeto projeto = new Projeto();
+            projeto.setNome("Projeto " + p);
+            projetos.add(projeto);
+        }
+        projetoIds = projetoRepository.saveAll(projetos).stream().map(Projeto::getId).toList();
+    }
+
+    // Cada execução parte de uma tarefa "raiz" por projeto, da qual algumas tarefas novas dependem
+    @Setup(Level.Invocation)
+    public void limpar() {
+        jdbcTemplate.update("delete from tarefa_dependencia");
+        jdbcTemplate.update("delete from tarefa");
+        projetoIds.forEach(cronogramaService::invalidar);
+
+        List<Long> raizes = new ArrayList<>(PROJETOS);
+        for (Long projetoId : projetoIds) {
+            raizes.add(tarefaService.salvarTarefa(nova("Raiz", 1, projetoRepository.getReferenceById(projetoId))).getId());
+        }
+
+        StringBuilder corpo = new StringBuilder(tarefas * 96);
+        for (int i = 0; i < tarefas; i++) {
+            int p = i % PROJETOS;
+            corpo.append("{\"nome\":\"Tarefa ").append(i)
+                    .append("\",\"duracaoDias\":").append(1 + i % 5)
+                    .append(",\"gargalo\":").append(i % 97 == 0)
+                    .append(",\"projetoId\":").append(projetoIds.get(p));
+            if (i % 10 == 0) {
+                corpo.append(",\"dependencias\":[").append(raizes.get(p)).append(']');
+            }
+            corpo.append("}\n");
+        }
+        ndjson = corpo.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object importacaoEmMassa() {
+        return importacao.importar(new ByteArrayInputStream(ndjson));
+    }
+
+    @Benchmark
+    public int porTarefa() {
+        for (int i = 0; i < tarefas; i++) {
+            Projeto projeto = projetoRepository.getReferenceById(projetoIds.get(i % PROJETOS));
+            tarefaService.salvarTarefa(nova("Tarefa " + i, 1 + i % 5, projeto));
+        }
+        return tarefas;
+    }
+
+    private static Tarefa nova(String nome, int duracao, Projeto projeto) {
+        Tarefa tarefa = new Tarefa();
+        tarefa.setNome(nome);
+        tarefa.setDuracaoDias(duracao);
+        tarefa.setProjeto(projeto);
+        return tarefa;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.DTO.JiraIssue;
+import com.example.demo.DTO.JiraSearchJqlResponse;
+import com.example.demo.DTO.JiraSummaryPage;
+import com.example.demo.Service.JiraIssueStreamExtractor;
+import com.example.demo.Service.JiraIssueTipado;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificação de páginas do /search/jql até IssueSummary, para N issues no total.
+ *
+ * As páginas vêm de {@link BenchmarkFixtures#jiraPages} (issues reais do issues.json com chaves
+ * distintas). Três caminhos são comparados:
+ * <ul>
+ *   <li>legacyMapRoundTrip: Map → String → Map + cast de campos (JiraClient antes do Flux tipado);</li>
+ *   <li>typedDto: databind em JiraSearchJqlResponse + JiraIssueTipado.convertToSummary (em src/test);</li>
+ *   <li>streamingExtractor: JiraIssueStreamExtractor (JsonParser, pula subárvores não usadas).</li>
+ * </ul>
+ * Para alocação por operação: -Djmh.args="JiraIssueDecoding -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class JiraIssueDecodingBenchmark {
+
+    // Páginas distintas mantidas em memória; as N issues percorrem essas páginas em ciclo
+    private static final int DISTINCT_PAGES = 20;
+
+    @Param({"10000", "100000"})
+    private int issues;
+
+    @Param({"100"})
+    private int pageSize;
+
+    private ObjectMapper mapper;
+    private JiraIssueStreamExtractor extractor;
+    private byte[][] pages;
+    private int pageCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mapper = BenchmarkFixtures.MAPPER;
+        extractor = new JiraIssueStreamExtractor(mapper);
+        pages = BenchmarkFixtures.jiraPages(DISTINCT_PAGES, pageSize);
+        pageCount = Math.max(1, issues / pageSize);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void legacyMapRoundTrip(Blackhole bh) throws Exception {
+        for (int p = 0; p < pageCount; p++) {
+            Map<String, Object> response = mapper.readValue(pages[p % DISTINCT_PAGES], Map.class);
+
+            Map<String, Object> paginated = new LinkedHashMap<>();
+            paginated.put("issues", response.getOrDefault("issues", Collections.emptyList()));
+            paginated.put("nextPageToken", response.get("nextPageToken"));
+            paginated.put("isLast", response.get("isLast"));
+            String json = mapper.writeValueAsString(paginated);
+
+            Map<String, Object> page = mapper.readValue(json, Map.class);
+            for (Map<String, Object> issue : (List<Map<String, Object>>) page.get("issues")) {
+                bh.consume(legacyConvertToSummary(issue));
+            }
+        }
+    }
+
+    @Benchmark
+    public void typedDto(Blackhole bh) throws Exception {
+        for (int p = 0; p < pageCount; p++) {
+            JiraSearchJqlResponse page = mapper.readValue(pages[p % DISTINCT_PAGES], JiraSearchJqlResponse.class);
+            for (JiraIssue issue : page.issues()) {
+                bh.consume(JiraIssueTipado.convertToSummary(issue));
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamingExtractor(Blackhole bh) throws Exception {
+        for (int p = 0; p < pageCount; p++) {
+            JiraSummaryPage page = extractor.extractPage(pages[p % DISTINCT_PAGES]);
+            for (IssueSummary issue : page.issues()) {
+                bh.consume(issue);
+            }
+        }
+    }
+
+    // Cópia da conversão Map → IssueSummary anterior ao pipeline tipado (linha de base)
+    @SuppressWarnings("unchecked")
+    private static IssueSummary legacyConvertToSummary(Map<String, Object> issueMap) {
+        String key = (String) issueMap.get("key");
+        Map<String, Object> fields = (Map<String, Object>) issueMap.get("fields");
+
+        String summary = (String) fields.getOrDefault("summary", "");
+        Map<String, Object> statusObj = (Map<String, Object>) fields.get("status");
+        Map<String, Object> assigneeObj = (Map<String, Object>) fields.get("assignee");
+        Map<String, Object> projectObj = (Map<String, Object>) fields.get("project");
+        Map<String, Object> issueTypeObj = (Map<String, Object>) fields.get("issuetype");
+
+        return new IssueSummary(
+                key,
+                summary,
+                statusObj != null ? (String) statusObj.get("name") : null,
+                assigneeObj != null ? (String) assigneeObj.get("displayName") : null,
+                projectObj != null ? (String) projectObj.get("name") : null,
+                issueTypeObj != null ? (String) issueTypeObj.get("name") : null,
+                (String) fields.get("created"),
+                (String) fields.get("updated"),
+                (String) fields.get("duedate")
+        );
+    }
+}
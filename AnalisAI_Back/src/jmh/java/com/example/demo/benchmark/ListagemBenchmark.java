@@ -0,0 +1,104 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.Repository.TarefaRepository;
+import com.example.demo.Service.TarefaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listagem de tarefas com N linhas na tabela (H2 em memória, 1000 tarefas por projeto), páginas de 50:
+ * a primeira página e uma página perto do fim por chave (id > cursor), a mesma página perto do fim
+ * por offset (entidades, como um findAll paginado faria) e as tarefas de um projeto com fetch join.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ListagemBenchmark {
+
+    private static final int POR_PROJETO = 1000;
+    private static final int PAGINA = 50;
+
+    @Param({"100000", "1000000"})
+    private int tarefas;
+
+    private ConfigurableApplicationContext context;
+    private TarefaService tarefaService;
+    private TarefaRepository tarefaRepository;
+    private long cursorProfundo;
+    private int paginaProfunda;
+    private long projetoDoMeio;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] args = ProjetoRecalculoBenchmark.h2Properties().entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+
+        tarefaService = context.getBean(TarefaService.class);
+        tarefaRepository = context.getBean(TarefaRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        int projetos = tarefas / POR_PROJETO;
+        List<Object[]> linhas = new ArrayList<>(projetos);
+        for (int p = 0; p < projetos; p++) {
+            linhas.add(new Object[]{"Projeto " + p});
+        }
+        jdbcTemplate.batchUpdate("insert into projeto (nome) values (?)", linhas);
+
+        // Ids explícitos (o id de tarefa vem de sequência, sem default na coluna), de 1 a N na ordem dos projetos
+        long id = 0;
+        for (int p = 1; p <= projetos; p++) {
+            linhas = new ArrayList<>(POR_PROJETO);
+            for (int i = 0; i < POR_PROJETO; i++) {
+                linhas.add(new Object[]{++id, "Tarefa " + i, 1 + i % 5, i % 97 == 0, false, p});
+            }
+            jdbcTemplate.batchUpdate("insert into tarefa (id, nome, duracao_dias, gargalo, concluida, projeto_id) "
+                    + "values (?, ?, ?, ?, ?, ?)", linhas);
+        }
+
+        paginaProfunda = tarefas / PAGINA - 2;
+        cursorProfundo = (long) paginaProfunda * PAGINA;
+        projetoDoMeio = projetos / 2 + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object primeiraPagina() {
+        return tarefaService.listarResumos(0, PAGINA);
+    }
+
+    @Benchmark
+    public Object paginaProfundaPorChave() {
+        return tarefaService.listarResumos(cursorProfundo, PAGINA);
+    }
+
+    @Benchmark
+    public Object paginaProfundaPorOffset() {
+        return tarefaRepository.findAll(PageRequest.of(paginaProfunda, PAGINA)).getContent().size();
+    }
+
+    @Benchmark
+    public Object tarefasDoProjeto() {
+        return tarefaService.listarDoProjeto(projetoDoMeio);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.Model.Projeto;
+import com.example.demo.Model.Tarefa;
+import com.example.demo.Repository.ProjetoRepository;
+import com.example.demo.Service.ProjetoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProjetoService.recalcularPrazoOtimizado em um contexto Spring real sobre H2 em memória,
+ * para projetos com N tarefas. A chamada roda dentro de uma transação, como acontece nas
+ * requisições web (open-in-view), para que o carregamento lazy de tarefas funcione.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ProjetoRecalculoBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int tarefas;
+
+    private ConfigurableApplicationContext context;
+    private ProjetoService projetoService;
+    private TransactionTemplate transactionTemplate;
+    private Long projetoId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Argumentos de linha de comando têm precedência sobre o application.properties (MariaDB)
+        String[] args = h2Properties().entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+
+        projetoService = context.getBean(ProjetoService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Projeto projeto = new Projeto();
+        projeto.setNome("Benchmark " + tarefas);
+        List<Tarefa> lista = new ArrayList<>(tarefas);
+        for (int i = 0; i < tarefas; i++) {
+            Tarefa tarefa = new Tarefa();
+            tarefa.setNome("Tarefa " + i);
+            tarefa.setDuracaoDias(1 + i % 5);
+            tarefa.setGargalo(i % 97 == 0);
+            tarefa.setProjeto(projeto);
+            lista.add(tarefa);
+        }
+        projeto.setTarefas(lista);
+        projetoId = context.getBean(ProjetoRepository.class).save(projeto).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object recalcularPrazoOtimizado() {
+        return transactionTemplate.execute(status -> projetoService.recalcularPrazoOtimizado(projetoId));
+    }
+
+    static Map<String, Object> h2Properties() {
+        return Map.ofEntries(
+                Map.entry("spring.datasource.url", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1"),
+                Map.entry("spring.datasource.driver-class-name", "org.h2.Driver"),
+                Map.entry("spring.datasource.username", "sa"),
+                Map.entry("spring.datasource.password", ""),
+                Map.entry("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect"),
+                Map.entry("spring.jpa.hibernate.ddl-auto", "create-drop"),
+                Map.entry("spring.jpa.show-sql", "false"),
+                Map.entry("logging.level.root", "WARN"),
+                // Credenciais fictícias: nenhum benchmark chama Jira ou Gemini
+                Map.entry("JIRA_USERNAME", "bench"),
+                Map.entry("JIRA_API_TOKEN", "bench"),
+                Map.entry("GOOGLE_API_KEY", "bench"),
+                Map.entry("jira.mirror.initial-delay-ms", "86400000")
+        );
+    }
+}
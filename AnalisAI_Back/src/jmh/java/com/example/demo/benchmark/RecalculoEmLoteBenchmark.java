@@ -0,0 +1,128 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.Model.Projeto;
+import com.example.demo.Model.Tarefa;
+import com.example.demo.Repository.ProjetoRepository;
+import com.example.demo.Service.CronogramaService;
+import com.example.demo.Service.ProjetoService;
+import com.example.demo.Service.RecalculoEmLoteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recálculo noturno de N projetos (10 tarefas cada, metade delas encadeada) sobre H2 em memória:
+ * o laço antigo (findAll + recalcularPrazoOtimizado por projeto, uma ida ao banco por projeto)
+ * contra o lote paginado com batch JDBC, sequencial e com 4 partições. Antes de cada chamada os
+ * grafos em memória são descartados, como numa execução noturna com o cache frio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RecalculoEmLoteBenchmark {
+
+    private static final int TAREFAS_POR_PROJETO = 10;
+
+    @Param({"1000", "5000"})
+    private int projetos;
+
+    private ConfigurableApplicationContext context;
+    private ProjetoService projetoService;
+    private ProjetoRepository projetoRepository;
+    private CronogramaService cronogramaService;
+    private RecalculoEmLoteService sequencial;
+    private RecalculoEmLoteService particionado;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] args = ProjetoRecalculoBenchmark.h2Properties().entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+
+        projetoService = context.getBean(ProjetoService.class);
+        projetoRepository = context.getBean(ProjetoRepository.class);
+        cronogramaService = context.getBean(CronogramaService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        sequencial = new RecalculoEmLoteService(projetoRepository, cronogramaService, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), 500, 1);
+        particionado = new RecalculoEmLoteService(projetoRepository, cronogramaService, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), 500, 4);
+
+        List<Projeto> lista = new ArrayList<>(projetos);
+        for (int p = 0; p < projetos; p++) {
+            Projeto projeto = new Projeto();
+            projeto.setNome("Projeto " + p);
+            List<Tarefa> tarefas = new ArrayList<>(TAREFAS_POR_PROJETO);
+            for (int i = 0; i < TAREFAS_POR_PROJETO; i++) {
+                Tarefa tarefa = new Tarefa();
+                tarefa.setNome("Tarefa " + i);
+                tarefa.setDuracaoDias(1 + i % 5);
+                tarefa.setGargalo(i % 7 == 0);
+                tarefa.setProjeto(projeto);
+                tarefas.add(tarefa);
+            }
+            projeto.setTarefas(tarefas);
+            lista.add(projeto);
+        }
+        projetoRepository.saveAll(lista);
+        ids = lista.stream().map(Projeto::getId).toList();
+
+        // Tarefas ímpares dependem da anterior
+        List<Object[]> dependencias = new ArrayList<>();
+        for (Projeto projeto : lista) {
+            List<Tarefa> tarefas = projeto.getTarefas();
+            for (int i = 1; i < tarefas.size(); i += 2) {
+                dependencias.add(new Object[]{tarefas.get(i).getId(), tarefas.get(i - 1).getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into tarefa_dependencia (tarefa_id, depende_de) values (?, ?)", dependencias);
+    }
+
+    @Setup(Level.Invocation)
+    public void cacheFrio() {
+        ids.forEach(cronogramaService::invalidar);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int porProjeto() {
+        int recalculados = 0;
+        for (Projeto projeto : projetoRepository.findAll()) {
+            projetoService.recalcularPrazoOtimizado(projeto.getId());
+            recalculados++;
+        }
+        return recalculados;
+    }
+
+    @Benchmark
+    public Object emLote() {
+        return sequencial.recalcularTodos();
+    }
+
+    @Benchmark
+    public Object emLoteParticionado() {
+        return particionado.recalcularTodos();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.Service.MinHashIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de tarefa parecida (MinHashIndex) com N resumos indexados. Os resumos sintéticos são bem
+ * repetitivos ("Criar tela de login 12", "Criar tela de login 13", ...), o pior caso para os buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TarefasSimilaresBenchmark {
+
+    @Param({"10000", "100000"})
+    private int issues;
+
+    private MinHashIndex<String> index;
+    private List<String> consultas;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new MinHashIndex<>();
+        for (IssueSummary issue : BenchmarkFixtures.syntheticSummaries(issues)) {
+            index.put(issue.key(), issue.summary(), issue.key());
+        }
+        // Outra semente: resumos parecidos (e às vezes iguais) aos indexados
+        consultas = BenchmarkFixtures.syntheticSummaries(1000, 7L).stream()
+                .map(issue -> issue.summary() + " v2")
+                .toList();
+    }
+
+    @Benchmark
+    public Object maisSimilar() {
+        String consulta = consultas.get(next);
+        next = (next + 1) % consultas.size();
+        return index.maisSimilar(consulta, 0.6);
+    }
+}
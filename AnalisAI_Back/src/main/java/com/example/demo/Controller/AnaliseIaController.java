@@ -4,37 +4,143 @@ import com.example.demo.DTO.AnaliseTarefaRequest;
 import com.example.demo.DTO.AnaliseTarefaResponse;
 import com.example.demo.DTO.IssueSummary;
 import com.example.demo.Service.AnaliseIaService;
+import com.example.demo.Service.ChatSessaoService;
+import com.example.demo.Service.ContextoIssues;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping(value = "/api/analise-ia", produces = "application/json; charset=UTF-8")
 @CrossOrigin // Garante que o Angular consiga acessar
 public class AnaliseIaController {
 
+    private static final String SESSAO_NAO_ENCONTRADA = "Sessão de chat não encontrada ou expirada.";
+
     private final AnaliseIaService iaService;
+    private final ChatSessaoService chatSessaoService;
+    private final ContextoIssues contextoIssues;
 
-    public AnaliseIaController(AnaliseIaService iaService) {
+    public AnaliseIaController(AnaliseIaService iaService, ChatSessaoService chatSessaoService,
+                               ContextoIssues contextoIssues) {
         this.iaService = iaService;
+        this.chatSessaoService = chatSessaoService;
+        this.contextoIssues = contextoIssues;
     }
 
-    // Endpoint para Chat Livre com a IA
+    // Endpoint para Chat Livre com a IA (com "sessionId", continua a conversa da sessão)
     @PostMapping("/chat")
-    public ResponseEntity<Map<String, String>> chatComIA(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, Object>> chatComIA(@RequestBody Map<String, String> request) {
         String mensagemUsuario = request.get("message");
+        String sessionId = request.get("sessionId");
 
         if (mensagemUsuario == null || mensagemUsuario.isBlank()) {
             return ResponseEntity.badRequest().body(Map.of("reply", "Por favor, envie uma mensagem."));
         }
 
-        String respostaIA = iaService.chatLivre(mensagemUsuario);
-        return ResponseEntity.ok(Map.of("reply", respostaIA));
+        if (sessionId == null || sessionId.isBlank()) {
+            String respostaIA = iaService.chatLivre(mensagemUsuario, contextoIssues.contexto(mensagemUsuario));
+            return ResponseEntity.ok(Map.of("reply", respostaIA));
+        }
+
+        return chatSessaoService.responder(sessionId, mensagemUsuario)
+                .map(resposta -> {
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("reply", resposta.texto());
+                    body.put("sessionId", resposta.sessionId());
+                    body.put("contextoTokens", resposta.contextoTokens());
+                    return ResponseEntity.ok(body);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("reply", SESSAO_NAO_ENCONTRADA)));
+    }
+
+    // Sessões de chat: histórico mantido no servidor, com os turnos antigos resumidos
+    @PostMapping("/chat/sessoes")
+    public ResponseEntity<Map<String, Object>> criarSessaoChat() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("sessionId", chatSessaoService.criar()));
+    }
+
+    @DeleteMapping("/chat/sessoes/{sessionId}")
+    public ResponseEntity<Void> encerrarSessaoChat(@PathVariable String sessionId) {
+        return chatSessaoService.encerrar(sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/chat/sessoes")
+    public ResponseEntity<Map<String, Object>> sessoesChat() {
+        return ResponseEntity.ok(chatSessaoService.snapshot());
+    }
+
+    // Índice do backlog usado como contexto do chat
+    @GetMapping("/chat/contexto")
+    public ResponseEntity<Map<String, Object>> contextoChat() {
+        return ResponseEntity.ok(contextoIssues.snapshot());
+    }
+
+    // Chat em fluxo (SSE): eventos "chunk" com o texto conforme é gerado e um "fim" com as medições
+    @GetMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> chatComIAStream(@RequestParam("message") String mensagemUsuario,
+                                                         @RequestParam(value = "sessionId", required = false) String sessionId) {
+        if (mensagemUsuario == null || mensagemUsuario.isBlank()) {
+            return Flux.just(ServerSentEvent.<Object>builder(Map.of("reply", "Por favor, envie uma mensagem."))
+                    .event("erro").build());
+        }
+
+        Flux<String> resposta;
+        Map<String, Object> sessao = new LinkedHashMap<>();
+        if (sessionId == null || sessionId.isBlank()) {
+            resposta = iaService.chatLivreStream(mensagemUsuario, contextoIssues.contexto(mensagemUsuario));
+        } else {
+            Optional<ChatSessaoService.RespostaStream> turno = chatSessaoService.responderStream(sessionId, mensagemUsuario);
+            if (turno.isEmpty()) {
+                return Flux.just(ServerSentEvent.<Object>builder(Map.of("reply", SESSAO_NAO_ENCONTRADA))
+                        .event("erro").build());
+            }
+            resposta = turno.get().pedacos();
+            sessao.put("sessionId", turno.get().sessionId());
+            sessao.put("contextoTokens", turno.get().contextoTokens());
+        }
+
+        long inicio = System.currentTimeMillis();
+        AtomicLong primeiroToken = new AtomicLong(-1);
+        AtomicInteger pedacos = new AtomicInteger();
+
+        Flux<ServerSentEvent<Object>> chunks = resposta
+                .doOnNext(texto -> {
+                    pedacos.incrementAndGet();
+                    primeiroToken.compareAndSet(-1, System.currentTimeMillis() - inicio);
+                })
+                .map(texto -> ServerSentEvent.<Object>builder(Map.of("text", texto)).event("chunk").build());
+
+        Mono<ServerSentEvent<Object>> fim = Mono.fromSupplier(() -> {
+            Map<String, Object> dados = new LinkedHashMap<>(sessao);
+            dados.put("primeiroTokenMs", primeiroToken.get());
+            dados.put("pedacos", pedacos.get());
+            dados.put("duracaoMs", System.currentTimeMillis() - inicio);
+            return ServerSentEvent.<Object>builder(dados).event("fim").build();
+        });
+
+        return chunks.concatWith(fim)
+                .onErrorResume(e -> Flux.just(ServerSentEvent.<Object>builder(
+                        Map.of("reply", "Desculpe, tive um problema ao processar sua mensagem: " + e.getMessage()))
+                        .event("erro").build()));
     }
 
     // Endpoint para Analisar uma Tarefa específica
@@ -44,36 +150,103 @@ public class AnaliseIaController {
         return ResponseEntity.ok(resp);
     }
 
+    // Endpoint para Analisar várias tarefas de uma vez (em lotes)
+    @PostMapping("/analisar-lote")
+    public ResponseEntity<List<AnaliseTarefaResponse>> analisarLote(@RequestBody List<AnaliseTarefaRequest> reqs) {
+        return ResponseEntity.ok(iaService.analisarTarefas(reqs));
+    }
+
+    // Estatísticas do cache de análises (memória/banco)
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cache() {
+        return ResponseEntity.ok(iaService.getCacheSnapshot());
+    }
+
+    // Circuito, hedges e latências das chamadas ao Gemini
+    @GetMapping("/resiliencia")
+    public ResponseEntity<Map<String, Object>> resiliencia() {
+        return ResponseEntity.ok(iaService.getResilienciaSnapshot());
+    }
+
     // Endpoint legado (carrega do JSON local)
     @PostMapping("/analisar")
     public ResponseEntity<?> analisarTarefasDoArquivo() {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("issues_summary.json");
-            if (inputStream == null) {
+            List<AnaliseTarefaRequest> requests = carregarTarefasDoArquivo();
+            if (requests == null) {
                 return ResponseEntity.badRequest().body("Arquivo issues_summary.json não encontrado.");
             }
-
-            IssueSummary[] issuesArray = mapper.readValue(inputStream, IssueSummary[].class);
-            List<IssueSummary> issues = List.of(issuesArray);
-
-            if (issues.isEmpty()) {
+            if (requests.isEmpty()) {
                 return ResponseEntity.badRequest().body("Nenhuma issue encontrada no arquivo local.");
             }
 
-            List<AnaliseTarefaResponse> respostas = new ArrayList<>();
-            for (IssueSummary issue : issues) {
-                AnaliseTarefaRequest req = new AnaliseTarefaRequest(
-                        issue.key(), issue.issuetype(), issue.summary(),
-                        issue.status(), issue.assignee(), issue.created(),
-                        issue.updated(), List.of()
-                );
-                respostas.add(iaService.analisarTarefa(req));
-            }
-            return ResponseEntity.ok(respostas);
+            // Várias tarefas por chamada ao Gemini (instruções e schema enviados uma vez por lote)
+            return ResponseEntity.ok(iaService.analisarTarefas(requests));
 
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Erro ao carregar JSON local: " + e.getMessage());
         }
     }
+
+    // Mesmo conteúdo de /analisar, mas cada análise é enviada (SSE) assim que fica pronta
+    @GetMapping(value = "/analisar/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> analisarTarefasDoArquivoStream() throws IOException {
+        List<AnaliseTarefaRequest> requests = carregarTarefasDoArquivo();
+        return streamAnalises(requests != null ? requests : List.of());
+    }
+
+    // Análise em massa com resultados via SSE: eventos "resultado" (um por tarefa) e um "resumo" final
+    @PostMapping(value = "/analisar-lote/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> analisarLoteStream(@RequestBody List<AnaliseTarefaRequest> reqs) {
+        return streamAnalises(reqs);
+    }
+
+    private Flux<ServerSentEvent<Object>> streamAnalises(List<AnaliseTarefaRequest> requests) {
+        long inicio = System.currentTimeMillis();
+        AtomicInteger doCache = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+        AtomicInteger concluidas = new AtomicInteger();
+
+        Flux<ServerSentEvent<Object>> resultados = iaService.analisarTarefasConcorrente(requests)
+                .doOnNext(r -> {
+                    concluidas.incrementAndGet();
+                    if (r.doCache()) doCache.incrementAndGet();
+                    if (AnaliseIaService.isFalha(r.resposta())) falhas.incrementAndGet();
+                })
+                .map(r -> ServerSentEvent.<Object>builder(r)
+                        .id(String.valueOf(r.indice()))
+                        .event("resultado")
+                        .build());
+
+        Mono<ServerSentEvent<Object>> resumo = Mono.fromSupplier(() -> {
+            Map<String, Object> dados = new LinkedHashMap<>();
+            dados.put("total", requests.size());
+            dados.put("concluidas", concluidas.get());
+            dados.put("doCache", doCache.get());
+            dados.put("falhas", falhas.get());
+            dados.put("duracaoMs", System.currentTimeMillis() - inicio);
+            return ServerSentEvent.<Object>builder(dados).event("resumo").build();
+        });
+
+        return resultados.concatWith(resumo);
+    }
+
+    // Lê issues_summary.json do classpath (null se o arquivo não existir)
+    private List<AnaliseTarefaRequest> carregarTarefasDoArquivo() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("issues_summary.json")) {
+            if (inputStream == null) {
+                return null;
+            }
+
+            IssueSummary[] issues = mapper.readValue(inputStream, IssueSummary[].class);
+            return Arrays.stream(issues)
+                    .map(issue -> new AnaliseTarefaRequest(
+                            issue.issuetype(), issue.created(), issue.updated(),
+                            issue.assignee(), issue.key(), issue.summary(),
+                            issue.status(), List.of()
+                    ))
+                    .toList();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.demo.Controller;
+
+import com.example.demo.DTO.AnaliseRequestDTO;
+import com.example.demo.Service.AnaliseJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping(value = "/api/analise-ia/jobs", produces = "application/json; charset=UTF-8")
+@CrossOrigin
+public class AnaliseJobController {
+
+    private final AnaliseJobService jobService;
+
+    public AnaliseJobController(AnaliseJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    // Enfileira a análise (issueKeys ou jqlQuery) e devolve o id do job imediatamente
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> criarJob(@RequestBody(required = false) AnaliseRequestDTO request) {
+        return ResponseEntity.accepted().body(jobService.criar(request != null ? request : new AnaliseRequestDTO()));
+    }
+
+    // Progresso do job (total, concluídos, falhas, pendentes)
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> buscarJob(@PathVariable String id) {
+        return jobService.buscar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Resultados por tarefa; os pendentes vêm sem resposta (resultados parciais)
+    @GetMapping("/{id}/resultados")
+    public ResponseEntity<List<Map<String, Object>>> resultadosJob(@PathVariable String id) {
+        return jobService.resultados(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Refaz as tarefas que falharam (ou retoma um job cancelado); as já analisadas não são refeitas
+    @PostMapping("/{id}/reprocessar")
+    public ResponseEntity<Map<String, Object>> reprocessarJob(@PathVariable String id) {
+        return jobService.reprocessar(id)
+                .map(progresso -> ResponseEntity.accepted().body(progresso))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Cancela o job; o que já foi analisado continua salvo no histórico
+    @PostMapping("/{id}/cancelar")
+    public ResponseEntity<Map<String, Object>> cancelarJob(@PathVariable String id) {
+        return jobService.cancelar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -2,12 +2,16 @@ package com.example.demo.Controller;
 
 import com.example.demo.DTO.DashboardStatsDTO;
 import com.example.demo.Service.DashboardService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @CrossOrigin
@@ -26,6 +30,19 @@ public class DashboardController {
     @GetMapping("/stats")
     public ResponseEntity<DashboardStatsDTO> getDashboardStats() {
         DashboardStatsDTO stats = dashboardService.getProjectStats();
-        return ResponseEntity.ok(stats);
+        Duration age = dashboardService.getStatsCache().age();
+
+        // Header Age (segundos) indica há quanto tempo as estatísticas foram calculadas
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(age != null ? age.toSeconds() : 0))
+                .body(stats);
+    }
+
+    /**
+     * Idade do cache de estatísticas e contadores de hit/miss.
+     */
+    @GetMapping("/stats/cache")
+    public ResponseEntity<Map<String, Object>> getStatsCache() {
+        return ResponseEntity.ok(dashboardService.getStatsCache().snapshot());
     }
 }
\ No newline at end of file
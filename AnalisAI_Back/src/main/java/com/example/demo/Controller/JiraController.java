@@ -1,8 +1,14 @@
 package com.example.demo.Controller;
 
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.config.JiraHttpPoolMetrics;
 import com.example.demo.Service.JiraClient;
+import com.example.demo.Service.JiraMirrorService;
+import com.example.demo.Service.JiraRequestGovernor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.*;
 
@@ -12,9 +18,16 @@ import java.util.*;
 public class JiraController {
 
     private final JiraClient jira;
+    private final JiraMirrorService mirror;
+    private final JiraHttpPoolMetrics poolMetrics;
+    private final JiraRequestGovernor governor;
 
-    public JiraController(JiraClient jira) {
+    public JiraController(JiraClient jira, JiraMirrorService mirror,
+                          JiraHttpPoolMetrics poolMetrics, JiraRequestGovernor governor) {
         this.jira = jira;
+        this.mirror = mirror;
+        this.poolMetrics = poolMetrics;
+        this.governor = governor;
     }
 
     // Endpoint de teste
@@ -23,16 +36,28 @@ public class JiraController {
         return ResponseEntity.ok("Jira Backend OK");
     }
 
+    // Estado do pool de conexões HTTP compartilhado com o Jira
+    @GetMapping("/http/pool")
+    public ResponseEntity<List<Map<String, Object>>> httpPool() {
+        return ResponseEntity.ok(poolMetrics.snapshot());
+    }
+
+    // Estado do governador de chamadas ao Jira (taxa, concorrência adaptativa, retentativas)
+    @GetMapping("/http/governor")
+    public ResponseEntity<Map<String, Object>> httpGovernor() {
+        return ResponseEntity.ok(governor.snapshot());
+    }
+
     // Lista todos os projetos (RAW)
     @GetMapping("/projects/raw")
     public ResponseEntity<String> listProjects() {
         return ResponseEntity.ok(jira.listProjectsRaw());
     }
 
-    // Lista todas as issues resumidas (DTO)
+    // Lista todas as issues resumidas (DTO), servidas do espelho local
     @GetMapping("/issues")
     public ResponseEntity<List<?>> listSummaries() {
-        List<?> issues = jira.fetchAllAsSummaries();
+        List<?> issues = mirror.listIssues();
 
         if (issues == null || issues.isEmpty()) {
             return ResponseEntity.noContent().build(); // Retorna 204 se não houver issues
@@ -41,6 +66,12 @@ public class JiraController {
         return ResponseEntity.ok(issues);
     }
 
+    // Stream NDJSON direto do Jira: cada issue é enviada assim que sua página chega
+    @GetMapping(value = "/issues/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<IssueSummary> streamSummaries() {
+        return jira.streamSummaries();
+    }
+
     // Retorna todas as issues paginadas igual ao script PowerShell
     @GetMapping("/issues/raw")
     public ResponseEntity<Map<String, Object>> listIssuesRaw(
@@ -55,4 +86,11 @@ public class JiraController {
 
         return ResponseEntity.ok(response);
     }
+
+    // Força a sincronização do espelho local (full=true refaz a carga completa)
+    @PostMapping("/sync")
+    public ResponseEntity<Map<String, Object>> sync(@RequestParam(defaultValue = "false") boolean full) {
+        int recebidas = mirror.sync(full);
+        return ResponseEntity.ok(Map.of("issuesRecebidas", recebidas, "completa", full));
+    }
 }
\ No newline at end of file
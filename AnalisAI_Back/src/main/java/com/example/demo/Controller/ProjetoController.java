@@ -1,12 +1,22 @@
 package com.example.demo.Controller;
 
+import com.example.demo.DTO.Pagina;
+import com.example.demo.DTO.ProjetoResumo;
+import com.example.demo.DTO.TarefaDetalhe;
 import com.example.demo.Model.Projeto;
+import com.example.demo.Service.FilaRecalculoService;
 import com.example.demo.Service.ProjetoService;
+import com.example.demo.Service.RecalculoEmLoteService;
+import com.example.demo.Service.TarefaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,16 +27,26 @@ public class ProjetoController {
     @Autowired
     private ProjetoService projetoService;
 
+    @Autowired
+    private TarefaService tarefaService;
+
+    @Autowired
+    private RecalculoEmLoteService recalculoEmLoteService;
+
+    @Autowired
+    private FilaRecalculoService filaRecalculo;
+
     // Criar um novo projeto
     @PostMapping
     public Projeto criarProjeto(@RequestBody Projeto projeto) {
         return projetoService.salvarProjeto(projeto);
     }
 
-    // Listar todos os projetos
+    // Listar projetos, paginado por chave: ?depois=<cursor da página anterior>&limite=50 (máx. 500)
     @GetMapping
-    public List<Projeto> listarProjetos() {
-        return projetoService.listarProjetos();
+    public Pagina<ProjetoResumo> listarProjetos(@RequestParam(defaultValue = "0") long depois,
+                                                @RequestParam(defaultValue = "50") int limite) {
+        return projetoService.listarResumos(depois, limite);
     }
 
     // Buscar um projeto específico pelo ID
@@ -35,6 +55,13 @@ public class ProjetoController {
         return projetoService.buscarPorId(id);
     }
 
+    // Tarefas do projeto (com dependências), carregadas em uma consulta só
+    @GetMapping("/{id}/tarefas")
+    public List<TarefaDetalhe> listarTarefas(@PathVariable Long id) {
+        projetoService.buscarPorId(id);
+        return tarefaService.listarDoProjeto(id);
+    }
+
     // Atualizar um projeto existente (recalcula automaticamente o prazo otimizado)
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> atualizarProjeto(@PathVariable Long id, @RequestBody Projeto projetoAtualizado) {
@@ -49,6 +76,12 @@ public class ProjetoController {
         return ResponseEntity.ok(resposta);
     }
 
+    // Excluir o projeto e as tarefas dele
+    @DeleteMapping("/{id}")
+    public void deletarProjeto(@PathVariable Long id) {
+        projetoService.deletarProjeto(id);
+    }
+
     // Recalcular prazo otimizado do projeto (manual)
     @PostMapping("/{id}/recalcular")
     public ResponseEntity<Map<String, Object>> recalcularPrazo(@PathVariable Long id) {
@@ -62,4 +95,42 @@ public class ProjetoController {
 
         return ResponseEntity.ok(resposta);
     }
-}
\ No newline at end of file
+
+    // Caminho crítico do projeto: cadeia crítica e folga de cada tarefa
+    @GetMapping("/{id}/caminho-critico")
+    public Map<String, Object> caminhoCritico(@PathVariable Long id) {
+        return projetoService.caminhoCritico(id);
+    }
+
+    // Recalcular o prazo de todos os projetos em lote (o mesmo do agendamento noturno)
+    @PostMapping("/recalcular")
+    public RecalculoEmLoteService.Resultado recalcularTodos() {
+        try {
+            return recalculoEmLoteService.recalcularTodos();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @GetMapping("/recalculo")
+    public Map<String, Object> recalculo() {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("lote", recalculoEmLoteService.snapshot());
+        resposta.put("fila", filaRecalculo.snapshot());
+        return resposta;
+    }
+
+    // Situação do recálculo do prazo após alterações nas tarefas. Com aguardarMs, espera até as
+    // alterações feitas antes da chamada serem recalculadas (202 se o tempo acabar antes)
+    @GetMapping("/{id}/recalculo")
+    public ResponseEntity<FilaRecalculoService.Situacao> recalculoProjeto(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") long aguardarMs) throws InterruptedException {
+        FilaRecalculoService.Situacao situacao = aguardarMs > 0
+                ? filaRecalculo.aguardar(id, Duration.ofMillis(Math.min(aguardarMs, 30_000)))
+                : filaRecalculo.situacao(id);
+        return situacao.pendente()
+                ? ResponseEntity.accepted().body(situacao)
+                : ResponseEntity.ok(situacao);
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.demo.Controller;
 
+import com.example.demo.DTO.Pagina;
+import com.example.demo.DTO.TarefaResumo;
 import com.example.demo.Model.Tarefa;
+import com.example.demo.Service.ImportacaoTarefasService;
 import com.example.demo.Service.TarefaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/tarefas")
@@ -14,9 +18,14 @@ public class TarefaController {
     @Autowired
     private TarefaService tarefaService;
 
+    @Autowired
+    private ImportacaoTarefasService importacaoTarefasService;
+
+    // Listagem paginada por chave: ?depois=<cursor da página anterior>&limite=50 (máx. 500)
     @GetMapping
-    public List<Tarefa> listarTarefas() {
-        return tarefaService.listarTarefas();
+    public Pagina<TarefaResumo> listarTarefas(@RequestParam(defaultValue = "0") long depois,
+                                              @RequestParam(defaultValue = "50") int limite) {
+        return tarefaService.listarResumos(depois, limite);
     }
 
     @PostMapping
@@ -24,6 +33,13 @@ public class TarefaController {
         return tarefaService.salvarTarefa(tarefa);
     }
 
+    // Importação em massa: array JSON ou NDJSON (um objeto por linha) com nome, duracaoDias, gargalo,
+    // concluida, projetoId e dependencias; o corpo é lido como stream, sem carregar o arquivo inteiro
+    @PostMapping(value = "/importar", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportacaoTarefasService.Resultado importarTarefas(InputStream corpo) {
+        return importacaoTarefasService.importar(corpo);
+    }
+
     @DeleteMapping("/{id}")
     public void deletarTarefa(@PathVariable Long id) {
         tarefaService.deletarTarefa(id);
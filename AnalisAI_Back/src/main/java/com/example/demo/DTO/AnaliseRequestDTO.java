@@ -3,6 +3,8 @@ package com.example.demo.DTO;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 public class AnaliseRequestDTO {
@@ -14,5 +16,11 @@ public class AnaliseRequestDTO {
      */
     private String jqlQuery;
 
+    /**
+     * Chaves das issues a analisar (ex: ["AP-1", "AP-7"]), lidas do espelho local.
+     * Quando informado, tem precedência sobre o jqlQuery.
+     */
+    private List<String> issueKeys;
+
     // Futuramente, pode incluir outros parâmetros, como "nomeDaAnalise", "tipoDeAnalise", etc.
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.demo.DTO;
+
+/**
+ * Resultado de uma tarefa na análise em massa, emitido assim que fica pronto.
+ * "indice" é a posição da tarefa na lista enviada (os resultados chegam fora de ordem).
+ */
+public record AnaliseTarefaResultado(
+        int indice,
+        boolean doCache,
+        AnaliseTarefaResponse resposta
+) {}
@@ -0,0 +1,4 @@
+package com.example.demo.DTO;
+
+// Aresta do grafo de tarefas: "tarefaId" só começa depois que "dependeDe" termina
+public record DependenciaTarefa(Long projetoId, Long tarefaId, Long dependeDe) {}
@@ -1,7 +1,11 @@
 package com.example.demo.DTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+// nextPageToken nulo não é enviado (primeira página)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record JiraSearchJqlRequest(
         String jql,
         Integer maxResults,
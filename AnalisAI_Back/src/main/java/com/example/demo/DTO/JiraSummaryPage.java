@@ -0,0 +1,16 @@
+package com.example.demo.DTO;
+
+import java.util.List;
+
+/**
+ * Página do /search/jql já reduzida a IssueSummary (sem o JSON completo de cada issue).
+ */
+public record JiraSummaryPage(
+        List<IssueSummary> issues,
+        String nextPageToken,
+        Boolean isLast
+) {
+    public boolean hasNext() {
+        return !Boolean.TRUE.equals(isLast) && nextPageToken != null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.DTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem por chave (keyset): "proximo" é o cursor para pedir a página seguinte
+ * (?depois=proximo), ou null na última página.
+ */
+public record Pagina<T>(List<T> itens, Long proximo) {
+
+    public static final int LIMITE_MAXIMO = 500;
+
+    // Tamanho de página pedido (?limite=) entre 1 e LIMITE_MAXIMO
+    public static int limitar(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    // Recebe até limite + 1 linhas: a linha extra só indica que existe próxima página
+    public static <T> Pagina<T> de(List<T> linhas, int limite, Function<T, Long> id) {
+        if (linhas.size() <= limite) {
+            return new Pagina<>(linhas, null);
+        }
+        List<T> itens = linhas.subList(0, limite);
+        return new Pagina<>(itens, id.apply(itens.get(limite - 1)));
+    }
+}
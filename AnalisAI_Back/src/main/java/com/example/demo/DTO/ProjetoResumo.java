@@ -0,0 +1,6 @@
+package com.example.demo.DTO;
+
+import java.time.LocalDate;
+
+// Projeto na listagem: sem a lista de tarefas
+public record ProjetoResumo(Long id, String nome, LocalDate prazoOtimizado) {}
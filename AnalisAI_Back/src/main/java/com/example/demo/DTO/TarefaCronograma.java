@@ -0,0 +1,4 @@
+package com.example.demo.DTO;
+
+// Só o que o caminho crítico usa de uma tarefa (projeção, sem carregar a entidade)
+public record TarefaCronograma(Long projetoId, Long id, int duracaoDias, boolean gargalo, boolean concluida) {}
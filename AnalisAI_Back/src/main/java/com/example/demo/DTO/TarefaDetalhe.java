@@ -0,0 +1,6 @@
+package com.example.demo.DTO;
+
+import java.util.Set;
+
+// Tarefa na listagem de um projeto, com as dependências (ids de tarefas do mesmo projeto)
+public record TarefaDetalhe(Long id, String nome, int duracaoDias, boolean gargalo, boolean concluida, Set<Long> dependencias) {}
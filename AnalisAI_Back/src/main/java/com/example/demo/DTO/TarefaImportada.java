@@ -0,0 +1,7 @@
+package com.example.demo.DTO;
+
+import java.util.Set;
+
+// Um item da importação em massa (mesmos campos da listagem, dependências opcionais)
+public record TarefaImportada(String nome, int duracaoDias, boolean gargalo, boolean concluida, Long projetoId,
+                              Set<Long> dependencias) {}
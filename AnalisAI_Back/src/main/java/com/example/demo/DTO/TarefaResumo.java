@@ -0,0 +1,4 @@
+package com.example.demo.DTO;
+
+// Tarefa na listagem geral: o projeto vem só pelo id
+public record TarefaResumo(Long id, String nome, int duracaoDias, boolean gargalo, boolean concluida, Long projetoId) {}
@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
  * Esta tabela armazena o "histórico de análises e recomendações".
  */
 @Entity
-@Table(name = "analise_historico")
+@Table(name = "analise_historico", indexes = {
+        @Index(name = "idx_analise_chave_conteudo", columnList = "chave_conteudo", unique = true)
+})
 @Data
 @NoArgsConstructor
 public class Analise {
@@ -50,5 +52,32 @@ public class Analise {
     @Column(columnDefinition = "TEXT")
     private String sugestaoPlanoAcao;
 
+    /**
+     * Hash (SHA-256) do prompt, schema e modelo que geraram a análise.
+     * Mesma entrada = mesma chave; qualquer mudança na tarefa ou no prompt gera uma chave nova.
+     */
+    @Column(name = "chave_conteudo", length = 64)
+    private String chaveConteudo;
+
+    /**
+     * Chave da issue analisada (ex: AP-21).
+     */
+    @Column(name = "issue_key", length = 64)
+    private String issueKey;
+
+    /**
+     * Resumo da tarefa quando a análise foi gerada, usado pelo índice de tarefas parecidas.
+     * Nulo quando a análise foi reaproveitada de outra tarefa.
+     */
+    @Column(name = "resumo_tarefa", length = 1000)
+    private String resumoTarefa;
+
+    /**
+     * Resposta completa da IA (AnaliseTarefaResponse em JSON), usada para servir o cache.
+     */
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String respostaJson;
+
     // Getters, Setters, etc., são gerados pelo Lombok (@Data)
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.example.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Job assíncrono de análise em massa.
+ * A lista de tarefas fica em {@link AnaliseJobItem}; os resultados vão para analise_historico.
+ */
+@Entity
+@Table(name = "analise_job")
+@Data
+@NoArgsConstructor
+public class AnaliseJob {
+
+    public enum Status { PENDENTE, EXECUTANDO, CONCLUIDO, CANCELADO, FALHOU }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status;
+
+    /**
+     * JQL usado para montar a lista de tarefas (null quando o job foi criado com chaves).
+     */
+    @Column(columnDefinition = "TEXT")
+    private String jql;
+
+    /**
+     * Chaves pedidas explicitamente, separadas por vírgula (null quando o job usa JQL).
+     */
+    @Column(columnDefinition = "TEXT")
+    private String issueKeys;
+
+    private int total;
+
+    @Column(columnDefinition = "TEXT")
+    private String erro;
+
+    private Instant criadoEm;
+    private Instant iniciadoEm;
+    private Instant concluidoEm;
+}
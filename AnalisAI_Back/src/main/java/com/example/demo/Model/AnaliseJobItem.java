@@ -0,0 +1,62 @@
+package com.example.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Uma tarefa de um {@link AnaliseJob}.
+ * Guarda a entrada da análise (para retomar sem consultar o Jira de novo) e, depois de concluída,
+ * a chave de conteúdo da análise gravada em analise_historico.
+ * Falhas da análise deixam o item PENDENTE para uma nova tentativa; FALHOU é definitivo
+ * (issue não encontrada ou tentativas esgotadas).
+ */
+@Entity
+@Table(name = "analise_job_item", indexes = {
+        @Index(name = "idx_analise_job_item_job", columnList = "job_id, status")
+})
+@Data
+@NoArgsConstructor
+public class AnaliseJobItem {
+
+    public enum Status { PENDENTE, CONCLUIDO, FALHOU }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", length = 36, nullable = false)
+    private String jobId;
+
+    private int indice;
+
+    @Column(name = "issue_key", length = 64)
+    private String issueKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status;
+
+    /**
+     * AnaliseTarefaRequest em JSON.
+     */
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String requestJson;
+
+    @Column(name = "chave_conteudo", length = 64)
+    private String chaveConteudo;
+
+    @Column(columnDefinition = "TEXT")
+    private String erro;
+
+    // Análises que falharam (erro do Gemini ou análise provisória)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tentativas;
+
+    private Instant atualizadoEm;
+}
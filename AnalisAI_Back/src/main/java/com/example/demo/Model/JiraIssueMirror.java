@@ -0,0 +1,64 @@
+package com.example.demo.Model;
+
+import com.example.demo.DTO.IssueSummary;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Espelho local de uma issue do Jira.
+ * Cada linha guarda os mesmos campos de {@link IssueSummary}, permitindo que
+ * os endpoints de leitura sejam servidos do banco em vez de varrer o Jira inteiro.
+ */
+@Entity
+@Table(name = "jira_issue_mirror", indexes = {
+        @Index(name = "idx_jira_issue_mirror_updated", columnList = "updated")
+})
+@Data
+@NoArgsConstructor
+public class JiraIssueMirror {
+
+    /**
+     * Chave da issue no Jira (ex: AP-21). "key" é palavra reservada no MariaDB.
+     */
+    @Id
+    @Column(name = "issue_key", length = 64)
+    private String issueKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    private String status;
+    private String assignee;
+    private String project;
+    private String issuetype;
+    private String created;
+    private String updated;
+    private String duedate;
+
+    /**
+     * Momento em que a linha foi gravada pela última sincronização.
+     */
+    private Instant sincronizadoEm;
+
+    public static JiraIssueMirror fromSummary(IssueSummary issue, Instant sincronizadoEm) {
+        JiraIssueMirror mirror = new JiraIssueMirror();
+        mirror.setIssueKey(issue.key());
+        mirror.setSummary(issue.summary());
+        mirror.setStatus(issue.status());
+        mirror.setAssignee(issue.assignee());
+        mirror.setProject(issue.project());
+        mirror.setIssuetype(issue.issuetype());
+        mirror.setCreated(issue.created());
+        mirror.setUpdated(issue.updated());
+        mirror.setDuedate(issue.duedate());
+        mirror.setSincronizadoEm(sincronizadoEm);
+        return mirror;
+    }
+
+    public IssueSummary toSummary() {
+        return new IssueSummary(issueKey, summary, status, assignee, project, issuetype, created, updated, duedate);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Marca d'água da sincronização do espelho de issues do Jira.
+ * Existe uma única linha por JQL sincronizado (id = "default" para o jira.jql).
+ */
+@Entity
+@Table(name = "jira_sync_state")
+@Data
+@NoArgsConstructor
+public class JiraSyncState {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /**
+     * Início da última sincronização (incremental ou completa) concluída com sucesso.
+     * A próxima sincronização incremental pede apenas "updated >=" este instante.
+     */
+    private Instant ultimaSincronizacao;
+
+    /**
+     * Início da última sincronização completa, usada também para remover issues apagadas no Jira.
+     */
+    private Instant ultimaSincronizacaoCompleta;
+
+    /**
+     * Quantidade de issues recebidas na última sincronização.
+     */
+    private int issuesRecebidas;
+}
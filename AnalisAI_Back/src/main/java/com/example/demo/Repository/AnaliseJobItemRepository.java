@@ -0,0 +1,22 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.AnaliseJobItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AnaliseJobItemRepository extends JpaRepository<AnaliseJobItem, Long> {
+
+    List<AnaliseJobItem> findByJobIdOrderByIndiceAsc(String jobId);
+
+    List<AnaliseJobItem> findByJobIdAndStatusOrderByIndiceAsc(String jobId, AnaliseJobItem.Status status);
+
+    long countByJobIdAndStatus(String jobId, AnaliseJobItem.Status status);
+
+    boolean existsByJobId(String jobId);
+
+    // Itens que falharam por erro da análise (os sem requestJson são issues que não existem no Jira)
+    List<AnaliseJobItem> findByJobIdAndStatusAndRequestJsonIsNotNull(String jobId, AnaliseJobItem.Status status);
+}
@@ -0,0 +1,17 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.AnaliseJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AnaliseJobRepository extends JpaRepository<AnaliseJob, String> {
+
+    /**
+     * Jobs a retomar depois de um reinício, na ordem em que foram criados.
+     */
+    List<AnaliseJob> findByStatusInOrderByCriadoEmAsc(Collection<AnaliseJob.Status> status);
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AnaliseRepository extends JpaRepository<Analise, Long> {
@@ -14,4 +15,20 @@ public interface AnaliseRepository extends JpaRepository<Analise, Long> {
      * @return Lista de análises ordenadas.
      */
     List<Analise> findAllByOrderByDataGeracaoDesc();
+
+    /**
+     * Busca uma análise já gerada para exatamente a mesma entrada (cache da IA).
+     */
+    Optional<Analise> findFirstByChaveConteudo(String chaveConteudo);
+
+    /**
+     * Só as colunas do índice de tarefas parecidas, da análise mais antiga para a mais recente.
+     */
+    List<AnaliseResumo> findByResumoTarefaIsNotNullAndChaveConteudoIsNotNullOrderByDataGeracaoAsc();
+
+    interface AnaliseResumo {
+        String getIssueKey();
+        String getResumoTarefa();
+        String getChaveConteudo();
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.JiraIssueMirror;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JiraIssueMirrorRepository extends JpaRepository<JiraIssueMirror, String> {
+
+    /**
+     * Mesma ordenação do jira.jql padrão (updated DESC).
+     */
+    List<JiraIssueMirror> findAllByOrderByUpdatedDesc();
+
+    /**
+     * Apenas as chaves, para detectar issues removidas no Jira sem carregar as linhas inteiras.
+     */
+    @Query("select m.issueKey from JiraIssueMirror m")
+    List<String> findAllKeys();
+}
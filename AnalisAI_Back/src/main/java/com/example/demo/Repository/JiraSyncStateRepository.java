@@ -0,0 +1,9 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.JiraSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JiraSyncStateRepository extends JpaRepository<JiraSyncState, String> {
+}
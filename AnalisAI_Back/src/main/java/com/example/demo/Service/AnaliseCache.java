@@ -0,0 +1,159 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.AnaliseTarefaResponse;
+import com.example.demo.Model.Analise;
+import com.example.demo.Repository.AnaliseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache das análises de tarefas, endereçado pelo conteúdo da requisição ao Gemini.
+ *
+ * A chave é o SHA-256 do corpo enviado ao Gemini (prompt + schema de resposta) e do modelo: se a tarefa
+ * (resumo, status, ...) ou o próprio prompt mudarem, a chave muda e a análise antiga deixa de ser encontrada.
+ * Primeiro nível em memória (LRU); segundo nível na tabela analise_historico, que sobrevive a reinícios.
+ */
+@Component
+@Slf4j
+public class AnaliseCache {
+
+    private final AnaliseRepository analiseRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+
+    // LinkedHashMap em ordem de acesso: o mais antigo é removido ao passar de maxEntries
+    private final Map<String, AnaliseTarefaResponse> lru;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AnaliseCache(
+            AnaliseRepository analiseRepository,
+            ObjectMapper objectMapper,
+            @Value("${gemini.cache.max-entries:1000}") int maxEntries
+    ) {
+        this.analiseRepository = analiseRepository;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AnaliseTarefaResponse> eldest) {
+                return size() > AnaliseCache.this.maxEntries;
+            }
+        };
+    }
+
+    // ============================
+    // Chave de conteúdo
+    // ============================
+    public String chave(byte[] corpo, String modelo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(modelo).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(corpo);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    // ============================
+    // Leitura (memória -> banco)
+    // ============================
+    public Optional<AnaliseTarefaResponse> get(String chave) {
+        AnaliseTarefaResponse cached;
+        synchronized (lru) {
+            cached = lru.get(chave);
+        }
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        Optional<AnaliseTarefaResponse> stored = analiseRepository.findFirstByChaveConteudo(chave)
+                .map(Analise::getRespostaJson)
+                .flatMap(this::fromJson);
+
+        if (stored.isPresent()) {
+            databaseHits.incrementAndGet();
+            synchronized (lru) {
+                lru.put(chave, stored.get());
+            }
+        } else {
+            misses.incrementAndGet();
+        }
+        return stored;
+    }
+
+    // ============================
+    // Escrita (memória + banco)
+    // ============================
+    // resumo: resumo da tarefa analisada (null quando a análise foi reaproveitada de outra tarefa)
+    public void put(String chave, String issueKey, String resumo, AnaliseTarefaResponse response) {
+        synchronized (lru) {
+            lru.put(chave, response);
+        }
+
+        try {
+            Analise analise = new Analise();
+            analise.setChaveConteudo(chave);
+            analise.setIssueKey(issueKey);
+            analise.setResumoTarefa(resumo != null && resumo.length() > 1000 ? resumo.substring(0, 1000) : resumo);
+            analise.setDataGeracao(LocalDateTime.now());
+            analise.setIdentificacaoGargalos(response.resumoRiscos());
+            analise.setDependenciasIdentificadas(join(response.dependenciasObrigatorias()));
+            analise.setSugestaoPlanoAcao(join(response.sugestoesOtimizacao()));
+            analise.setRespostaJson(objectMapper.writeValueAsString(response));
+            analiseRepository.save(analise);
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição gravou a mesma chave ao mesmo tempo; o conteúdo é equivalente
+            log.debug("Análise {} já persistida por outra requisição", chave);
+        } catch (Exception e) {
+            log.error("Falha ao persistir análise no histórico: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        synchronized (lru) {
+            state.put("memoryEntries", lru.size());
+        }
+        state.put("maxEntries", maxEntries);
+        state.put("memoryHits", memoryHits.get());
+        state.put("databaseHits", databaseHits.get());
+        state.put("misses", misses.get());
+        return state;
+    }
+
+    private Optional<AnaliseTarefaResponse> fromJson(String json) {
+        if (json == null || json.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(json, AnaliseTarefaResponse.class));
+        } catch (Exception e) {
+            log.warn("Análise em cache ilegível, será regerada: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static String join(List<String> itens) {
+        return itens == null ? null : String.join("\n", itens);
+    }
+}
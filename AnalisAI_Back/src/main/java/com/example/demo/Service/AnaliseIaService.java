@@ -2,25 +2,69 @@ package com.example.demo.Service;
 
 import com.example.demo.DTO.AnaliseTarefaRequest;
 import com.example.demo.DTO.AnaliseTarefaResponse;
+import com.example.demo.DTO.AnaliseTarefaResultado;
+import com.example.demo.Service.GeminiResilience.Operacao;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 @Service
+@Slf4j
 public class AnaliseIaService {
 
+    private static final String FALHA_RESUMO = "Falha na análise";
+    // Análise feita sem o Gemini (circuito aberto ou orçamento estourado): não vai para o cache e conta como falha
+    private static final String RESUMO_DEGRADADO = "Análise provisória (IA indisponível): ";
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final AnaliseCache analiseCache;
+    private final TarefasSimilares tarefasSimilares;
+    private final GeminiResilience resilience;
+    private final int concurrency;
+    private final Duration itemTimeout;
+
+    // Schema e prompt de análise pré-compilados (ver GeminiRequestEncoder)
+    private final JsonNode responseSchema;
+    private final GeminiRequestEncoder analysisEncoder;
+
+    // Tamanho de lote adaptativo: cai pela metade quando um lote falha ou é truncado, sobe 1 a cada sucesso
+    private final AtomicInteger tamanhoLote;
+    private final int maxBatchSize;
+    private final int maxPromptTokens;
+    private volatile double charsPorToken = 4.0;
 
     @Value("${gemini.api.url}")
     private String apiUrl;
@@ -28,95 +72,666 @@ public class AnaliseIaService {
     @Value("${gemini.api.key}")
     private String apiKey;
 
-    public AnaliseIaService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public AnaliseIaService(
+            WebClient.Builder webClientBuilder,
+            ObjectMapper objectMapper,
+            AnaliseCache analiseCache,
+            TarefasSimilares tarefasSimilares,
+            GeminiResilience resilience,
+            @Value("${gemini.batch.max-size:20}") int maxBatchSize,
+            @Value("${gemini.batch.max-prompt-tokens:8000}") int maxPromptTokens,
+            @Value("${gemini.analise.concurrency:4}") int concurrency,
+            @Value("${gemini.analise.item-timeout-ms:90000}") long itemTimeoutMs
+    ) {
         this.webClient = webClientBuilder.build();
         this.objectMapper = objectMapper;
+        this.analiseCache = analiseCache;
+        this.tarefasSimilares = tarefasSimilares;
+        this.resilience = resilience;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPromptTokens = maxPromptTokens;
+        this.tamanhoLote = new AtomicInteger(maxBatchSize);
+        this.concurrency = concurrency;
+        this.itemTimeout = Duration.ofMillis(itemTimeoutMs);
+        this.responseSchema = buildResponseSchema();
+        this.analysisEncoder = GeminiRequestEncoder.compile(objectMapper, PROMPT_ANALISE, responseSchema);
     }
 
     // ==============================
     // CHAT LIVRE (Novo Método)
     // ==============================
-    public String chatLivre(String mensagemUsuario) {
-        String promptSistema = "Você é a AnalisAI, uma assistente especialista em gestão ágil e Jira. " +
-                "Seja breve, útil e amigável. Responda em texto simples (sem Markdown complexo). " +
+    // contexto: bloco com as issues do backlog relacionadas à pergunta (ContextoIssues), ou vazio
+    public String chatLivre(String mensagemUsuario, String contexto) {
+        try {
+            return gerarTexto(buildChatPayload(mensagemUsuario, contexto));
+        } catch (Exception e) {
+            if (GeminiResilience.indisponivel(e)) {
+                return chatDegradado(contexto);
+            }
+            return "Desculpe, tive um problema ao processar sua mensagem: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Chat em fluxo: usa o streamGenerateContent (alt=sse) e devolve cada pedaço de texto assim que
+     * o Gemini o gera. Cancelar a inscrição (cliente desconectou) fecha a conexão com o Gemini.
+     */
+    public Flux<String> chatLivreStream(String mensagemUsuario, String contexto) {
+        return comRespostaDegradada(gerarTextoStream(buildChatPayload(mensagemUsuario, contexto)), contexto);
+    }
+
+    // Texto da resposta de um generateContent sem schema (chat e resumos)
+    public String gerarTexto(Map<String, Object> payload) throws JsonProcessingException {
+        return gerarTexto(Operacao.CHAT, payload);
+    }
+
+    public String gerarTexto(Operacao operacao, Map<String, Object> payload) throws JsonProcessingException {
+        String rawResponse = resilience.executar(operacao, () -> webClient.post()
+                .uri(apiUrl + "?key={key}", apiKey)
+                .bodyValue(payload)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, this::erroHttp)
+                .bodyToMono(String.class))
+                .block();
+
+        JsonNode root = objectMapper.readTree(rawResponse);
+        registrarUso(operacao, root);
+        return root.path("candidates").path(0).path("content")
+                .path("parts").path(0).path("text").asText();
+    }
+
+    public Flux<String> gerarTextoStream(Map<String, Object> payload) {
+        return resilience.executarStream(Operacao.CHAT_STREAM, () -> {
+            // O usageMetadata vem acumulado nos pedaços; vale o do último
+            AtomicReference<JsonNode> ultimo = new AtomicReference<>();
+            return webClient.post()
+                    .uri(streamUrl() + "?alt=sse&key={key}", apiKey)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(payload)
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError, this::erroHttp)
+                    .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                    .mapNotNull(ServerSentEvent::data)
+                    .map(this::lerPedaco)
+                    .doOnNext(ultimo::set)
+                    .doOnComplete(() -> {
+                        if (ultimo.get() != null) {
+                            registrarUso(Operacao.CHAT_STREAM, ultimo.get());
+                        }
+                    })
+                    .concatMapIterable(this::textosDoPedaco);
+        });
+    }
+
+    // Tokens do usageMetadata (métrica gemini.tokens)
+    private void registrarUso(Operacao operacao, JsonNode resposta) {
+        JsonNode uso = resposta.path("usageMetadata");
+        resilience.registrarUso(operacao, uso.path("promptTokenCount").asInt(0),
+                uso.path("candidatesTokenCount").asInt(0));
+    }
+
+    private Mono<? extends Throwable> erroHttp(ClientResponse resp) {
+        int status = resp.statusCode().value();
+        return resp.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(error -> new GeminiResilience.ErroHttpException(status, "Erro " + status + " Gemini: " + error));
+    }
+
+    // ==============================
+    // MODO DEGRADADO (Gemini indisponível)
+    // ==============================
+
+    /**
+     * Resposta do chat sem o Gemini: avisa da indisponibilidade e, se houver, lista as issues do backlog
+     * relacionadas à pergunta (o mesmo contexto que iria no prompt).
+     */
+    public static String chatDegradado(String contexto) {
+        StringBuilder sb = new StringBuilder(
+                "No momento não consigo consultar a IA (o serviço do Gemini está instável). Tente de novo em instantes.");
+        // O contexto começa com a linha de instrução para o modelo; as issues vêm depois
+        int linhas = contexto.indexOf('\n');
+        if (linhas >= 0 && linhas + 1 < contexto.length()) {
+            sb.append("\n\nEnquanto isso, estas issues do backlog parecem relacionadas à sua pergunta:\n")
+                    .append(contexto.substring(linhas + 1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Troca a falha do Gemini antes do primeiro pedaço pela resposta degradada; falha no meio da resposta
+     * segue como erro.
+     */
+    public static Flux<String> comRespostaDegradada(Flux<String> pedacos, String contexto) {
+        AtomicBoolean emitiu = new AtomicBoolean();
+        return pedacos
+                .doOnNext(pedaco -> emitiu.set(true))
+                .onErrorResume(e -> !emitiu.get() && GeminiResilience.indisponivel(e),
+                        e -> Flux.just(chatDegradado(contexto)));
+    }
+
+    private JsonNode lerPedaco(String data) {
+        try {
+            return objectMapper.readTree(data);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Pedaço inválido do Gemini: " + e.getOriginalMessage());
+        }
+    }
+
+    // Cada evento traz um GenerateContentResponse parcial; o texto pode vir em mais de uma "part"
+    private List<String> textosDoPedaco(JsonNode pedaco) {
+        List<String> textos = new ArrayList<>();
+        for (JsonNode part : pedaco.path("candidates").path(0).path("content").path("parts")) {
+            String texto = part.path("text").asText("");
+            if (!texto.isEmpty()) {
+                textos.add(texto);
+            }
+        }
+        return textos;
+    }
+
+    // gemini.api.url aponta para ...:generateContent; a variante em fluxo é ...:streamGenerateContent
+    private String streamUrl() {
+        return apiUrl.replace(":generateContent", ":streamGenerateContent");
+    }
+
+    // Persona do chat, também usada como instrução de sistema nas sessões (ChatSessaoService)
+    public static final String INSTRUCOES_CHAT = "Você é a AnalisAI, uma assistente especialista em gestão ágil e Jira. " +
+            "Seja breve, útil e amigável. Responda em texto simples (sem Markdown complexo). ";
+
+    public Map<String, Object> buildChatPayload(String mensagemUsuario, String contexto) {
+        String promptSistema = INSTRUCOES_CHAT + (contexto.isEmpty() ? "" : "\n" + contexto) +
                 "Pergunta do usuário: " + mensagemUsuario;
 
-        Map<String, Object> payload = Map.of(
+        return Map.of(
                 "contents", List.of(
                         Map.of("parts", List.of(Map.of("text", promptSistema)))
                 )
         );
+    }
+
+    // ==============================
+    // ANÁLISE DE TAREFAS
+    // ==============================
+    public AnaliseTarefaResponse analisarTarefa(AnaliseTarefaRequest request) {
+        byte[] payload = encodeAnalysisPayload(request);
+
+        // Mesma tarefa + mesmo prompt/schema/modelo = mesma análise: serve do cache sem chamar o Gemini
+        String chave = analiseCache.chave(payload, apiUrl);
+        Optional<AnaliseTarefaResponse> cached = analiseCache.get(chave);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        // Tarefa quase igual a outra já analisada: reaproveita a análise ou parte dela no prompt
+        Optional<TarefasSimilares.Similar> similar = tarefasSimilares.buscar(request.summary());
+        Optional<AnaliseTarefaResponse> anterior = similar.flatMap(s -> analiseCache.get(s.chave()));
+        if (anterior.isPresent()) {
+            if (tarefasSimilares.podeReusar(similar.get(), request.key())) {
+                return reaproveitar(request, chave, anterior.get());
+            }
+            tarefasSimilares.contarAdaptacao();
+            return analisarSemCache(request, buildAdaptacaoPayload(request, similar.get(), anterior.get()), chave);
+        }
 
+        return analisarSemCache(request, payload, chave);
+    }
+
+    // payload: corpo pré-compilado (byte[]) ou o Map do prompt de adaptação
+    private AnaliseTarefaResponse analisarSemCache(AnaliseTarefaRequest request, Object payload, String chave) {
         try {
-            String rawResponse = webClient.post()
-                    .uri(apiUrl + "?key=" + apiKey)
-                    .bodyValue(payload)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+            JsonNode root = chamarGemini(Operacao.ANALISE, payload);
+            String jsonText = textoResposta(root);
+
+            if (jsonText == null || jsonText.isEmpty()) {
+                throw new RuntimeException("IA retornou JSON vazio.");
+            }
 
-            JsonNode root = objectMapper.readTree(rawResponse);
-            return root.path("candidates").path(0).path("content")
-                    .path("parts").path(0).path("text").asText();
+            AnaliseTarefaResponse response = comChave(
+                    objectMapper.readValue(jsonText, AnaliseTarefaResponse.class), request.key());
+            guardar(request, chave, response);
+            return response;
 
         } catch (Exception e) {
-            return "Desculpe, tive um problema ao processar sua mensagem: " + e.getMessage();
+            if (GeminiResilience.indisponivel(e)) {
+                return degradada(request, e);
+            }
+            // Retorna um objeto de erro amigável para não quebrar o front
+            return falha(request.key(), e.getMessage());
+        }
+    }
+
+    // Análise nova do Gemini: vai para o cache e para o índice de tarefas similares
+    private void guardar(AnaliseTarefaRequest request, String chave, AnaliseTarefaResponse response) {
+        analiseCache.put(chave, request.key(), request.summary(), response);
+        tarefasSimilares.registrar(request.key(), request.summary(), chave);
+    }
+
+    // Cópia da análise de uma tarefa quase igual; fica no cache desta tarefa, mas não entra no índice
+    private AnaliseTarefaResponse reaproveitar(AnaliseTarefaRequest request, String chave, AnaliseTarefaResponse anterior) {
+        AnaliseTarefaResponse response = new AnaliseTarefaResponse(request.key(), anterior.riscosIdentificados(),
+                anterior.resumoRiscos(), anterior.dependenciasObrigatorias(), anterior.dependenciasSugeridas(),
+                anterior.sugestoesOtimizacao());
+        analiseCache.put(chave, request.key(), null, response);
+        tarefasSimilares.contarReuso();
+        return response;
+    }
+
+    private static AnaliseTarefaResponse falha(String key, String mensagem) {
+        return new AnaliseTarefaResponse(
+                key,
+                List.of("ERRO: " + mensagem),
+                FALHA_RESUMO,
+                List.of(), List.of(), List.of("Tente novamente mais tarde.")
+        );
+    }
+
+    // Falhas e análises provisórias: não vão para o cache/histórico e o item do job volta para a fila
+    // (AnaliseJobService, até gemini.jobs.max-tentativas)
+    public static boolean isFalha(AnaliseTarefaResponse response) {
+        String resumo = response.resumoRiscos();
+        return FALHA_RESUMO.equals(resumo) || (resumo != null && resumo.startsWith(RESUMO_DEGRADADO));
+    }
+
+    private static final DateTimeFormatter JIRA_DATA = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    /**
+     * Análise sem o Gemini: a análise de uma tarefa parecida (acima do limiar de adaptação), se houver;
+     * senão riscos apontados por regras simples sobre os campos da tarefa.
+     */
+    private AnaliseTarefaResponse degradada(AnaliseTarefaRequest request, Throwable causa) {
+        String motivo = Exceptions.unwrap(causa).getMessage();
+
+        Optional<TarefasSimilares.Similar> similar = tarefasSimilares.buscar(request.summary());
+        Optional<AnaliseTarefaResponse> anterior = similar.flatMap(s -> analiseCache.get(s.chave()));
+        if (anterior.isPresent()) {
+            AnaliseTarefaResponse base = anterior.get();
+            return new AnaliseTarefaResponse(request.key(), base.riscosIdentificados(),
+                    RESUMO_DEGRADADO + "baseada na tarefa parecida " + similar.get().issueKey() + ". "
+                            + base.resumoRiscos(),
+                    base.dependenciasObrigatorias(), base.dependenciasSugeridas(), base.sugestoesOtimizacao());
         }
+
+        List<String> riscos = new ArrayList<>();
+        if (request.assignee() == null || request.assignee().isBlank()) {
+            riscos.add("Tarefa sem responsável definido.");
+        }
+        String status = request.status() == null ? "" : request.status().toLowerCase();
+        if (status.contains("bloq") || status.contains("block") || status.contains("imped")) {
+            riscos.add("Tarefa marcada como bloqueada.");
+        }
+        if (!status.contains("done") && !status.contains("conclu") && request.updated() != null) {
+            try {
+                long dias = ChronoUnit.DAYS.between(OffsetDateTime.parse(request.updated(), JIRA_DATA), OffsetDateTime.now());
+                if (dias >= 14) {
+                    riscos.add("Sem atualização há " + dias + " dias.");
+                }
+            } catch (DateTimeParseException ignored) {
+                // Data em outro formato: regra não se aplica
+            }
+        }
+        if (request.summary() == null || request.summary().trim().length() < 15) {
+            riscos.add("Resumo muito curto: o escopo pode estar indefinido.");
+        }
+
+        return new AnaliseTarefaResponse(
+                request.key(),
+                riscos,
+                RESUMO_DEGRADADO + "riscos apontados por regras simples (" + motivo + ").",
+                List.of(), List.of(), List.of("Refaça a análise quando o serviço de IA normalizar.")
+        );
     }
 
     // ==============================
-    // ANÁLISE DE TAREFAS
+    // ANÁLISE EM LOTE
     // ==============================
-    public AnaliseTarefaResponse analisarTarefa(AnaliseTarefaRequest request) {
+
+    /**
+     * Analisa várias tarefas empacotando-as em poucas chamadas ao Gemini.
+     * Cada lote leva as instruções e o schema uma única vez; os itens do array de resposta voltam
+     * para cada tarefa pela chave. Itens ausentes ou inválidos (e lotes que falham) são divididos
+     * ao meio e reenviados, chegando à análise individual no limite.
+     * O resultado mantém a ordem da entrada.
+     */
+    public List<AnaliseTarefaResponse> analisarTarefas(List<AnaliseTarefaRequest> requests) {
+        AnaliseTarefaResponse[] results = new AnaliseTarefaResponse[requests.size()];
+        analisarTarefasConcorrente(requests)
+                .doOnNext(r -> results[r.indice()] = r.resposta())
+                .blockLast();
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Versão em fluxo da análise em massa: resultados do cache saem primeiro e cada tarefa é emitida
+     * assim que seu lote termina. Até gemini.analise.concurrency lotes rodam em paralelo; se um lote
+     * passar gemini.analise.item-timeout-ms sem produzir resultado, as tarefas restantes dele
+     * são emitidas como falha. Cancelar a inscrição (cliente desconectou) ou o tempo limite encerram
+     * o lote: a chamada ao Gemini em curso termina, mas nenhuma outra (divisão do lote) é feita.
+     */
+    public Flux<AnaliseTarefaResultado> analisarTarefasConcorrente(List<AnaliseTarefaRequest> requests) {
+        String[] chaves = new String[requests.size()];
+        List<Integer> pendentes = new ArrayList<>();
+
+        // Cache primeiro, com a mesma chave da análise individual
+        Flux<AnaliseTarefaResultado> doCache = Flux.range(0, requests.size())
+                .concatMap(i -> {
+                    chaves[i] = chaveAnalise(requests.get(i));
+                    Optional<AnaliseTarefaResponse> cached = analiseCache.get(chaves[i]);
+                    if (cached.isPresent()) {
+                        return Mono.just(new AnaliseTarefaResultado(i, true, cached.get()));
+                    }
+
+                    // Quase igual a uma tarefa já analisada: reaproveita sem entrar em lote
+                    AnaliseTarefaRequest request = requests.get(i);
+                    Optional<AnaliseTarefaResponse> similar = tarefasSimilares.buscar(request.summary())
+                            .filter(s -> tarefasSimilares.podeReusar(s, request.key()))
+                            .flatMap(s -> analiseCache.get(s.chave()));
+                    if (similar.isPresent()) {
+                        return Mono.just(new AnaliseTarefaResultado(i, true, reaproveitar(request, chaves[i], similar.get())));
+                    }
+                    pendentes.add(i);
+                    return Mono.empty();
+                });
+
+        Flux<AnaliseTarefaResultado> doGemini = Flux.defer(() -> Flux.fromIterable(montarLotes(pendentes, requests)))
+                .flatMap(lote -> analisarLoteFlux(lote, requests, chaves), concurrency);
+
+        return doCache.concatWith(doGemini)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Flux<AnaliseTarefaResultado> analisarLoteFlux(List<Integer> lote, List<AnaliseTarefaRequest> requests,
+                                                          String[] chaves) {
+        Set<Integer> emitidos = new HashSet<>();
+        AtomicBoolean encerrado = new AtomicBoolean();
+
+        Flux<AnaliseTarefaResultado> execucao = Flux.<AnaliseTarefaResultado>create(sink -> {
+            // Cancelamento (cliente desconectou, job cancelado) ou tempo limite: analisarLote para na próxima chamada
+            sink.onDispose(() -> encerrado.set(true));
+            analisarLote(lote, requests, chaves, (i, response) -> {
+                synchronized (emitidos) {
+                    if (!encerrado.get() && emitidos.add(i)) {
+                        sink.next(new AnaliseTarefaResultado(i, false, response));
+                    }
+                }
+            }, encerrado);
+            sink.complete();
+        }).subscribeOn(Schedulers.boundedElastic());
+
+        // Tempo limite: o que não saiu até aqui vira falha e o lote não faz novas chamadas ao Gemini
+        Flux<AnaliseTarefaResultado> expirados = Flux.defer(() -> {
+            List<AnaliseTarefaResultado> restantes = new ArrayList<>();
+            synchronized (emitidos) {
+                encerrado.set(true);
+                for (int i : lote) {
+                    if (!emitidos.contains(i)) {
+                        restantes.add(new AnaliseTarefaResultado(i, false,
+                                falha(requests.get(i).key(), "Tempo limite excedido")));
+                    }
+                }
+            }
+            return Flux.fromIterable(restantes);
+        });
+
+        return execucao.timeout(itemTimeout, expirados);
+    }
+
+    // Lotes limitados pelo tamanho adaptativo e pelo orçamento estimado de tokens do prompt
+    private List<List<Integer>> montarLotes(List<Integer> pendentes, List<AnaliseTarefaRequest> requests) {
+        List<List<Integer>> lotes = new ArrayList<>();
+        List<Integer> atual = new ArrayList<>();
+        int limite = tamanhoLote.get();
+        double tokens = estimarTokens(BATCH_HEADER.length() + BATCH_FOOTER.length());
+
+        for (int i : pendentes) {
+            double tokensTarefa = estimarTokens(blocoTarefa(atual.size() + 1, requests.get(i)).length());
+            if (!atual.isEmpty() && (atual.size() >= limite || tokens + tokensTarefa > maxPromptTokens)) {
+                lotes.add(atual);
+                atual = new ArrayList<>();
+                tokens = estimarTokens(BATCH_HEADER.length() + BATCH_FOOTER.length());
+            }
+            atual.add(i);
+            tokens += tokensTarefa;
+        }
+        if (!atual.isEmpty()) {
+            lotes.add(atual);
+        }
+        return lotes;
+    }
+
+    // encerrado: o fluxo do lote foi cancelado ou expirou; a resposta de uma chamada já em curso ainda vai
+    // para o cache (foi paga), mas nenhuma chamada nova é feita
+    private void analisarLote(List<Integer> lote, List<AnaliseTarefaRequest> requests,
+                              String[] chaves, BiConsumer<Integer, AnaliseTarefaResponse> results,
+                              AtomicBoolean encerrado) {
+        if (encerrado.get()) {
+            return;
+        }
+        if (lote.size() == 1) {
+            int i = lote.get(0);
+            AnaliseTarefaRequest request = requests.get(i);
+            results.accept(i, analisarSemCache(request, encodeAnalysisPayload(request), chaves[i]));
+            return;
+        }
+
+        List<AnaliseTarefaRequest> tarefas = lote.stream().map(requests::get).toList();
+        List<Integer> faltando = new ArrayList<>();
+
+        try {
+            String prompt = buildBatchPrompt(tarefas);
+            JsonNode root = chamarGemini(Operacao.LOTE, buildBatchPayload(prompt));
+            calibrarTokens(prompt.length(), root.path("usageMetadata").path("promptTokenCount").asInt(0));
+
+            Map<String, JsonNode> porChave = new HashMap<>();
+            JsonNode itens = objectMapper.readTree(textoResposta(root));
+            for (JsonNode item : itens) {
+                porChave.putIfAbsent(item.path("key").asText(), item);
+            }
+
+            for (int i : lote) {
+                AnaliseTarefaRequest request = requests.get(i);
+                JsonNode item = porChave.get(request.key());
+                if (item == null || !item.path("resumoRiscos").isTextual()) {
+                    faltando.add(i);
+                    continue;
+                }
+                AnaliseTarefaResponse response = comChave(
+                        objectMapper.treeToValue(item, AnaliseTarefaResponse.class), request.key());
+                guardar(request, chaves[i], response);
+                results.accept(i, response);
+            }
+
+            // Resposta truncada: o lote era grande demais para a saída do modelo
+            if ("MAX_TOKENS".equals(root.path("candidates").path(0).path("finishReason").asText())) {
+                reduzirLote(lote.size());
+            } else if (faltando.isEmpty()) {
+                tamanhoLote.updateAndGet(n -> Math.min(maxBatchSize, n + 1));
+            }
+        } catch (GeminiResilience.CircuitoAbertoException e) {
+            // Circuito aberto: dividir só geraria mais rejeições; o que falta sai em modo degradado
+            for (int i : lote) {
+                results.accept(i, degradada(requests.get(i), e));
+            }
+            return;
+        } catch (Exception e) {
+            log.warn("Lote de {} tarefas falhou, dividindo: {}", lote.size(), e.getMessage());
+            reduzirLote(lote.size());
+            faltando = new ArrayList<>(lote);
+        }
+
+        if (!faltando.isEmpty()) {
+            int meio = faltando.size() / 2;
+            if (meio == 0) {
+                analisarLote(faltando, requests, chaves, results, encerrado);
+            } else {
+                analisarLote(faltando.subList(0, meio), requests, chaves, results, encerrado);
+                analisarLote(faltando.subList(meio, faltando.size()), requests, chaves, results, encerrado);
+            }
+        }
+    }
+
+    private void reduzirLote(int tamanhoAtual) {
+        tamanhoLote.updateAndGet(n -> Math.max(1, Math.min(n, tamanhoAtual) / 2));
+    }
+
+    // Ajusta a razão caracteres/token com o promptTokenCount devolvido pelo Gemini (média móvel)
+    private void calibrarTokens(int caracteres, int promptTokens) {
+        if (promptTokens > 0) {
+            double medido = (double) caracteres / promptTokens;
+            charsPorToken = charsPorToken * 0.8 + medido * 0.2;
+        }
+    }
+
+    // Tokens estimados pela proporção caracteres/token medida nas respostas do Gemini
+    public double estimarTokens(int caracteres) {
+        return caracteres / charsPorToken;
+    }
+
+    public Map<String, Object> buildBatchPayload(String prompt) {
         Map<String, Object> generationConfig = Map.of(
                 "responseMimeType", "application/json",
-                "responseSchema", buildResponseSchema()
+                "responseSchema", Map.of("type", "ARRAY", "items", responseSchema)
         );
 
-        Map<String, Object> payload = Map.of(
+        return Map.of(
                 "contents", List.of(
-                        Map.of("parts", List.of(Map.of("text", buildPrompt(request))))
+                        Map.of("parts", List.of(Map.of("text", prompt)))
                 ),
                 "generationConfig", generationConfig
         );
+    }
 
-        try {
-            String rawResponse = webClient.post()
-                    .uri(apiUrl + "?key=" + apiKey)
-                    .bodyValue(payload)
-                    .retrieve()
-                    .onStatus(HttpStatusCode::is4xxClientError, resp -> resp.bodyToMono(String.class)
-                            .flatMap(error -> Mono.error(new RuntimeException("Erro 4xx Gemini: " + error))))
-                    .onStatus(HttpStatusCode::is5xxServerError, resp -> Mono.error(new RuntimeException("Erro 5xx Gemini")))
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(60))
-                    .block();
+    public String buildBatchPrompt(List<AnaliseTarefaRequest> tarefas) {
+        StringBuilder prompt = new StringBuilder(BATCH_HEADER);
+        for (int i = 0; i < tarefas.size(); i++) {
+            prompt.append(blocoTarefa(i + 1, tarefas.get(i)));
+        }
+        return prompt.append(BATCH_FOOTER).toString();
+    }
 
-            JsonNode root = objectMapper.readTree(rawResponse);
-            String jsonText = root.path("candidates").path(0).path("content")
-                    .path("parts").path(0).path("text").asText();
+    private static String blocoTarefa(int posicao, AnaliseTarefaRequest request) {
+        return String.format("""
+            [%d] • Tipo: %s | Chave: %s | Status: %s | Responsável: %s
+                • Resumo: %s
+                • Atualizada em: %s
+            """,
+                posicao, request.issuetype(), request.key(), request.status(), request.assignee(),
+                request.summary(), request.updated()
+        );
+    }
 
-            if (jsonText == null || jsonText.isEmpty()) {
-                throw new RuntimeException("IA retornou JSON vazio.");
-            }
+    private static final String BATCH_HEADER = """
+            Você é um Analista de Projetos Sênior especializado em automação de RH.
+            Gere uma análise de Riscos, Dependências e Sugestões para CADA uma das tarefas abaixo.
+            
+            TAREFAS:
+            """;
 
-            return objectMapper.readValue(jsonText, AnaliseTarefaResponse.class);
+    private static final String BATCH_FOOTER = """
+            
+            INSTRUÇÕES:
+            • Retorne um item do array por tarefa, com "key" igual à Chave da tarefa.
+            • Baseie cada análise no resumo da respectiva tarefa.
+            • Seja conciso, objetivo e técnico.
+            • Retorne EXCLUSIVAMENTE JSON seguindo o schema enviado.
+            """;
 
-        } catch (WebClientResponseException e) {
-            throw new RuntimeException("Erro ao chamar Gemini: " + e.getResponseBodyAsString());
-        } catch (Exception e) {
-            // Retorna um objeto de erro amigável para não quebrar o front
-            return new AnaliseTarefaResponse(
-                    request.key(),
-                    List.of("ERRO: " + e.getMessage()),
-                    "Falha na análise",
-                    List.of(), List.of(), List.of("Tente novamente mais tarde.")
-            );
+    // ==============================
+    // Chamada ao Gemini
+    // ==============================
+    // payload: Map (serializado pelo WebClient) ou byte[] já em JSON (GeminiRequestEncoder)
+    private JsonNode chamarGemini(Operacao operacao, Object payload) throws JsonProcessingException {
+        // Chave como variável do template: a métrica http.client.requests usa o template, não a URL expandida
+        String rawResponse = resilience.executar(operacao, () -> webClient.post()
+                .uri(apiUrl + "?key={key}", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(payload)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, this::erroHttp)
+                .bodyToMono(String.class))
+                .block();
+
+        JsonNode root = objectMapper.readTree(rawResponse);
+        registrarUso(operacao, root);
+        return root;
+    }
+
+    private static String textoResposta(JsonNode root) {
+        return root.path("candidates").path(0).path("content")
+                .path("parts").path(0).path("text").asText();
+    }
+
+    // O schema devolve "key"; o front espera idTarefa preenchido
+    private static AnaliseTarefaResponse comChave(AnaliseTarefaResponse response, String key) {
+        if (response.idTarefa() != null) {
+            return response;
         }
+        return new AnaliseTarefaResponse(key, response.riscosIdentificados(), response.resumoRiscos(),
+                response.dependenciasObrigatorias(), response.dependenciasSugeridas(),
+                response.sugestoesOtimizacao());
     }
 
-    private String buildPrompt(AnaliseTarefaRequest request) {
-        return String.format("""
+    // Mesma chave usada pelo cache em analisarTarefa (permite localizar a análise no histórico)
+    public String chaveAnalise(AnaliseTarefaRequest request) {
+        return analiseCache.chave(encodeAnalysisPayload(request), apiUrl);
+    }
+
+    /**
+     * Corpo do generateContent da análise de uma tarefa, já em JSON, montado pelo template pré-compilado.
+     */
+    public byte[] encodeAnalysisPayload(AnaliseTarefaRequest request) {
+        return analysisEncoder.encode(
+                request.issuetype(), request.key(), request.status(), request.assignee(),
+                request.summary(), request.updated()
+        );
+    }
+
+    public Map<String, Object> getResilienciaSnapshot() {
+        return resilience.snapshot();
+    }
+
+    public Map<String, Object> getCacheSnapshot() {
+        Map<String, Object> state = new LinkedHashMap<>(analiseCache.snapshot());
+        state.put("similares", tarefasSimilares.snapshot());
+        return state;
+    }
+
+    // Mesmo schema da análise, com a análise da tarefa parecida como ponto de partida
+    private Map<String, Object> buildAdaptacaoPayload(AnaliseTarefaRequest request, TarefasSimilares.Similar similar,
+                                                      AnaliseTarefaResponse anterior) {
+        String prompt = String.format(PROMPT_ADAPTACAO,
+                similar.issueKey(), similar.resumo(), objectMapper.valueToTree(anterior).toString(),
+                request.issuetype(), request.key(), request.status(), request.assignee(),
+                request.summary(), request.updated()
+        );
+
+        return Map.of(
+                "contents", List.of(Map.of("parts", List.of(Map.of("text", prompt)))),
+                "generationConfig", Map.of(
+                        "responseMimeType", "application/json",
+                        "responseSchema", responseSchema
+                )
+        );
+    }
+
+    // Campos: chave e resumo da tarefa parecida, análise dela (JSON) e os mesmos campos de PROMPT_ANALISE
+    private static final String PROMPT_ADAPTACAO = """
+            Você é um Analista de Projetos Sênior especializado em automação de RH.
+            A análise abaixo foi gerada para uma tarefa parecida (%s: "%s").
+            Adapte-a para a tarefa nova: mantenha o que continua válido e ajuste só o que muda.
+            
+            ANÁLISE DA TAREFA PARECIDA:
+            %s
+            
+            TAREFA NOVA:
+            • Tipo: %s | Chave: %s | Status: %s | Responsável: %s
+            • Resumo: %s
+            • Atualizada em: %s
+            
+            Retorne EXCLUSIVAMENTE JSON seguindo o schema enviado.
+            """;
+
+    // Campos, na ordem: tipo, chave, status, responsável, resumo, atualizada em
+    static final String PROMPT_ANALISE = """
             Você é um Analista de Projetos Sênior especializado em automação de RH.
             Gere uma análise de Riscos, Dependências e Sugestões para a tarefa abaixo.
             
@@ -129,13 +744,9 @@ public class AnaliseIaService {
             • Baseie a análise no resumo da tarefa.
             • Seja conciso, objetivo e técnico.
             • Retorne EXCLUSIVAMENTE JSON seguindo o schema enviado.
-            """,
-                request.issuetype(), request.key(), request.status(), request.assignee(),
-                request.summary(), request.updated()
-        );
-    }
+            """;
 
-    private JsonNode buildResponseSchema() {
+    public JsonNode buildResponseSchema() {
         try {
             String schemaJson = """
                 {
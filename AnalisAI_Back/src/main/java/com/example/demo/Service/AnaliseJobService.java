@@ -0,0 +1,409 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.AnaliseRequestDTO;
+import com.example.demo.DTO.AnaliseTarefaRequest;
+import com.example.demo.DTO.AnaliseTarefaResponse;
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.Model.AnaliseJob;
+import com.example.demo.Model.AnaliseJobItem;
+import com.example.demo.Model.JiraIssueMirror;
+import com.example.demo.Repository.AnaliseJobItemRepository;
+import com.example.demo.Repository.AnaliseJobRepository;
+import com.example.demo.Repository.JiraIssueMirrorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Jobs assíncronos de análise em massa.
+ *
+ * O POST só grava o job e devolve o id; um pool limitado de workers monta a lista de tarefas
+ * (chaves do espelho ou JQL), grava um {@link AnaliseJobItem} por tarefa e analisa as pendentes com
+ * {@link AnaliseIaService#analisarTarefasConcorrente}. Cada resultado vai para analise_historico (cache de
+ * análises) e o item é marcado na hora, de modo que um job interrompido por reinício é retomado
+ * apenas com os itens que ainda estão pendentes.
+ *
+ * Itens cuja análise falhou (erro do Gemini ou análise provisória) continuam PENDENTE e o job roda de
+ * novo depois de gemini.jobs.espera-retentativa-ms, dobrando a cada rodada; só viram FALHOU depois de
+ * gemini.jobs.max-tentativas falhas. Itens FALHOU podem voltar para a fila com {@link #reprocessar}.
+ */
+@Service
+@Slf4j
+public class AnaliseJobService {
+
+    // Só chaves no formato do Jira entram no JQL de busca (ex: AP-21)
+    private static final Pattern ISSUE_KEY = Pattern.compile("[A-Z][A-Z0-9_]*-\\d+");
+
+    private static final List<AnaliseJob.Status> ATIVOS = List.of(AnaliseJob.Status.PENDENTE, AnaliseJob.Status.EXECUTANDO);
+
+    // Execução em andamento: o sink interrompe o fluxo de análises quando o job é cancelado
+    private record Execucao(Sinks.Empty<Void> cancelamento, AtomicBoolean cancelado) {}
+
+    private final AnaliseJobRepository jobRepository;
+    private final AnaliseJobItemRepository itemRepository;
+    private final JiraIssueMirrorRepository mirrorRepository;
+    private final JiraClient jiraClient;
+    private final AnaliseIaService iaService;
+    private final AnaliseCache analiseCache;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retentativas;
+    private final int maxTentativas;
+    private final Duration esperaRetentativa;
+
+    private final Map<String, Execucao> emExecucao = new ConcurrentHashMap<>();
+    private volatile boolean encerrando;
+
+    public AnaliseJobService(
+            AnaliseJobRepository jobRepository,
+            AnaliseJobItemRepository itemRepository,
+            JiraIssueMirrorRepository mirrorRepository,
+            JiraClient jiraClient,
+            AnaliseIaService iaService,
+            AnaliseCache analiseCache,
+            ObjectMapper objectMapper,
+            @Value("${gemini.jobs.workers:2}") int workers,
+            @Value("${gemini.jobs.max-tentativas:3}") int maxTentativas,
+            @Value("${gemini.jobs.espera-retentativa-ms:30000}") long esperaRetentativaMs
+    ) {
+        this.jobRepository = jobRepository;
+        this.itemRepository = itemRepository;
+        this.mirrorRepository = mirrorRepository;
+        this.jiraClient = jiraClient;
+        this.iaService = iaService;
+        this.analiseCache = analiseCache;
+        this.objectMapper = objectMapper;
+        this.workers = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("analise-job-", 0).factory());
+        this.retentativas = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("analise-job-retentativa").daemon().factory());
+        this.maxTentativas = Math.max(1, maxTentativas);
+        this.esperaRetentativa = Duration.ofMillis(esperaRetentativaMs);
+    }
+
+    // ============================
+    // Criação / retomada
+    // ============================
+    public Map<String, Object> criar(AnaliseRequestDTO request) {
+        AnaliseJob job = new AnaliseJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setStatus(AnaliseJob.Status.PENDENTE);
+        job.setCriadoEm(Instant.now());
+
+        if (request.getIssueKeys() != null && !request.getIssueKeys().isEmpty()) {
+            job.setIssueKeys(String.join(",", request.getIssueKeys()));
+        } else if (request.getJqlQuery() != null && !request.getJqlQuery().isBlank()) {
+            job.setJql(request.getJqlQuery());
+        } else {
+            job.setJql(jiraClient.getDefaultJql());
+        }
+
+        jobRepository.save(job);
+        submeter(job.getId());
+        return progresso(job);
+    }
+
+    // Jobs que estavam na fila ou em execução quando a aplicação parou
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarJobs() {
+        List<AnaliseJob> ativos = jobRepository.findByStatusInOrderByCriadoEmAsc(ATIVOS);
+        if (!ativos.isEmpty()) {
+            log.info("Retomando {} jobs de análise", ativos.size());
+            ativos.forEach(job -> submeter(job.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        // Para os fluxos antes de interromper os workers: as chamadas abortadas não viram falhas,
+        // os itens continuam PENDENTE no banco e são retomados no próximo início
+        encerrando = true;
+        emExecucao.values().forEach(execucao -> execucao.cancelamento().tryEmitEmpty());
+        retentativas.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void submeter(String jobId) {
+        workers.submit(() -> executar(jobId));
+    }
+
+    // ============================
+    // Execução
+    // ============================
+    private void executar(String jobId) {
+        AnaliseJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !ATIVOS.contains(job.getStatus())) {
+            return;
+        }
+
+        Execucao execucao = new Execucao(Sinks.empty(), new AtomicBoolean());
+        emExecucao.put(jobId, execucao);
+        try {
+            if (!itemRepository.existsByJobId(jobId)) {
+                job.setTotal(criarItens(job));
+            }
+            job.setStatus(AnaliseJob.Status.EXECUTANDO);
+            if (job.getIniciadoEm() == null) {
+                job.setIniciadoEm(Instant.now());
+            }
+            jobRepository.save(job);
+
+            List<AnaliseJobItem> pendentes = itemRepository.findByJobIdAndStatusOrderByIndiceAsc(
+                    jobId, AnaliseJobItem.Status.PENDENTE);
+            List<AnaliseTarefaRequest> requests = new ArrayList<>();
+            for (AnaliseJobItem item : pendentes) {
+                requests.add(objectMapper.readValue(item.getRequestJson(), AnaliseTarefaRequest.class));
+            }
+
+            log.info("Job {}: {} de {} tarefas pendentes", jobId, pendentes.size(), job.getTotal());
+
+            iaService.analisarTarefasConcorrente(requests)
+                    .takeUntilOther(execucao.cancelamento().asMono())
+                    .doOnNext(r -> {
+                        if (!encerrando) {
+                            registrar(pendentes.get(r.indice()), requests.get(r.indice()), r.resposta());
+                        }
+                    })
+                    .blockLast();
+
+            if (encerrando) {
+                return;
+            }
+
+            // Itens que falharam nesta rodada continuam PENDENTE: o job segue EXECUTANDO até a próxima
+            int tentativa = pendentes.stream()
+                    .filter(item -> item.getStatus() == AnaliseJobItem.Status.PENDENTE)
+                    .mapToInt(AnaliseJobItem::getTentativas)
+                    .max().orElse(0);
+            if (!execucao.cancelado().get() && tentativa > 0) {
+                Duration espera = esperaRetentativa.multipliedBy(1L << Math.min(tentativa - 1, 10));
+                log.info("Job {}: análises com falha, nova tentativa ({} de {}) em {} ms",
+                        jobId, tentativa + 1, maxTentativas, espera.toMillis());
+                retentativas.schedule(() -> submeter(jobId), espera.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            job.setStatus(execucao.cancelado().get() ? AnaliseJob.Status.CANCELADO : AnaliseJob.Status.CONCLUIDO);
+            job.setConcluidoEm(Instant.now());
+            jobRepository.save(job);
+            log.info("Job {} {}", jobId, job.getStatus());
+
+        } catch (Exception e) {
+            if (encerrando) {
+                // Aplicação encerrando: o job fica EXECUTANDO e é retomado no próximo início
+                return;
+            }
+            log.error("Job {} falhou: {}", jobId, e.getMessage());
+            job.setStatus(AnaliseJob.Status.FALHOU);
+            job.setErro(e.getMessage());
+            job.setConcluidoEm(Instant.now());
+            jobRepository.save(job);
+        } finally {
+            emExecucao.remove(jobId);
+        }
+    }
+
+    // Monta a lista de tarefas uma única vez; no reinício os itens já gravados são reaproveitados
+    private int criarItens(AnaliseJob job) throws Exception {
+        List<AnaliseJobItem> itens = new ArrayList<>();
+
+        if (job.getIssueKeys() != null) {
+            List<String> keys = List.of(job.getIssueKeys().split(","));
+            Map<String, IssueSummary> encontradas = mirrorRepository.findAllById(keys).stream()
+                    .map(JiraIssueMirror::toSummary)
+                    .collect(Collectors.toMap(IssueSummary::key, Function.identity()));
+
+            // Chaves que ainda não chegaram ao espelho são buscadas direto no Jira
+            List<String> faltantes = keys.stream()
+                    .filter(key -> !encontradas.containsKey(key) && ISSUE_KEY.matcher(key).matches())
+                    .toList();
+            if (!faltantes.isEmpty()) {
+                String jql = "key in (" + String.join(",", faltantes) + ")";
+                jiraClient.streamSummaries(jql)
+                        .filter(issue -> faltantes.contains(issue.key()))
+                        .toIterable()
+                        .forEach(issue -> encontradas.put(issue.key(), issue));
+            }
+
+            for (String key : keys) {
+                IssueSummary issue = encontradas.get(key);
+                AnaliseJobItem item = novoItem(job, itens.size(), key, issue != null ? toRequest(issue) : null);
+                if (issue == null) {
+                    item.setStatus(AnaliseJobItem.Status.FALHOU);
+                    item.setErro("Issue não encontrada no Jira");
+                }
+                itens.add(item);
+            }
+        } else {
+            List<IssueSummary> issues = jiraClient.streamSummaries(job.getJql()).collectList().block();
+            for (IssueSummary issue : issues) {
+                itens.add(novoItem(job, itens.size(), issue.key(), toRequest(issue)));
+            }
+        }
+
+        itemRepository.saveAll(itens);
+        return itens.size();
+    }
+
+    private AnaliseJobItem novoItem(AnaliseJob job, int indice, String key, AnaliseTarefaRequest request) throws Exception {
+        AnaliseJobItem item = new AnaliseJobItem();
+        item.setJobId(job.getId());
+        item.setIndice(indice);
+        item.setIssueKey(key);
+        item.setStatus(AnaliseJobItem.Status.PENDENTE);
+        item.setRequestJson(request != null ? objectMapper.writeValueAsString(request) : null);
+        item.setAtualizadoEm(Instant.now());
+        return item;
+    }
+
+    private static AnaliseTarefaRequest toRequest(IssueSummary issue) {
+        return new AnaliseTarefaRequest(
+                issue.issuetype(), issue.created(), issue.updated(),
+                issue.assignee(), issue.key(), issue.summary(),
+                issue.status(), List.of()
+        );
+    }
+
+    private void registrar(AnaliseJobItem item, AnaliseTarefaRequest request, AnaliseTarefaResponse resposta) {
+        if (AnaliseIaService.isFalha(resposta)) {
+            // Falha transitória (erro do Gemini, tempo limite, análise provisória): volta para a fila
+            // até esgotar as tentativas
+            item.setTentativas(item.getTentativas() + 1);
+            item.setStatus(item.getTentativas() >= maxTentativas
+                    ? AnaliseJobItem.Status.FALHOU
+                    : AnaliseJobItem.Status.PENDENTE);
+            item.setErro(resposta.riscosIdentificados().isEmpty() ? resposta.resumoRiscos() : resposta.riscosIdentificados().get(0));
+        } else {
+            // A análise já foi gravada em analise_historico pelo cache; o item guarda a chave dela
+            item.setStatus(AnaliseJobItem.Status.CONCLUIDO);
+            item.setChaveConteudo(iaService.chaveAnalise(request));
+            item.setErro(null);
+        }
+        item.setAtualizadoEm(Instant.now());
+        itemRepository.save(item);
+    }
+
+    // ============================
+    // Consulta / cancelamento
+    // ============================
+    public Optional<Map<String, Object>> buscar(String jobId) {
+        return jobRepository.findById(jobId).map(this::progresso);
+    }
+
+    public Optional<List<Map<String, Object>>> resultados(String jobId) {
+        if (!jobRepository.existsById(jobId)) {
+            return Optional.empty();
+        }
+
+        List<Map<String, Object>> resultados = new ArrayList<>();
+        for (AnaliseJobItem item : itemRepository.findByJobIdOrderByIndiceAsc(jobId)) {
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("indice", item.getIndice());
+            resultado.put("issueKey", item.getIssueKey());
+            resultado.put("status", item.getStatus());
+            resultado.put("erro", item.getErro());
+            resultado.put("tentativas", item.getTentativas());
+            resultado.put("resposta", item.getChaveConteudo() != null
+                    ? analiseCache.get(item.getChaveConteudo()).orElse(null)
+                    : null);
+            resultados.add(resultado);
+        }
+        return Optional.of(resultados);
+    }
+
+    public Optional<Map<String, Object>> cancelar(String jobId) {
+        Optional<AnaliseJob> encontrado = jobRepository.findById(jobId);
+        encontrado.ifPresent(job -> {
+            if (!ATIVOS.contains(job.getStatus())) {
+                return;
+            }
+
+            Execucao execucao = emExecucao.get(jobId);
+            if (execucao != null) {
+                // O worker grava o status final ao sair do fluxo
+                execucao.cancelado().set(true);
+                execucao.cancelamento().tryEmitEmpty();
+            } else {
+                job.setStatus(AnaliseJob.Status.CANCELADO);
+                job.setConcluidoEm(Instant.now());
+                jobRepository.save(job);
+            }
+        });
+        return encontrado.map(job -> progresso(jobRepository.findById(jobId).orElse(job)));
+    }
+
+    /**
+     * Devolve para a fila os itens que falharam por erro da análise (tentativas esgotadas) e roda o
+     * job de novo; jobs cancelados ou que falharam são retomados do ponto em que pararam.
+     * Issues que não existem no Jira continuam FALHOU. Vazio se o job não existe.
+     */
+    public Optional<Map<String, Object>> reprocessar(String jobId) {
+        Optional<AnaliseJob> encontrado = jobRepository.findById(jobId);
+        encontrado.ifPresent(job -> {
+            if (ATIVOS.contains(job.getStatus())) {
+                // Job em andamento: os itens que falharem entram na fila dele
+                return;
+            }
+
+            List<AnaliseJobItem> falhas = itemRepository.findByJobIdAndStatusAndRequestJsonIsNotNull(
+                    jobId, AnaliseJobItem.Status.FALHOU);
+            if (falhas.isEmpty() && job.getStatus() == AnaliseJob.Status.CONCLUIDO) {
+                return;
+            }
+            for (AnaliseJobItem item : falhas) {
+                item.setStatus(AnaliseJobItem.Status.PENDENTE);
+                item.setTentativas(0);
+                item.setAtualizadoEm(Instant.now());
+            }
+            itemRepository.saveAll(falhas);
+
+            job.setStatus(AnaliseJob.Status.PENDENTE);
+            job.setConcluidoEm(null);
+            job.setErro(null);
+            jobRepository.save(job);
+            submeter(jobId);
+        });
+        return encontrado.map(job -> progresso(jobRepository.findById(jobId).orElse(job)));
+    }
+
+    private Map<String, Object> progresso(AnaliseJob job) {
+        long concluidos = itemRepository.countByJobIdAndStatus(job.getId(), AnaliseJobItem.Status.CONCLUIDO);
+        long falhas = itemRepository.countByJobIdAndStatus(job.getId(), AnaliseJobItem.Status.FALHOU);
+
+        Map<String, Object> progresso = new LinkedHashMap<>();
+        progresso.put("jobId", job.getId());
+        progresso.put("status", job.getStatus());
+        progresso.put("total", job.getTotal());
+        progresso.put("concluidos", concluidos);
+        progresso.put("falhas", falhas);
+        progresso.put("pendentes", Math.max(0, job.getTotal() - concluidos - falhas));
+        progresso.put("jql", job.getJql());
+        progresso.put("criadoEm", job.getCriadoEm());
+        progresso.put("iniciadoEm", job.getIniciadoEm());
+        progresso.put("concluidoEm", job.getConcluidoEm());
+        progresso.put("erro", job.getErro());
+        return progresso;
+    }
+}
@@ -0,0 +1,398 @@
+package com.example.demo.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória com ranking BM25, para textos curtos identificados por chave.
+ *
+ * Cada termo tem uma lista de postings (documento interno + frequência). Atualizar uma chave cria
+ * um documento novo e marca o anterior como removido; as contagens usadas no BM25 (documentos vivos,
+ * df por termo e tamanho médio) consideram só os vivos. Quando os removidos passam dos vivos as
+ * listas são reconstruídas e os ids de termo renumerados: termos que só apareciam em documentos
+ * removidos saem do vocabulário.
+ *
+ * Tokens: minúsculas, sem acento, separados por qualquer caractere que não seja letra ou dígito;
+ * chaves de issue ("AP-21") ficam inteiras. Stopwords do português e plurais simples ("tarefas")
+ * são normalizados igual no documento e na consulta.
+ */
+public class Bm25Index<T> {
+
+    public record Resultado<T>(String key, T value, double score) {}
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "uns", "umas", "de", "do", "da", "dos", "das", "e", "ou",
+            "em", "no", "na", "nos", "nas", "por", "para", "pra", "com", "sem", "que", "qual", "quais",
+            "quem", "como", "onde", "quando", "se", "ao", "aos", "me", "eu", "voce", "sobre", "tem", "ha",
+            "sao", "esta", "estao", "ser", "foi", "mais", "menos", "muito", "isso", "esse", "essa", "este",
+            "the", "of", "to", "in", "and", "is", "for", "on"
+    );
+
+    // Documentos (índice = id interno); key == null marca documento substituído ou removido
+    private String[] keys = new String[1024];
+    private Object[] values = new Object[1024];
+    private int[][] docTerms = new int[1024][];
+    private int[][] docFreqs = new int[1024][];
+    private int[] docLength = new int[1024];
+    private int size;
+    private int alive;
+    private long totalLength;
+    private final Map<String, Integer> idPorKey = new HashMap<>();
+
+    // Termos: id -> postings (docs e frequências, em ordem de inserção) e df dos vivos
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private int[][] postingDocs = new int[1024][];
+    private int[][] postingFreqs = new int[1024][];
+    private int[] postingSize = new int[1024];
+    private int[] df = new int[1024];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ============================
+    // Escrita
+    // ============================
+    public void put(String key, String texto, T value) {
+        List<String> tokens = tokenize(texto);
+
+        lock.writeLock().lock();
+        try {
+            doRemove(key);
+            if (size - alive > Math.max(alive, 1024)) {
+                compact();
+            }
+            add(key, tokens, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            doRemove(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return alive;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============================
+    // Busca
+    // ============================
+
+    /**
+     * Os {@code k} documentos de maior score BM25 para a consulta (sem os de score zero), do maior para o menor.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Resultado<T>> buscar(String consulta, int k) {
+        List<String> tokens = tokenize(consulta);
+        if (tokens.isEmpty() || k <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (alive == 0) {
+                return List.of();
+            }
+            double avgLength = (double) totalLength / alive;
+
+            // Scores por documento interno; tocados guarda quais receberam algum termo
+            double[] scores = new double[size];
+            int[] tocados = new int[Math.min(size, 1024)];
+            int totalTocados = 0;
+
+            // Termos repetidos na consulta contam uma vez
+            for (String token : new LinkedHashSet<>(tokens)) {
+                Integer term = termIds.get(token);
+                if (term == null || df[term] == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (alive - df[term] + 0.5) / (df[term] + 0.5));
+                int[] docs = postingDocs[term];
+                int[] freqs = postingFreqs[term];
+                for (int p = 0; p < postingSize[term]; p++) {
+                    int doc = docs[p];
+                    if (keys[doc] == null) {
+                        continue;
+                    }
+                    int tf = freqs[p];
+                    double norm = K1 * (1 - B + B * docLength[doc] / avgLength);
+                    if (scores[doc] == 0) {
+                        if (totalTocados == tocados.length) {
+                            tocados = Arrays.copyOf(tocados, Math.min(size, tocados.length * 2));
+                        }
+                        tocados[totalTocados++] = doc;
+                    }
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // Min-heap (por score) com os k melhores
+            PriorityQueue<Integer> top = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(scores[a], scores[b]));
+            for (int i = 0; i < totalTocados; i++) {
+                top.add(tocados[i]);
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+
+            List<Resultado<T>> resultado = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                int doc = top.poll();
+                resultado.add(new Resultado<>(keys[doc], (T) values[doc], scores[doc]));
+            }
+            Collections.reverse(resultado);
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============================
+    // Tokens
+    // ============================
+    static List<String> tokenize(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null) {
+            return tokens;
+        }
+
+        // Varredura manual (sem regex): letras/dígitos formam palavras; "letra...-dígitos" é chave de issue
+        int n = texto.length();
+        StringBuilder palavra = new StringBuilder();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(texto.charAt(i))) {
+                i++;
+            }
+            palavra.setLength(0);
+            while (i < n && Character.isLetterOrDigit(texto.charAt(i))) {
+                palavra.append(dobrar(texto.charAt(i++)));
+            }
+            if (palavra.isEmpty()) {
+                continue;
+            }
+
+            if (i + 1 < n && texto.charAt(i) == '-' && Character.isDigit(texto.charAt(i + 1))
+                    && Character.isLetter(palavra.charAt(0))) {
+                int fim = i + 1;
+                while (fim < n && Character.isDigit(texto.charAt(fim))) {
+                    fim++;
+                }
+                if (fim == n || !Character.isLetter(texto.charAt(fim))) {
+                    tokens.add(palavra.append(texto, i, fim).toString());
+                    i = fim;
+                    continue;
+                }
+            }
+
+            String token = palavra.toString();
+            if (token.length() >= 2 && !STOPWORDS.contains(token)) {
+                tokens.add(singular(token));
+            }
+        }
+        return tokens;
+    }
+
+    // Minúscula sem acento; a tabela cobre Latin-1 e Latin Extended-A, o resto passa só pelo toLowerCase
+    private static char dobrar(char c) {
+        if (c < 0x80) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + 32) : c;
+        }
+        if (c < 0x180) {
+            return SEM_ACENTO[c];
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static final char[] SEM_ACENTO = new char[0x180];
+
+    static {
+        for (char c = 0; c < SEM_ACENTO.length; c++) {
+            String base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            SEM_ACENTO[c] = Character.toLowerCase(base.length() == 1 ? base.charAt(0) : c);
+        }
+    }
+
+    // Plural simples: "tarefas" -> "tarefa", "relatorios" -> "relatorio" (sem stemming completo)
+    private static String singular(String palavra) {
+        if (palavra.length() > 3 && palavra.endsWith("s") && !palavra.endsWith("ss")) {
+            return palavra.substring(0, palavra.length() - 1);
+        }
+        return palavra;
+    }
+
+    // ============================
+    // Estrutura interna
+    // ============================
+    private void add(String key, List<String> tokens, Object value) {
+        // Ids dos termos ordenados: cada sequência de ids iguais vira (termo, frequência)
+        int[] ids = new int[tokens.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = termId(tokens.get(i));
+        }
+        Arrays.sort(ids);
+
+        int distintos = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                distintos++;
+            }
+        }
+        int[] terms = new int[distintos];
+        int[] tfs = new int[distintos];
+        int t = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                terms[++t] = ids[i];
+            }
+            tfs[t]++;
+        }
+        index(key, terms, tfs, tokens.size(), value);
+    }
+
+    private void index(String key, int[] terms, int[] tfs, int length, Object value) {
+        int doc = size++;
+        ensureDocCapacity(size);
+        keys[doc] = key;
+        values[doc] = value;
+        docTerms[doc] = terms;
+        docFreqs[doc] = tfs;
+        docLength[doc] = length;
+        idPorKey.put(key, doc);
+        alive++;
+        totalLength += length;
+
+        for (int i = 0; i < terms.length; i++) {
+            int term = terms[i];
+            int n = postingSize[term];
+            if (postingDocs[term] == null) {
+                postingDocs[term] = new int[4];
+                postingFreqs[term] = new int[4];
+            } else if (n == postingDocs[term].length) {
+                postingDocs[term] = Arrays.copyOf(postingDocs[term], n * 2);
+                postingFreqs[term] = Arrays.copyOf(postingFreqs[term], n * 2);
+            }
+            postingDocs[term][n] = doc;
+            postingFreqs[term][n] = tfs[i];
+            postingSize[term] = n + 1;
+            df[term]++;
+        }
+    }
+
+    private void doRemove(String key) {
+        Integer doc = idPorKey.remove(key);
+        if (doc == null) {
+            return;
+        }
+        for (int term : docTerms[doc]) {
+            df[term]--;
+        }
+        totalLength -= docLength[doc];
+        alive--;
+        keys[doc] = null;
+        values[doc] = null;
+    }
+
+    private int termId(String token) {
+        Integer id = termIds.get(token);
+        if (id != null) {
+            return id;
+        }
+        int novo = termIds.size();
+        termIds.put(token, novo);
+        if (novo == df.length) {
+            int capacidade = novo * 2;
+            postingDocs = Arrays.copyOf(postingDocs, capacidade);
+            postingFreqs = Arrays.copyOf(postingFreqs, capacidade);
+            postingSize = Arrays.copyOf(postingSize, capacidade);
+            df = Arrays.copyOf(df, capacidade);
+        }
+        return novo;
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity <= keys.length) {
+            return;
+        }
+        int novo = Math.max(capacity, keys.length * 2);
+        keys = Arrays.copyOf(keys, novo);
+        values = Arrays.copyOf(values, novo);
+        docTerms = Arrays.copyOf(docTerms, novo);
+        docFreqs = Arrays.copyOf(docFreqs, novo);
+        docLength = Arrays.copyOf(docLength, novo);
+    }
+
+    // Reconstrói documentos, vocabulário e postings só com os vivos
+    private void compact() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[][] oldTerms = docTerms;
+        int[][] oldFreqs = docFreqs;
+        int[] oldLength = docLength;
+        int oldSize = size;
+
+        keys = new String[oldKeys.length];
+        values = new Object[oldKeys.length];
+        docTerms = new int[oldKeys.length][];
+        docFreqs = new int[oldKeys.length][];
+        docLength = new int[oldKeys.length];
+        size = 0;
+        alive = 0;
+        totalLength = 0;
+        idPorKey.clear();
+
+        // Novos ids na ordem em que os termos aparecem nos vivos; os termos de cada documento são renumerados no lugar
+        String[] termos = new String[termIds.size()];
+        termIds.forEach((termo, id) -> termos[id] = termo);
+        int[] novoId = new int[termos.length];
+        Arrays.fill(novoId, -1);
+        termIds.clear();
+        for (int doc = 0; doc < oldSize; doc++) {
+            if (oldKeys[doc] == null) {
+                continue;
+            }
+            int[] terms = oldTerms[doc];
+            for (int i = 0; i < terms.length; i++) {
+                if (novoId[terms[i]] < 0) {
+                    novoId[terms[i]] = termIds.size();
+                    termIds.put(termos[terms[i]], novoId[terms[i]]);
+                }
+                terms[i] = novoId[terms[i]];
+            }
+        }
+        int capacidade = Math.max(1024, termIds.size() * 2);
+        postingDocs = new int[capacidade][];
+        postingFreqs = new int[capacidade][];
+        postingSize = new int[capacidade];
+        df = new int[capacidade];
+
+        for (int doc = 0; doc < oldSize; doc++) {
+            if (oldKeys[doc] != null) {
+                index(oldKeys[doc], oldTerms[doc], oldFreqs[doc], oldLength[doc], oldValues[doc]);
+            }
+        }
+    }
+}
@@ -0,0 +1,726 @@
+package com.example.demo.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Caminho crítico (CPM) das tarefas de um projeto, mantido incrementalmente.
+ *
+ * Cada tarefa guarda o início mais cedo (maior término entre as dependências) e a "cauda": a duração
+ * do caminho mais longo que começa nela até o fim do projeto. A duração do projeto é o maior término
+ * entre as tarefas finais; início mais tarde = duração - cauda e folga = início mais tarde - início
+ * mais cedo (folga zero = tarefa crítica).
+ *
+ * A ordem topológica é mantida entre alterações (Pearce-Kelly: uma dependência nova que contraria a
+ * ordem só reordena as tarefas entre as duas posições). Quando uma tarefa muda, o início mais cedo é
+ * propagado para frente e a cauda para trás, na ordem topológica, e a propagação para em cada tarefa
+ * cujo valor não mudou; o resto do grafo não é visitado.
+ *
+ * Thread-safe: os métodos públicos são synchronized.
+ */
+public class CaminhoCritico {
+
+    public record No(long id, int duracao, long[] dependencias) {}
+
+    public record Agenda(long id, int inicioMaisCedo, int terminoMaisCedo, int inicioMaisTarde,
+                         int terminoMaisTarde, int folga) {
+        public boolean critica() {
+            return folga == 0;
+        }
+    }
+
+    private static final int[] VAZIO = new int[0];
+
+    private final Map<Long, Integer> indices = new HashMap<>();
+    private long[] ids;
+    private int[] duracao;
+    private int[] ordem;
+    private int[] inicio;
+    private int[] cauda;
+    private boolean[] vivo;
+    private int[][] sucessores;
+    private int[] totalSucessores;
+    private int[][] predecessores;
+    private int[] totalPredecessores;
+    private int tamanho;
+    private int vivos;
+    private int proximaOrdem;
+
+    // Término (início + duração) das tarefas finais, com contagem: a maior chave é a duração do projeto
+    private final TreeMap<Integer, Integer> fins = new TreeMap<>();
+
+    // Marcas por época (busca em profundidade e filas de propagação)
+    private int[] marca;
+    private int epocaMarca;
+    private int[] naFila;
+    private int[] forcada;
+    private int epocaFila;
+
+    private long visitadas;
+
+    private CaminhoCritico(int capacidade) {
+        int n = Math.max(16, capacidade);
+        ids = new long[n];
+        duracao = new int[n];
+        ordem = new int[n];
+        inicio = new int[n];
+        cauda = new int[n];
+        vivo = new boolean[n];
+        sucessores = new int[n][];
+        totalSucessores = new int[n];
+        predecessores = new int[n][];
+        totalPredecessores = new int[n];
+        marca = new int[n];
+        naFila = new int[n];
+        forcada = new int[n];
+    }
+
+    // ============================
+    // Construção completa
+    // ============================
+
+    /**
+     * Monta o grafo e calcula tudo em O(tarefas + dependências). Dependências para tarefas que não
+     * estão na coleção são ignoradas.
+     *
+     * @throws IllegalArgumentException se houver dependência circular
+     */
+    public static CaminhoCritico construir(Collection<No> tarefas) {
+        CaminhoCritico cc = new CaminhoCritico(tarefas.size());
+        for (No no : tarefas) {
+            cc.novo(no.id(), no.duracao());
+        }
+        for (No no : tarefas) {
+            int v = cc.indices.get(no.id());
+            for (long dependencia : no.dependencias()) {
+                Integer p = cc.indices.get(dependencia);
+                if (p != null && p != v && !cc.temAresta(p, v)) {
+                    cc.ligar(p, v);
+                }
+            }
+        }
+        cc.calcularTudo(cc.ordenarTudo());
+        return cc;
+    }
+
+    // Kahn: ordem topológica de todas as tarefas vivas
+    private int[] ordenarTudo() {
+        int[] grau = new int[tamanho];
+        int[] topo = new int[vivos];
+        int fim = 0;
+        for (int v = 0; v < tamanho; v++) {
+            if (vivo[v]) {
+                grau[v] = totalPredecessores[v];
+                if (grau[v] == 0) {
+                    topo[fim++] = v;
+                }
+            }
+        }
+        for (int i = 0; i < fim; i++) {
+            int u = topo[i];
+            for (int k = 0; k < totalSucessores[u]; k++) {
+                int s = sucessores[u][k];
+                if (--grau[s] == 0) {
+                    topo[fim++] = s;
+                }
+            }
+        }
+        if (fim < vivos) {
+            List<Long> emCiclo = new ArrayList<>();
+            for (int v = 0; v < tamanho && emCiclo.size() < 10; v++) {
+                if (vivo[v] && grau[v] > 0) {
+                    emCiclo.add(ids[v]);
+                }
+            }
+            throw new IllegalArgumentException("Dependência circular entre as tarefas " + emCiclo);
+        }
+        for (int i = 0; i < fim; i++) {
+            ordem[topo[i]] = i;
+        }
+        proximaOrdem = fim;
+        return topo;
+    }
+
+    private void calcularTudo(int[] topo) {
+        fins.clear();
+        for (int u : topo) {
+            int maior = 0;
+            for (int k = 0; k < totalPredecessores[u]; k++) {
+                int p = predecessores[u][k];
+                maior = Math.max(maior, inicio[p] + duracao[p]);
+            }
+            inicio[u] = maior;
+        }
+        for (int i = topo.length - 1; i >= 0; i--) {
+            int u = topo[i];
+            int maior = 0;
+            for (int k = 0; k < totalSucessores[u]; k++) {
+                maior = Math.max(maior, cauda[sucessores[u][k]]);
+            }
+            cauda[u] = duracao[u] + maior;
+            entrarNosFins(u);
+        }
+        visitadas = topo.length;
+    }
+
+    // ============================
+    // Alterações de uma tarefa
+    // ============================
+
+    /**
+     * Inclui ou altera uma tarefa (duração e lista completa de dependências) e propaga a mudança.
+     * Nada é alterado se a lista de dependências for inválida.
+     *
+     * @throws IllegalArgumentException se uma dependência não existir no projeto ou criar um ciclo
+     */
+    public synchronized void atualizar(long id, int novaDuracao, long[] dependencias) {
+        Integer existente = indices.get(id);
+        int[] novas = resolver(id, dependencias);
+        if (existente != null) {
+            verificarCiclos(existente, novas);
+        }
+
+        visitadas = 0;
+        int v = existente != null ? existente : novo(id, novaDuracao);
+        IntLista paraTras = new IntLista();
+        paraTras.add(v);
+
+        sairDosFins(v);
+        int[] atuais = Arrays.copyOf(predecessores[v], totalPredecessores[v]);
+        for (int p : atuais) {
+            if (!contem(novas, p)) {
+                sairDosFins(p);
+                desligar(p, v);
+                entrarNosFins(p);
+                paraTras.add(p);
+            }
+        }
+        for (int p : novas) {
+            if (!temAresta(p, v)) {
+                sairDosFins(p);
+                ligar(p, v);
+                reordenar(p, v);
+                entrarNosFins(p);
+                paraTras.add(p);
+            }
+        }
+        duracao[v] = novaDuracao;
+        entrarNosFins(v);
+
+        IntLista paraFrente = new IntLista();
+        paraFrente.add(v);
+        propagarParaFrente(paraFrente);
+        propagarParaTras(paraTras);
+    }
+
+    /**
+     * Só muda a duração (ex: tarefa concluída), mantendo as dependências.
+     */
+    public synchronized void alterarDuracao(long id, int novaDuracao) {
+        Integer v = indices.get(id);
+        if (v == null || duracao[v] == novaDuracao) {
+            return;
+        }
+        visitadas = 0;
+        sairDosFins(v);
+        duracao[v] = novaDuracao;
+        entrarNosFins(v);
+
+        IntLista semente = new IntLista();
+        semente.add(v);
+        propagarParaFrente(semente);
+        propagarParaTras(semente);
+    }
+
+    /**
+     * Só valida as dependências (mesmas regras de {@link #atualizar}), sem alterar nada.
+     */
+    public synchronized void validar(Long id, long[] dependencias) {
+        int[] novas = resolver(id, dependencias);
+        Integer existente = id != null ? indices.get(id) : null;
+        if (existente != null) {
+            verificarCiclos(existente, novas);
+        }
+    }
+
+    public synchronized void remover(long id) {
+        Integer v = indices.remove(id);
+        if (v == null) {
+            return;
+        }
+        visitadas = 0;
+        sairDosFins(v);
+
+        IntLista paraTras = new IntLista();
+        for (int p : Arrays.copyOf(predecessores[v], totalPredecessores[v])) {
+            sairDosFins(p);
+            desligar(p, v);
+            entrarNosFins(p);
+            paraTras.add(p);
+        }
+        IntLista paraFrente = new IntLista();
+        for (int s : Arrays.copyOf(sucessores[v], totalSucessores[v])) {
+            desligar(v, s);
+            paraFrente.add(s);
+        }
+        vivo[v] = false;
+        vivos--;
+
+        propagarParaFrente(paraFrente);
+        propagarParaTras(paraTras);
+    }
+
+    private int[] resolver(Long id, long[] dependencias) {
+        IntLista resolvidas = new IntLista();
+        for (long dependencia : dependencias) {
+            if (id != null && dependencia == id) {
+                throw new IllegalArgumentException("A tarefa " + id + " não pode depender dela mesma");
+            }
+            Integer p = indices.get(dependencia);
+            if (p == null) {
+                throw new IllegalArgumentException("Dependência " + dependencia + " não é uma tarefa do projeto");
+            }
+            if (!resolvidas.contem(p)) {
+                resolvidas.add(p);
+            }
+        }
+        return resolvidas.toArray();
+    }
+
+    // Uma dependência p -> v cria ciclo se v já alcança p (só é possível se p vier depois de v na ordem)
+    private void verificarCiclos(int v, int[] novas) {
+        for (int p : novas) {
+            if (ordem[p] > ordem[v] && alcanca(v, p)) {
+                throw new IllegalArgumentException("Dependência circular: a tarefa " + ids[p]
+                        + " já depende (direta ou indiretamente) da tarefa " + ids[v]);
+            }
+        }
+    }
+
+    private boolean alcanca(int origem, int alvo) {
+        int limite = ordem[alvo];
+        int epoca = ++epocaMarca;
+        IntLista pilha = new IntLista();
+        pilha.add(origem);
+        marca[origem] = epoca;
+        while (pilha.size > 0) {
+            int u = pilha.pop();
+            if (u == alvo) {
+                return true;
+            }
+            for (int k = 0; k < totalSucessores[u]; k++) {
+                int s = sucessores[u][k];
+                if (marca[s] != epoca && ordem[s] <= limite) {
+                    marca[s] = epoca;
+                    pilha.add(s);
+                }
+            }
+        }
+        return false;
+    }
+
+    // ============================
+    // Ordem topológica dinâmica (Pearce-Kelly)
+    // ============================
+
+    // Após incluir x -> y com ordem[x] > ordem[y]: só as tarefas entre as duas posições são reordenadas
+    private void reordenar(int x, int y) {
+        int inferior = ordem[y];
+        int superior = ordem[x];
+        if (superior < inferior) {
+            return;
+        }
+
+        int epoca = ++epocaMarca;
+        IntLista frente = coletar(y, epoca, true, superior);
+        IntLista tras = coletar(x, epoca, false, inferior);
+
+        int[] deTras = ordenarPorOrdem(tras);
+        int[] daFrente = ordenarPorOrdem(frente);
+        int[] posicoes = new int[deTras.length + daFrente.length];
+        int i = 0;
+        for (int u : deTras) {
+            posicoes[i++] = ordem[u];
+        }
+        for (int u : daFrente) {
+            posicoes[i++] = ordem[u];
+        }
+        Arrays.sort(posicoes);
+
+        i = 0;
+        for (int u : deTras) {
+            ordem[u] = posicoes[i++];
+        }
+        for (int u : daFrente) {
+            ordem[u] = posicoes[i++];
+        }
+    }
+
+    // Para frente: sucessores com ordem < limite; para trás: predecessores com ordem > limite
+    private IntLista coletar(int origem, int epoca, boolean paraFrente, int limite) {
+        IntLista visitados = new IntLista();
+        IntLista pilha = new IntLista();
+        pilha.add(origem);
+        marca[origem] = epoca;
+        while (pilha.size > 0) {
+            int u = pilha.pop();
+            visitados.add(u);
+            int[] vizinhos = paraFrente ? sucessores[u] : predecessores[u];
+            int total = paraFrente ? totalSucessores[u] : totalPredecessores[u];
+            for (int k = 0; k < total; k++) {
+                int w = vizinhos[k];
+                boolean dentro = paraFrente ? ordem[w] < limite : ordem[w] > limite;
+                if (dentro && marca[w] != epoca) {
+                    marca[w] = epoca;
+                    pilha.add(w);
+                }
+            }
+        }
+        return visitados;
+    }
+
+    private int[] ordenarPorOrdem(IntLista nos) {
+        long[] chaves = new long[nos.size];
+        for (int i = 0; i < nos.size; i++) {
+            chaves[i] = ((long) ordem[nos.get(i)] << 32) | nos.get(i);
+        }
+        Arrays.sort(chaves);
+        int[] ordenados = new int[chaves.length];
+        for (int i = 0; i < chaves.length; i++) {
+            ordenados[i] = (int) chaves[i];
+        }
+        return ordenados;
+    }
+
+    // ============================
+    // Propagação
+    // ============================
+
+    // Início mais cedo, em ordem topológica crescente a partir das sementes
+    private void propagarParaFrente(IntLista sementes) {
+        int epoca = ++epocaFila;
+        Heap heap = new Heap(false);
+        for (int i = 0; i < sementes.size; i++) {
+            int s = sementes.get(i);
+            if (vivo[s] && naFila[s] != epoca) {
+                naFila[s] = epoca;
+                forcada[s] = epoca;
+                heap.add(s);
+            }
+        }
+        while (heap.size > 0) {
+            int u = heap.poll();
+            visitadas++;
+            int novo = 0;
+            for (int k = 0; k < totalPredecessores[u]; k++) {
+                int p = predecessores[u][k];
+                novo = Math.max(novo, inicio[p] + duracao[p]);
+            }
+            boolean mudou = novo != inicio[u];
+            if (mudou) {
+                sairDosFins(u);
+                inicio[u] = novo;
+                entrarNosFins(u);
+            }
+            if (mudou || forcada[u] == epoca) {
+                for (int k = 0; k < totalSucessores[u]; k++) {
+                    int s = sucessores[u][k];
+                    if (naFila[s] != epoca) {
+                        naFila[s] = epoca;
+                        heap.add(s);
+                    }
+                }
+            }
+        }
+    }
+
+    // Cauda, em ordem topológica decrescente a partir das sementes
+    private void propagarParaTras(IntLista sementes) {
+        int epoca = ++epocaFila;
+        Heap heap = new Heap(true);
+        for (int i = 0; i < sementes.size; i++) {
+            int s = sementes.get(i);
+            if (vivo[s] && naFila[s] != epoca) {
+                naFila[s] = epoca;
+                forcada[s] = epoca;
+                heap.add(s);
+            }
+        }
+        while (heap.size > 0) {
+            int u = heap.poll();
+            visitadas++;
+            int maior = 0;
+            for (int k = 0; k < totalSucessores[u]; k++) {
+                maior = Math.max(maior, cauda[sucessores[u][k]]);
+            }
+            int novo = duracao[u] + maior;
+            boolean mudou = novo != cauda[u];
+            cauda[u] = novo;
+            if (mudou || forcada[u] == epoca) {
+                for (int k = 0; k < totalPredecessores[u]; k++) {
+                    int p = predecessores[u][k];
+                    if (naFila[p] != epoca) {
+                        naFila[p] = epoca;
+                        heap.add(p);
+                    }
+                }
+            }
+        }
+    }
+
+    // Tarefas finais (sem sucessores) entram em "fins" com o seu término
+    private void sairDosFins(int u) {
+        if (vivo[u] && totalSucessores[u] == 0) {
+            fins.computeIfPresent(inicio[u] + duracao[u], (k, n) -> n == 1 ? null : n - 1);
+        }
+    }
+
+    private void entrarNosFins(int u) {
+        if (vivo[u] && totalSucessores[u] == 0) {
+            fins.merge(inicio[u] + duracao[u], 1, Integer::sum);
+        }
+    }
+
+    // ============================
+    // Consultas
+    // ============================
+    public synchronized int duracaoProjeto() {
+        return fins.isEmpty() ? 0 : fins.lastKey();
+    }
+
+    public synchronized int tamanho() {
+        return vivos;
+    }
+
+    public synchronized boolean contem(long id) {
+        return indices.containsKey(id);
+    }
+
+    /**
+     * Quantas tarefas a última construção ou alteração recalculou (diagnóstico da propagação).
+     */
+    public synchronized long ultimaPropagacao() {
+        return visitadas;
+    }
+
+    public synchronized Optional<Agenda> agenda(long id) {
+        Integer v = indices.get(id);
+        return v == null ? Optional.empty() : Optional.of(agenda(v, duracaoProjeto()));
+    }
+
+    public synchronized List<Agenda> agendas() {
+        int fim = duracaoProjeto();
+        List<Agenda> todas = new ArrayList<>(vivos);
+        for (int v = 0; v < tamanho; v++) {
+            if (vivo[v]) {
+                todas.add(agenda(v, fim));
+            }
+        }
+        return todas;
+    }
+
+    private Agenda agenda(int v, int fim) {
+        int inicioMaisTarde = fim - cauda[v];
+        return new Agenda(ids[v], inicio[v], inicio[v] + duracao[v], inicioMaisTarde,
+                inicioMaisTarde + duracao[v], inicioMaisTarde - inicio[v]);
+    }
+
+    /**
+     * Uma cadeia crítica, do começo ao fim do projeto (com empates, a tarefa de menor ordem topológica).
+     */
+    public synchronized List<Long> cadeiaCritica() {
+        int fim = duracaoProjeto();
+        int u = -1;
+        for (int v = 0; v < tamanho; v++) {
+            if (vivo[v] && inicio[v] == 0 && cauda[v] == fim && (u < 0 || ordem[v] < ordem[u])) {
+                u = v;
+            }
+        }
+
+        List<Long> cadeia = new ArrayList<>();
+        while (u >= 0) {
+            cadeia.add(ids[u]);
+            int proxima = -1;
+            for (int k = 0; k < totalSucessores[u]; k++) {
+                int s = sucessores[u][k];
+                if (inicio[s] == inicio[u] + duracao[u] && cauda[s] == cauda[u] - duracao[u]
+                        && (proxima < 0 || ordem[s] < ordem[proxima])) {
+                    proxima = s;
+                }
+            }
+            u = proxima;
+        }
+        return cadeia;
+    }
+
+    // ============================
+    // Estrutura do grafo
+    // ============================
+    private int novo(long id, int dur) {
+        if (tamanho == ids.length) {
+            crescer(tamanho * 2);
+        }
+        int v = tamanho++;
+        ids[v] = id;
+        duracao[v] = dur;
+        ordem[v] = proximaOrdem++;
+        inicio[v] = 0;
+        cauda[v] = dur;
+        vivo[v] = true;
+        sucessores[v] = VAZIO;
+        predecessores[v] = VAZIO;
+        indices.put(id, v);
+        vivos++;
+        entrarNosFins(v);
+        return v;
+    }
+
+    private void crescer(int n) {
+        ids = Arrays.copyOf(ids, n);
+        duracao = Arrays.copyOf(duracao, n);
+        ordem = Arrays.copyOf(ordem, n);
+        inicio = Arrays.copyOf(inicio, n);
+        cauda = Arrays.copyOf(cauda, n);
+        vivo = Arrays.copyOf(vivo, n);
+        sucessores = Arrays.copyOf(sucessores, n);
+        totalSucessores = Arrays.copyOf(totalSucessores, n);
+        predecessores = Arrays.copyOf(predecessores, n);
+        totalPredecessores = Arrays.copyOf(totalPredecessores, n);
+        marca = Arrays.copyOf(marca, n);
+        naFila = Arrays.copyOf(naFila, n);
+        forcada = Arrays.copyOf(forcada, n);
+    }
+
+    private boolean temAresta(int p, int v) {
+        for (int k = 0; k < totalSucessores[p]; k++) {
+            if (sucessores[p][k] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ligar(int p, int v) {
+        sucessores[p] = anexar(sucessores[p], totalSucessores[p]++, v);
+        predecessores[v] = anexar(predecessores[v], totalPredecessores[v]++, p);
+    }
+
+    private void desligar(int p, int v) {
+        totalSucessores[p] = retirar(sucessores[p], totalSucessores[p], v);
+        totalPredecessores[v] = retirar(predecessores[v], totalPredecessores[v], p);
+    }
+
+    private static int[] anexar(int[] lista, int total, int valor) {
+        if (total == lista.length) {
+            lista = Arrays.copyOf(lista, Math.max(4, total * 2));
+        }
+        lista[total] = valor;
+        return lista;
+    }
+
+    private static int retirar(int[] lista, int total, int valor) {
+        for (int k = 0; k < total; k++) {
+            if (lista[k] == valor) {
+                lista[k] = lista[total - 1];
+                return total - 1;
+            }
+        }
+        return total;
+    }
+
+    private static boolean contem(int[] lista, int valor) {
+        for (int x : lista) {
+            if (x == valor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class IntLista {
+        private int[] dados = new int[8];
+        private int size;
+
+        void add(int valor) {
+            dados = anexar(dados, size++, valor);
+        }
+
+        int get(int i) {
+            return dados[i];
+        }
+
+        int pop() {
+            return dados[--size];
+        }
+
+        boolean contem(int valor) {
+            for (int i = 0; i < size; i++) {
+                if (dados[i] == valor) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(dados, size);
+        }
+    }
+
+    // Heap binário de índices de tarefa pela ordem topológica (mínima ou máxima)
+    private final class Heap {
+        private final boolean maximo;
+        private int[] dados = new int[16];
+        private int size;
+
+        Heap(boolean maximo) {
+            this.maximo = maximo;
+        }
+
+        private boolean antes(int a, int b) {
+            return maximo ? ordem[a] > ordem[b] : ordem[a] < ordem[b];
+        }
+
+        void add(int v) {
+            dados = anexar(dados, size, v);
+            int i = size++;
+            while (i > 0) {
+                int pai = (i - 1) >>> 1;
+                if (!antes(dados[i], dados[pai])) {
+                    break;
+                }
+                int t = dados[i];
+                dados[i] = dados[pai];
+                dados[pai] = t;
+                i = pai;
+            }
+        }
+
+        int poll() {
+            int topo = dados[0];
+            dados[0] = dados[--size];
+            int i = 0;
+            while (true) {
+                int esquerda = 2 * i + 1;
+                if (esquerda >= size) {
+                    break;
+                }
+                int filho = esquerda + 1 < size && antes(dados[esquerda + 1], dados[esquerda]) ? esquerda + 1 : esquerda;
+                if (!antes(dados[filho], dados[i])) {
+                    break;
+                }
+                int t = dados[i];
+                dados[i] = dados[filho];
+                dados[filho] = t;
+                i = filho;
+            }
+            return topo;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.demo.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sessões de chat mantidas no servidor: o cliente manda só a mensagem nova e o id da sessão.
+ *
+ * Cada sessão guarda os turnos recentes (pergunta + resposta) e um resumo corrido da conversa.
+ * Quando os turnos passam de chat.sessao.max-tokens, os mais antigos são resumidos pelo Gemini em
+ * segundo plano (até sobrar metade do orçamento) e saem do histórico. O prompt de cada turno leva
+ * o resumo como instrução de sistema e só os turnos que cabem no orçamento, então o tamanho do
+ * prompt não cresce com a conversa. As issues do backlog relacionadas à pergunta ({@link ContextoIssues})
+ * entram só no prompt do turno, não no histórico.
+ *
+ * Sessões ficam em memória (LRU limitado a chat.sessao.max-sessoes) e expiram após chat.sessao.ttl-ms
+ * sem uso.
+ */
+@Service
+@Slf4j
+public class ChatSessaoService {
+
+    private static final String PROMPT_RESUMO = """
+            Resuma a conversa abaixo entre um usuário e a AnalisAI para servir de contexto nas próximas respostas.
+            Mantenha fatos, decisões, chaves de tarefas (ex: AP-21) e preferências do usuário; descarte
+            cumprimentos e repetições. No máximo %d palavras, em texto simples.
+
+            RESUMO ANTERIOR:
+            %s
+
+            NOVAS MENSAGENS:
+            %s
+            """;
+
+    private record Turno(String pergunta, String resposta, double tokens) {}
+
+    public record Resposta(String sessionId, String texto, int contextoTokens) {}
+
+    public record RespostaStream(String sessionId, Flux<String> pedacos, int contextoTokens) {}
+
+    private static final class Sessao {
+        final String id;
+        final List<Turno> turnos = new ArrayList<>();
+        String resumo = "";
+        double tokensTurnos;
+        boolean compactando;
+        long ultimoUso;
+
+        Sessao(String id) {
+            this.id = id;
+        }
+    }
+
+    private final AnaliseIaService iaService;
+    private final ContextoIssues contextoIssues;
+    private final int maxTokens;
+    private final int resumoMaxPalavras;
+    private final long ttlMs;
+    private final int maxSessoes;
+
+    // LinkedHashMap em ordem de acesso: o começo tem as sessões usadas há mais tempo
+    private final LinkedHashMap<String, Sessao> sessoes;
+
+    private final AtomicLong compactacoes = new AtomicLong();
+    private final AtomicLong falhasCompactacao = new AtomicLong();
+
+    public ChatSessaoService(
+            AnaliseIaService iaService,
+            ContextoIssues contextoIssues,
+            @Value("${chat.sessao.max-tokens:3000}") int maxTokens,
+            @Value("${chat.sessao.resumo-max-palavras:150}") int resumoMaxPalavras,
+            @Value("${chat.sessao.ttl-ms:1800000}") long ttlMs,
+            @Value("${chat.sessao.max-sessoes:1000}") int maxSessoes
+    ) {
+        this.iaService = iaService;
+        this.contextoIssues = contextoIssues;
+        this.maxTokens = maxTokens;
+        this.resumoMaxPalavras = resumoMaxPalavras;
+        this.ttlMs = ttlMs;
+        this.maxSessoes = maxSessoes;
+        this.sessoes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Sessao> eldest) {
+                return size() > ChatSessaoService.this.maxSessoes;
+            }
+        };
+    }
+
+    // ============================
+    // Sessões
+    // ============================
+    public String criar() {
+        Sessao sessao = new Sessao(UUID.randomUUID().toString());
+        sessao.ultimoUso = System.currentTimeMillis();
+        synchronized (sessoes) {
+            expirar(sessao.ultimoUso);
+            sessoes.put(sessao.id, sessao);
+        }
+        return sessao.id;
+    }
+
+    public boolean encerrar(String sessionId) {
+        synchronized (sessoes) {
+            return sessoes.remove(sessionId) != null;
+        }
+    }
+
+    private Optional<Sessao> buscar(String sessionId) {
+        long agora = System.currentTimeMillis();
+        synchronized (sessoes) {
+            expirar(agora);
+            Sessao sessao = sessoes.get(sessionId);
+            if (sessao != null) {
+                sessao.ultimoUso = agora;
+            }
+            return Optional.ofNullable(sessao);
+        }
+    }
+
+    // Em ordem de acesso, as expiradas estão todas no começo
+    private void expirar(long agora) {
+        Iterator<Sessao> it = sessoes.values().iterator();
+        while (it.hasNext()) {
+            Sessao sessao = it.next();
+            if (agora - sessao.ultimoUso < ttlMs) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    // ============================
+    // Turnos
+    // ============================
+    public Optional<Resposta> responder(String sessionId, String mensagem) {
+        return buscar(sessionId).map(sessao -> {
+            Prompt prompt = montarPrompt(sessao, mensagem);
+            try {
+                String texto = iaService.gerarTexto(prompt.payload());
+                registrarTurno(sessao, mensagem, texto);
+                return new Resposta(sessao.id, texto, prompt.tokens());
+            } catch (Exception e) {
+                // Resposta degradada ou de erro não entra no histórico
+                String texto = GeminiResilience.indisponivel(e)
+                        ? AnaliseIaService.chatDegradado(prompt.contexto())
+                        : "Desculpe, tive um problema ao processar sua mensagem: " + e.getMessage();
+                return new Resposta(sessao.id, texto, prompt.tokens());
+            }
+        });
+    }
+
+    /**
+     * Versão em fluxo: os pedaços saem conforme o Gemini gera; o turno só entra no histórico se a
+     * resposta chegar inteira.
+     */
+    public Optional<RespostaStream> responderStream(String sessionId, String mensagem) {
+        return buscar(sessionId).map(sessao -> {
+            Prompt prompt = montarPrompt(sessao, mensagem);
+            StringBuilder resposta = new StringBuilder();
+            Flux<String> pedacos = AnaliseIaService.comRespostaDegradada(iaService.gerarTextoStream(prompt.payload())
+                    .doOnNext(resposta::append)
+                    .doOnComplete(() -> registrarTurno(sessao, mensagem, resposta.toString())), prompt.contexto());
+            return new RespostaStream(sessao.id, pedacos, prompt.tokens());
+        });
+    }
+
+    private record Prompt(Map<String, Object> payload, int tokens, String contexto) {}
+
+    // Resumo + turnos mais recentes que cabem no orçamento + mensagem nova
+    private Prompt montarPrompt(Sessao sessao, String mensagem) {
+        List<Turno> recentes = new ArrayList<>();
+        String resumo;
+        synchronized (sessao) {
+            resumo = sessao.resumo;
+            double tokens = 0;
+            for (int i = sessao.turnos.size() - 1; i >= 0; i--) {
+                Turno turno = sessao.turnos.get(i);
+                if (tokens + turno.tokens() > maxTokens) {
+                    break;
+                }
+                tokens += turno.tokens();
+                recentes.add(0, turno);
+            }
+        }
+
+        String contexto = contextoIssues.contexto(mensagem);
+        String instrucoes = AnaliseIaService.INSTRUCOES_CHAT
+                + (resumo.isEmpty() ? "" : "\nResumo da conversa até aqui: " + resumo)
+                + (contexto.isEmpty() ? "" : "\n" + contexto);
+
+        List<Map<String, Object>> contents = new ArrayList<>();
+        int caracteres = instrucoes.length() + mensagem.length();
+        for (Turno turno : recentes) {
+            contents.add(mensagem("user", turno.pergunta()));
+            contents.add(mensagem("model", turno.resposta()));
+            caracteres += turno.pergunta().length() + turno.resposta().length();
+        }
+        contents.add(mensagem("user", mensagem));
+
+        Map<String, Object> payload = Map.of(
+                "systemInstruction", Map.of("parts", List.of(Map.of("text", instrucoes))),
+                "contents", contents
+        );
+        return new Prompt(payload, (int) Math.round(iaService.estimarTokens(caracteres)), contexto);
+    }
+
+    private static Map<String, Object> mensagem(String role, String texto) {
+        return Map.of("role", role, "parts", List.of(Map.of("text", texto)));
+    }
+
+    private void registrarTurno(Sessao sessao, String pergunta, String resposta) {
+        Turno turno = new Turno(pergunta, resposta, iaService.estimarTokens(pergunta.length() + resposta.length()));
+        List<Turno> antigos;
+        String resumoAnterior;
+
+        synchronized (sessao) {
+            sessao.turnos.add(turno);
+            sessao.tokensTurnos += turno.tokens();
+            if (sessao.tokensTurnos <= maxTokens || sessao.compactando) {
+                return;
+            }
+
+            // Tira os mais antigos até sobrar metade do orçamento (o último turno sempre fica)
+            double restante = sessao.tokensTurnos;
+            int quantos = 0;
+            while (quantos < sessao.turnos.size() - 1 && restante > maxTokens / 2.0) {
+                restante -= sessao.turnos.get(quantos++).tokens();
+            }
+            antigos = List.copyOf(sessao.turnos.subList(0, quantos));
+            resumoAnterior = sessao.resumo;
+            sessao.compactando = true;
+        }
+
+        // Fora do caminho da resposta: o próximo turno usa o resumo que estiver pronto
+        Mono.fromCallable(() -> iaService.gerarTexto(GeminiResilience.Operacao.RESUMO, payloadResumo(resumoAnterior, antigos)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(
+                        novoResumo -> compactar(sessao, antigos, novoResumo),
+                        e -> {
+                            // Sem resumo novo os turnos antigos saem assim mesmo: a memória da sessão fica limitada
+                            log.warn("Falha ao resumir a sessão de chat {}: {}", sessao.id, e.getMessage());
+                            falhasCompactacao.incrementAndGet();
+                            compactar(sessao, antigos, resumoAnterior);
+                        });
+    }
+
+    private void compactar(Sessao sessao, List<Turno> antigos, String novoResumo) {
+        synchronized (sessao) {
+            // Os turnos novos só entram no fim da lista, então os resumidos continuam no começo
+            sessao.turnos.subList(0, antigos.size()).clear();
+            sessao.tokensTurnos = sessao.turnos.stream().mapToDouble(Turno::tokens).sum();
+            sessao.resumo = novoResumo == null ? "" : novoResumo.trim();
+            sessao.compactando = false;
+        }
+        compactacoes.incrementAndGet();
+    }
+
+    private Map<String, Object> payloadResumo(String resumoAnterior, List<Turno> turnos) {
+        StringBuilder mensagens = new StringBuilder();
+        for (Turno turno : turnos) {
+            mensagens.append("Usuário: ").append(turno.pergunta()).append('\n')
+                    .append("AnalisAI: ").append(turno.resposta()).append('\n');
+        }
+        String prompt = String.format(PROMPT_RESUMO, resumoMaxPalavras,
+                resumoAnterior.isEmpty() ? "(nenhum)" : resumoAnterior, mensagens);
+
+        return Map.of("contents", List.of(Map.of("parts", List.of(Map.of("text", prompt)))));
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        synchronized (sessoes) {
+            expirar(System.currentTimeMillis());
+            state.put("sessoesAtivas", sessoes.size());
+        }
+        state.put("maxSessoes", maxSessoes);
+        state.put("ttl", Duration.ofMillis(ttlMs).toString());
+        state.put("maxTokens", maxTokens);
+        state.put("compactacoes", compactacoes.get());
+        state.put("falhasCompactacao", falhasCompactacao.get());
+        return state;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.IssueSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contexto do backlog para o chat: as issues do espelho mais relevantes para a pergunta (BM25).
+ *
+ * O índice é carregado do espelho na primeira pergunta e depois acompanha os
+ * {@link JiraMirrorChangedEvent} (inserção, alteração e remoção por issue), como os agregados do
+ * dashboard. Só as top-k issues entram no prompt, em uma linha cada.
+ */
+@Component
+@Slf4j
+public class ContextoIssues {
+
+    private final JiraMirrorService jiraMirrorService;
+    private final boolean habilitado;
+    private final int topK;
+    private final double scoreMinimoRelativo;
+
+    // Trocado por um índice vazio quando a carga falha
+    private volatile Bm25Index<IssueSummary> index = new Bm25Index<>();
+
+    // Mesmo esquema de DashboardAggregates: mudanças recebidas durante a carga são reaplicadas no fim
+    private boolean inicializado;
+    private List<Runnable> pendentes;
+
+    private final AtomicLong consultas = new AtomicLong();
+    private final AtomicLong consultasComContexto = new AtomicLong();
+
+    public ContextoIssues(
+            JiraMirrorService jiraMirrorService,
+            @Value("${chat.contexto.habilitado:true}") boolean habilitado,
+            @Value("${chat.contexto.top-k:8}") int topK,
+            @Value("${chat.contexto.score-minimo-relativo:0.3}") double scoreMinimoRelativo
+    ) {
+        this.jiraMirrorService = jiraMirrorService;
+        this.habilitado = habilitado;
+        this.topK = topK;
+        this.scoreMinimoRelativo = scoreMinimoRelativo;
+    }
+
+    // ============================
+    // Atualização incremental
+    // ============================
+    @EventListener
+    public void onMirrorChanged(JiraMirrorChangedEvent event) {
+        synchronized (this) {
+            if (pendentes != null) {
+                pendentes.add(() -> aplicar(event));
+                return;
+            }
+            if (!inicializado) {
+                return;
+            }
+        }
+        aplicar(event);
+    }
+
+    private void aplicar(JiraMirrorChangedEvent event) {
+        event.upserted().forEach(issue -> index.put(issue.key(), texto(issue), issue));
+        event.removed().forEach(index::remove);
+    }
+
+    // Quem pergunta durante a carga de outra thread usa o índice parcial
+    private void inicializar() {
+        synchronized (this) {
+            if (inicializado || pendentes != null) {
+                return;
+            }
+            pendentes = new ArrayList<>();
+        }
+
+        long inicio = System.currentTimeMillis();
+        try {
+            jiraMirrorService.listIssues().forEach(issue -> index.put(issue.key(), texto(issue), issue));
+        } catch (RuntimeException e) {
+            // Tenta de novo na próxima pergunta; esta segue sem contexto
+            log.warn("Falha ao carregar o backlog para o chat: {}", e.getMessage());
+            synchronized (this) {
+                // Descarta o índice parcial: a próxima tentativa começa do zero
+                index = new Bm25Index<>();
+                pendentes = null;
+            }
+            return;
+        }
+
+        // Reaplica com o lock, antes de liberar onMirrorChanged: um evento novo não pode ser
+        // sobrescrito por um mais antigo que estava na fila
+        synchronized (this) {
+            pendentes.forEach(Runnable::run);
+            pendentes = null;
+            inicializado = true;
+        }
+        log.info("Índice do backlog para o chat carregado: {} issues em {} ms",
+                index.size(), System.currentTimeMillis() - inicio);
+    }
+
+    // Texto indexado: chave, resumo e os campos que aparecem em perguntas ("tarefas do João em andamento")
+    private static String texto(IssueSummary issue) {
+        return String.join(" ", issue.key(), nvl(issue.summary()), nvl(issue.status()),
+                nvl(issue.assignee()), nvl(issue.issuetype()));
+    }
+
+    // ============================
+    // Consulta
+    // ============================
+    public List<IssueSummary> relevantes(String pergunta) {
+        if (!habilitado) {
+            return List.of();
+        }
+        inicializar();
+        consultas.incrementAndGet();
+        List<Bm25Index.Resultado<IssueSummary>> resultados = index.buscar(pergunta, topK);
+        if (resultados.isEmpty()) {
+            return List.of();
+        }
+        // Issues que só casaram com palavras comuns ("tarefa", "status") ficam bem abaixo da melhor
+        double minimo = resultados.get(0).score() * scoreMinimoRelativo;
+        return resultados.stream()
+                .filter(r -> r.score() >= minimo)
+                .map(Bm25Index.Resultado::value)
+                .toList();
+    }
+
+    /**
+     * Bloco de contexto para o prompt (vazio quando nenhuma issue tem relação com a pergunta).
+     */
+    public String contexto(String pergunta) {
+        List<IssueSummary> issues = relevantes(pergunta);
+        if (issues.isEmpty()) {
+            return "";
+        }
+        consultasComContexto.incrementAndGet();
+
+        StringBuilder sb = new StringBuilder("Issues do backlog relacionadas à pergunta (use-as se forem úteis):\n");
+        for (IssueSummary issue : issues) {
+            sb.append("• ").append(issue.key())
+                    .append(" | ").append(nvl(issue.status()))
+                    .append(" | ").append(issue.assignee() != null ? issue.assignee() : "Sem responsável");
+            if (issue.duedate() != null && !issue.duedate().isBlank()) {
+                sb.append(" | prazo ").append(issue.duedate());
+            }
+            sb.append(" | ").append(nvl(issue.summary())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("habilitado", habilitado);
+        synchronized (this) {
+            state.put("inicializado", inicializado);
+        }
+        state.put("issuesIndexadas", index.size());
+        state.put("topK", topK);
+        state.put("scoreMinimoRelativo", scoreMinimoRelativo);
+        state.put("consultas", consultas.get());
+        state.put("consultasComContexto", consultasComContexto.get());
+        return state;
+    }
+
+    private static String nvl(String valor) {
+        return valor != null ? valor : "";
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.DependenciaTarefa;
+import com.example.demo.DTO.TarefaCronograma;
+import com.example.demo.Model.Tarefa;
+import com.example.demo.Repository.TarefaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caminho crítico de cada projeto ({@link CaminhoCritico}), mantido em memória.
+ *
+ * O grafo de um projeto é montado do banco na primeira consulta (duas consultas por projeção, sem
+ * carregar entidades). Depois disso, salvar, concluir ou excluir uma tarefa só aplica a alteração
+ * daquela tarefa ao grafo, que recalcula apenas a parte afetada. Alterações feitas por fora
+ * (ex: substituir a lista de tarefas do projeto) descartam o grafo, que é remontado na próxima consulta.
+ *
+ * Duração efetiva: tarefa concluída não ocupa mais o cronograma (0 dias) e gargalo soma uma folga de
+ * cronograma.gargalo-dias, que só pesa no prazo quando o gargalo está no caminho crítico.
+ */
+@Service
+@Slf4j
+public class CronogramaService {
+
+    private final TarefaRepository tarefaRepository;
+    private final int diasGargalo;
+
+    private final Map<Long, CaminhoCritico> porProjeto = new ConcurrentHashMap<>();
+
+    public CronogramaService(
+            TarefaRepository tarefaRepository,
+            @Value("${cronograma.gargalo-dias:3}") int diasGargalo
+    ) {
+        this.tarefaRepository = tarefaRepository;
+        this.diasGargalo = diasGargalo;
+    }
+
+    // ============================
+    // Grafo por projeto
+    // ============================
+    private CaminhoCritico grafo(Long projetoId) {
+        return porProjeto.computeIfAbsent(projetoId, this::carregar);
+    }
+
+    private CaminhoCritico carregar(Long projetoId) {
+        long inicio = System.nanoTime();
+        CaminhoCritico grafo = montar(tarefaRepository.findCronogramaByProjetoIdEntre(projetoId, projetoId),
+                tarefaRepository.findDependenciasByProjetoIdEntre(projetoId, projetoId));
+        log.debug("Caminho crítico do projeto {} montado: {} tarefas em {} ms",
+                projetoId, grafo.tamanho(), (System.nanoTime() - inicio) / 1_000_000);
+        return grafo;
+    }
+
+    private CaminhoCritico montar(List<TarefaCronograma> tarefas,
+                                  List<DependenciaTarefa> dependencias) {
+        Map<Long, List<Long>> porTarefa = new HashMap<>();
+        for (DependenciaTarefa d : dependencias) {
+            porTarefa.computeIfAbsent(d.tarefaId(), k -> new ArrayList<>()).add(d.dependeDe());
+        }
+
+        List<CaminhoCritico.No> nos = new ArrayList<>(tarefas.size());
+        for (TarefaCronograma t : tarefas) {
+            int duracao = duracaoEfetiva(t.duracaoDias(), t.gargalo(), t.concluida());
+            nos.add(new CaminhoCritico.No(t.id(), duracao, paraArray(porTarefa.get(t.id()))));
+        }
+        return CaminhoCritico.construir(nos);
+    }
+
+    public void invalidar(Long projetoId) {
+        porProjeto.remove(projetoId);
+    }
+
+    // ============================
+    // Alterações de tarefas
+    // ============================
+
+    /**
+     * Confere se as dependências da tarefa existem no projeto e não formam ciclo, antes de salvar.
+     *
+     * @throws IllegalArgumentException com o motivo
+     */
+    public void validar(Tarefa tarefa) {
+        long[] dependencias = paraArray(tarefa.getDependencias());
+        if (tarefa.getProjeto() == null || tarefa.getProjeto().getId() == null) {
+            if (dependencias.length > 0) {
+                throw new IllegalArgumentException("Tarefa sem projeto não pode ter dependências");
+            }
+            return;
+        }
+        CaminhoCritico grafo = grafo(tarefa.getProjeto().getId());
+        // Tarefa vindo de outro projeto: as dependências valem só no projeto novo
+        Long id = tarefa.getId() != null && grafo.contem(tarefa.getId()) ? tarefa.getId() : null;
+        grafo.validar(id, dependencias);
+    }
+
+    /**
+     * Aplica a tarefa salva ao grafo do projeto e devolve os outros projetos de onde ela saiu (se
+     * mudou de projeto), que também precisam ser recalculados.
+     */
+    public List<Long> tarefaSalva(Tarefa tarefa, Collection<Long> dependencias) {
+        Long projetoId = tarefa.getProjeto() != null ? tarefa.getProjeto().getId() : null;
+
+        List<Long> anteriores = new ArrayList<>();
+        porProjeto.forEach((id, grafo) -> {
+            if (!id.equals(projetoId) && grafo.contem(tarefa.getId())) {
+                grafo.remover(tarefa.getId());
+                anteriores.add(id);
+            }
+        });
+
+        if (projetoId != null) {
+            CaminhoCritico grafo = porProjeto.get(projetoId);
+            if (grafo != null) {
+                try {
+                    grafo.atualizar(tarefa.getId(),
+                            duracaoEfetiva(tarefa.getDuracaoDias(), tarefa.isGargalo(), tarefa.isConcluida()),
+                            paraArray(dependencias));
+                } catch (IllegalArgumentException e) {
+                    // Outra gravação concorrente mudou o grafo depois da validação: remonta do banco
+                    log.warn("Caminho crítico do projeto {} descartado: {}", projetoId, e.getMessage());
+                    invalidar(projetoId);
+                }
+            }
+        }
+        return anteriores;
+    }
+
+    public void tarefaConcluida(Long projetoId, Long tarefaId) {
+        CaminhoCritico grafo = porProjeto.get(projetoId);
+        if (grafo != null) {
+            grafo.alterarDuracao(tarefaId, 0);
+        }
+    }
+
+    public void tarefaRemovida(Long projetoId, Long tarefaId) {
+        CaminhoCritico grafo = porProjeto.get(projetoId);
+        if (grafo != null) {
+            grafo.remover(tarefaId);
+        }
+    }
+
+    // ============================
+    // Consultas
+    // ============================
+    public int duracaoDias(Long projetoId) {
+        return grafo(projetoId).duracaoProjeto();
+    }
+
+    public record Lote(Map<Long, Integer> duracoes, int tarefas, List<Long> falhas) {}
+
+    /**
+     * Duração de uma página de projetos de uma vez (recálculo em lote; ids em ordem crescente). Projetos
+     * com grafo em memória usam o grafo; os demais são montados com duas consultas por intervalo de id
+     * para a página inteira e descartados em seguida, para o lote não trazer todos os projetos para o cache.
+     */
+    public Lote duracoesEmLote(List<Long> projetoIds) {
+        Map<Long, Integer> duracoes = new HashMap<>();
+        List<Long> falhas = new ArrayList<>();
+        List<Long> semGrafo = new ArrayList<>();
+        int tarefas = 0;
+
+        for (Long projetoId : projetoIds) {
+            CaminhoCritico grafo = porProjeto.get(projetoId);
+            if (grafo != null) {
+                duracoes.put(projetoId, grafo.duracaoProjeto());
+                tarefas += grafo.tamanho();
+            } else {
+                semGrafo.add(projetoId);
+            }
+        }
+        if (semGrafo.isEmpty()) {
+            return new Lote(duracoes, tarefas, falhas);
+        }
+
+        // Ids da página são contíguos: um intervalo cobre todos (linhas de projetos já em memória são ignoradas)
+        Long de = semGrafo.get(0);
+        Long ate = semGrafo.get(semGrafo.size() - 1);
+        Map<Long, List<TarefaCronograma>> tarefasPorProjeto = new HashMap<>();
+        for (TarefaCronograma t : tarefaRepository.findCronogramaByProjetoIdEntre(de, ate)) {
+            tarefasPorProjeto.computeIfAbsent(t.projetoId(), k -> new ArrayList<>()).add(t);
+        }
+        Map<Long, List<DependenciaTarefa>> dependenciasPorProjeto = new HashMap<>();
+        for (DependenciaTarefa d : tarefaRepository.findDependenciasByProjetoIdEntre(de, ate)) {
+            dependenciasPorProjeto.computeIfAbsent(d.projetoId(), k -> new ArrayList<>()).add(d);
+        }
+
+        for (Long projetoId : semGrafo) {
+            List<TarefaCronograma> doProjeto = tarefasPorProjeto.getOrDefault(projetoId, List.of());
+            try {
+                CaminhoCritico grafo = montar(doProjeto, dependenciasPorProjeto.getOrDefault(projetoId, List.of()));
+                duracoes.put(projetoId, grafo.duracaoProjeto());
+                tarefas += doProjeto.size();
+            } catch (IllegalArgumentException e) {
+                log.warn("Caminho crítico do projeto {} não calculado: {}", projetoId, e.getMessage());
+                falhas.add(projetoId);
+            }
+        }
+        return new Lote(duracoes, tarefas, falhas);
+    }
+
+    public Map<String, Object> resumo(Long projetoId) {
+        CaminhoCritico grafo = grafo(projetoId);
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("duracaoDias", grafo.duracaoProjeto());
+        resumo.put("tarefas", grafo.tamanho());
+        resumo.put("cadeiaCritica", grafo.cadeiaCritica());
+        resumo.put("agenda", grafo.agendas());
+        return resumo;
+    }
+
+    private int duracaoEfetiva(int duracaoDias, boolean gargalo, boolean concluida) {
+        if (concluida) {
+            return 0;
+        }
+        return Math.max(0, duracaoDias) + (gargalo ? diasGargalo : 0);
+    }
+
+    private static long[] paraArray(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new long[0];
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.DashboardStatsDTO;
+import com.example.demo.DTO.IssueSummary;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Agregados do dashboard mantidos a partir de deltas por issue (inserção, alteração e remoção).
+ *
+ * Cada mudança ajusta apenas os contadores afetados: o bucket de status antigo é decrementado e o novo
+ * incrementado; issues pendentes ficam indexadas pela duedate, e o avanço do relógio move para
+ * "em atraso" só os dias que passaram. Gerar o {@link DashboardStatsDTO} custa O(status distintos),
+ * independente do número de issues, e o resultado é o mesmo da agregação completa sobre a lista de issues.
+ *
+ * Reconstrução: {@link #beginRebuild()} passa a guardar as mudanças recebidas enquanto a lista completa
+ * é lida; {@link #finishRebuild(Collection)} carrega a lista e reaplica essas mudanças por cima.
+ */
+@Slf4j
+public class DashboardAggregates {
+
+    private static final String DONE = "Done";
+    private static final String SEM_STATUS = "Sem Status";
+
+    // Visão da issue usada pelos contadores (due == null: sem prazo ou issue concluída)
+    private record Tracked(String status, LocalDate due) {}
+
+    private final Map<String, Tracked> issues = new HashMap<>();
+    private final Map<String, Long> tasksByStatus = new HashMap<>();
+
+    // Issues não concluídas com prazo, por data; "delayed" conta as que têm prazo < overdueBoundary
+    private final TreeMap<LocalDate, Integer> pendingByDue = new TreeMap<>();
+    private LocalDate overdueBoundary;
+    private int delayed;
+
+    private boolean initialized;
+    private List<Runnable> buffered;
+
+    // ============================
+    // Reconstrução completa
+    // ============================
+    public synchronized void beginRebuild() {
+        buffered = new ArrayList<>();
+    }
+
+    public synchronized void finishRebuild(Collection<IssueSummary> all) {
+        issues.clear();
+        tasksByStatus.clear();
+        pendingByDue.clear();
+        delayed = 0;
+        if (overdueBoundary == null) {
+            overdueBoundary = LocalDate.now();
+        }
+
+        all.forEach(this::doUpsert);
+
+        // Mudanças que chegaram durante a leitura; reaplicar é idempotente
+        List<Runnable> pending = buffered;
+        buffered = null;
+        if (pending != null) {
+            pending.forEach(Runnable::run);
+        }
+        initialized = true;
+    }
+
+    public synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    // ============================
+    // Deltas
+    // ============================
+    public synchronized void upsertAll(Collection<IssueSummary> changed) {
+        if (buffered != null) {
+            List<IssueSummary> copy = List.copyOf(changed);
+            buffered.add(() -> copy.forEach(this::doUpsert));
+        } else if (initialized) {
+            changed.forEach(this::doUpsert);
+        }
+    }
+
+    public synchronized void removeAll(Collection<String> keys) {
+        if (buffered != null) {
+            List<String> copy = List.copyOf(keys);
+            buffered.add(() -> copy.forEach(this::doRemove));
+        } else if (initialized) {
+            keys.forEach(this::doRemove);
+        }
+    }
+
+    // ============================
+    // Estatísticas
+    // ============================
+    public synchronized DashboardStatsDTO snapshot(LocalDate today) {
+        advanceClock(today);
+
+        DashboardStatsDTO stats = new DashboardStatsDTO();
+        int total = issues.size();
+        stats.setTotalTasks(total);
+
+        if (total == 0) {
+            stats.setProgressPercentage(0.0);
+            return stats;
+        }
+
+        stats.setTasksByStatus(new HashMap<>(tasksByStatus));
+
+        int completed = tasksByStatus.getOrDefault(DONE, 0L).intValue();
+        stats.setCompletedTasks(completed);
+        stats.setInProgressTasks(tasksByStatus.getOrDefault("In Progress", 0L).intValue());
+        stats.setTodoTasks(tasksByStatus.getOrDefault("To Do", 0L).intValue());
+        stats.setDelayedTasks(delayed);
+        stats.setProgressPercentage(((double) completed / total) * 100.0);
+        return stats;
+    }
+
+    // O relógio passou da duedate: move os dias vencidos para "em atraso" (ou volta, se o relógio recuar)
+    private void advanceClock(LocalDate today) {
+        if (overdueBoundary == null) {
+            overdueBoundary = today;
+            return;
+        }
+        if (today.isAfter(overdueBoundary)) {
+            delayed += sum(pendingByDue.subMap(overdueBoundary, true, today, false));
+        } else if (today.isBefore(overdueBoundary)) {
+            delayed -= sum(pendingByDue.subMap(today, true, overdueBoundary, false));
+        }
+        overdueBoundary = today;
+    }
+
+    private static int sum(Map<LocalDate, Integer> counts) {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private void doUpsert(IssueSummary issue) {
+        Tracked next = track(issue);
+        Tracked previous = issues.put(issue.key(), next);
+        if (previous != null) {
+            unaccount(previous);
+        }
+        account(next);
+    }
+
+    private void doRemove(String key) {
+        Tracked previous = issues.remove(key);
+        if (previous != null) {
+            unaccount(previous);
+        }
+    }
+
+    private void account(Tracked t) {
+        tasksByStatus.merge(t.status(), 1L, Long::sum);
+        if (t.due() != null) {
+            pendingByDue.merge(t.due(), 1, Integer::sum);
+            if (t.due().isBefore(overdueBoundary)) {
+                delayed++;
+            }
+        }
+    }
+
+    private void unaccount(Tracked t) {
+        tasksByStatus.computeIfPresent(t.status(), (s, count) -> count > 1 ? count - 1 : null);
+        if (t.due() != null) {
+            pendingByDue.computeIfPresent(t.due(), (d, count) -> count > 1 ? count - 1 : null);
+            if (t.due().isBefore(overdueBoundary)) {
+                delayed--;
+            }
+        }
+    }
+
+    // Mesmas regras da agregação completa: status em branco vira "Sem Status", "Done" (sem caixa) não atrasa
+    private Tracked track(IssueSummary issue) {
+        String status = (issue.status() != null && !issue.status().isBlank()) ? issue.status() : SEM_STATUS;
+
+        LocalDate due = null;
+        if (!DONE.equalsIgnoreCase(issue.status()) && issue.duedate() != null && !issue.duedate().isBlank()) {
+            try {
+                due = LocalDate.parse(issue.duedate());
+            } catch (DateTimeParseException e) {
+                log.error("Erro ao parsear duedate: {} (Key: {})", issue.duedate(), issue.key());
+            }
+        }
+        return new Tracked(status, due);
+    }
+}
@@ -1,85 +1,69 @@
 package com.example.demo.Service;
 
 import com.example.demo.DTO.DashboardStatsDTO;
-import com.example.demo.DTO.IssueSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class DashboardService {
 
-    private final JiraClient jiraClient;
-
-    public DashboardService(JiraClient jiraClient) {
-        this.jiraClient = jiraClient;
+    private final JiraMirrorService jiraMirrorService;
+    private final DashboardAggregates aggregates = new DashboardAggregates();
+    private final DashboardStatsCache statsCache;
+
+    public DashboardService(
+            JiraMirrorService jiraMirrorService,
+            MeterRegistry meterRegistry,
+            @Value("${dashboard.cache.ttl-ms:30000}") long ttlMs,
+            @Value("${dashboard.cache.max-stale-ms:300000}") long maxStaleMs
+    ) {
+        this.jiraMirrorService = jiraMirrorService;
+        this.statsCache = new DashboardStatsCache(this::calcularStatsDoEspelho,
+                Duration.ofMillis(ttlMs), Duration.ofMillis(maxStaleMs), meterRegistry);
     }
 
+    // Estatísticas servidas do cache (stale-while-revalidate, um único cálculo por vez)
     public DashboardStatsDTO getProjectStats() {
+        return statsCache.get();
+    }
 
-        // Busca todas as issues diretamente, sem precisar passar token
-        List<IssueSummary> allIssues = jiraClient.fetchAllAsSummaries();
+    public DashboardStatsCache getStatsCache() {
+        return statsCache;
+    }
 
-        DashboardStatsDTO stats = new DashboardStatsDTO();
+    // Mudanças no espelho chegam como deltas por issue e atualizam os agregados
+    @EventListener
+    public void onMirrorChanged(JiraMirrorChangedEvent event) {
+        aggregates.upsertAll(event.upserted());
+        aggregates.removeAll(event.removed());
+    }
 
-        if (allIssues == null || allIssues.isEmpty()) {
-            log.warn("Nenhuma issue encontrada pelo JiraClient. Retornando estatísticas zeradas.");
-            stats.setTotalTasks(0);
-            stats.setProgressPercentage(0.0);
-            return stats;
+    // Nova sincronização do espelho: o valor atual continua sendo servido enquanto é recalculado
+    @EventListener
+    public void onMirrorSynced(JiraMirrorSyncedEvent event) {
+        if (event.issuesRecebidas() > 0 || event.completa()) {
+            statsCache.invalidate();
         }
+    }
 
-        int total = allIssues.size();
-        stats.setTotalTasks(total);
-
-        Map<String, Long> tasksByStatus = allIssues.stream()
-                .collect(Collectors.groupingBy(
-                        issue -> (issue.status() != null && !issue.status().isBlank())
-                                ? issue.status()
-                                : "Sem Status",
-                        Collectors.counting()
-                ));
-
-        stats.setTasksByStatus(tasksByStatus);
-
-        int completed = tasksByStatus.getOrDefault("Done", 0L).intValue();
-        stats.setCompletedTasks(completed);
-        stats.setInProgressTasks(tasksByStatus.getOrDefault("In Progress", 0L).intValue());
-        stats.setTodoTasks(tasksByStatus.getOrDefault("To Do", 0L).intValue());
-
-        LocalDate today = LocalDate.now();
-        int delayed = (int) allIssues.stream().filter(issue -> {
-            boolean isOverdue = false;
-
-            if (issue.duedate() != null && !issue.duedate().isBlank()) {
-                try {
-                    LocalDate dueDate = LocalDate.parse(issue.duedate());
-                    isOverdue = dueDate.isBefore(today);
-                } catch (Exception e) {
-                    log.error("Erro ao parsear duedate: {} (Key: {})",
-                            issue.duedate(), issue.key(), e);
-                }
-            }
-
-            boolean isCompleted = "Done".equalsIgnoreCase(issue.status());
-
-            return isOverdue && !isCompleted;
-
-        }).count();
-
-        stats.setDelayedTasks(delayed);
-
-        double percentage = (total == 0) ? 0.0 : ((double) completed / total) * 100.0;
-        stats.setProgressPercentage(percentage);
-
-        log.info("Estatísticas calculadas: Total={}, Concluídas={}, EmAtraso={}, Progresso={}%", 
-                total, completed, delayed, String.format("%.2f", percentage));
+    private DashboardStatsDTO calcularStatsDoEspelho() {
+        if (!aggregates.isInitialized()) {
+            // Primeira leitura: carrega o espelho inteiro uma vez; daí em diante só deltas
+            aggregates.beginRebuild();
+            aggregates.finishRebuild(jiraMirrorService.listIssues());
+        }
 
+        DashboardStatsDTO stats = aggregates.snapshot(LocalDate.now());
+        log.info("Estatísticas calculadas: Total={}, Concluídas={}, EmAtraso={}, Progresso={}%",
+                stats.getTotalTasks(), stats.getCompletedTasks(), stats.getDelayedTasks(),
+                String.format("%.2f", stats.getProgressPercentage()));
         return stats;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.DashboardStatsDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache do DashboardStatsDTO com stale-while-revalidate e coalescência de requisições.
+ *
+ * <ul>
+ *   <li>idade &lt; ttl: devolve o valor em cache (hit);</li>
+ *   <li>ttl &lt;= idade &lt; ttl + maxStale: devolve o valor antigo e dispara um refresh em segundo plano;</li>
+ *   <li>sem valor ou velho demais: calcula na hora (miss).</li>
+ * </ul>
+ * Em qualquer caso existe no máximo um cálculo em andamento; quem chega durante ele espera o mesmo resultado.
+ * Os contadores são publicados como dashboard.stats.cache.* no MeterRegistry.
+ */
+@Slf4j
+public class DashboardStatsCache {
+
+    private record Entry(DashboardStatsDTO stats, Instant computedAt) {}
+
+    private final Supplier<DashboardStatsDTO> loader;
+    private final Duration ttl;
+    private final Duration maxStale;
+
+    private volatile Entry entry;
+    private final AtomicReference<CompletableFuture<DashboardStatsDTO>> inFlight = new AtomicReference<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    public DashboardStatsCache(Supplier<DashboardStatsDTO> loader, Duration ttl, Duration maxStale,
+                               MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.ttl = ttl;
+        this.maxStale = maxStale;
+
+        FunctionCounter.builder("dashboard.stats.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("dashboard.stats.cache.stale.hits", staleHits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("dashboard.stats.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("dashboard.stats.cache.coalesced", coalesced, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("dashboard.stats.cache.refreshes", refreshes, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("dashboard.stats.cache.refresh.failures", refreshFailures, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    public DashboardStatsDTO get() {
+        Entry current = entry;
+
+        if (current != null) {
+            Duration age = Duration.between(current.computedAt(), Instant.now());
+
+            if (age.compareTo(ttl) < 0) {
+                hits.incrementAndGet();
+                return current.stats();
+            }
+
+            if (age.compareTo(ttl.plus(maxStale)) < 0) {
+                staleHits.incrementAndGet();
+                refresh(true);
+                return current.stats();
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            return refresh(false).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Marca o valor atual como vencido: a próxima leitura ainda o recebe, mas já dispara o refresh.
+     */
+    public void invalidate() {
+        Entry current = entry;
+        if (current != null) {
+            entry = new Entry(current.stats(), Instant.now().minus(ttl));
+        }
+    }
+
+    /**
+     * Idade do valor em cache (ou null se ainda não houve cálculo).
+     */
+    public Duration age() {
+        Entry current = entry;
+        return current != null ? Duration.between(current.computedAt(), Instant.now()) : null;
+    }
+
+    // Garante um único cálculo em andamento; o líder calcula na própria thread (miss) ou numa virtual thread (stale)
+    private CompletableFuture<DashboardStatsDTO> refresh(boolean background) {
+        CompletableFuture<DashboardStatsDTO> future = new CompletableFuture<>();
+        CompletableFuture<DashboardStatsDTO> running = inFlight.compareAndExchange(null, future);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return running;
+        }
+
+        Runnable task = () -> {
+            refreshes.incrementAndGet();
+            try {
+                DashboardStatsDTO stats = loader.get();
+                entry = new Entry(stats, Instant.now());
+                future.complete(stats);
+            } catch (Throwable t) {
+                refreshFailures.incrementAndGet();
+                log.error("Falha ao recalcular estatísticas do dashboard: {}", t.getMessage());
+                future.completeExceptionally(t);
+            } finally {
+                inFlight.compareAndSet(future, null);
+            }
+        };
+
+        if (background) {
+            Thread.ofVirtual().name("dashboard-stats-refresh").start(task);
+        } else {
+            task.run();
+        }
+        return future;
+    }
+
+    public Map<String, Object> snapshot() {
+        Duration age = age();
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("ageMs", age != null ? age.toMillis() : null);
+        state.put("ttlMs", ttl.toMillis());
+        state.put("maxStaleMs", maxStale.toMillis());
+        state.put("hits", hits.get());
+        state.put("staleHits", staleHits.get());
+        state.put("misses", misses.get());
+        state.put("coalesced", coalesced.get());
+        state.put("refreshes", refreshes.get());
+        state.put("refreshFailures", refreshFailures.get());
+        state.put("refreshing", inFlight.get() != null);
+        return state;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Projeto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Recálculo do prazo otimizado fora da requisição, agrupando alterações próximas.
+ *
+ * Cada alteração de tarefa só marca o projeto como pendente ({@link #marcar}). O recálculo roda
+ * depois de projetos.recalculo.fila.janela-ms sem novas alterações no projeto (ou, com alterações
+ * contínuas, no máximo projetos.recalculo.fila.espera-maxima-ms após a primeira), então editar 50
+ * tarefas seguidas gera um recálculo só.
+ *
+ * Cada marcação recebe uma versão por projeto; {@link #aguardar} espera até que todas as alterações
+ * feitas antes da chamada tenham sido recalculadas. Pendências não sobrevivem a um reinício: o
+ * recálculo noturno em lote ({@link RecalculoEmLoteService}) corrige o que tiver ficado para trás.
+ *
+ * O estado de um projeto em dia (tudo recalculado) é descartado projetos.recalculo.fila.retencao-ms
+ * depois do último recálculo, então o mapa só guarda projetos alterados recentemente (e os excluídos
+ * também saem dele).
+ */
+@Service
+@Slf4j
+public class FilaRecalculoService {
+
+    public record Situacao(Long projetoId, boolean pendente, long versaoMarcada, long versaoCalculada,
+                           LocalDate prazoOtimizado, String ultimoErro) {}
+
+    private static final class Estado {
+        long marcada;
+        long calculada;
+        long primeiraMarca;
+        long ultimaMarca;
+        boolean agendado;
+        // Já saiu do mapa: marcar cria um estado novo em vez de usar este
+        boolean descartado;
+        LocalDate prazo;
+        String erro;
+        // Completado a cada recálculo terminado (e trocado por um novo)
+        CompletableFuture<Void> proximo = new CompletableFuture<>();
+    }
+
+    private final ProjetoService projetoService;
+    private final long janelaNanos;
+    private final long esperaMaximaNanos;
+    private final long retencaoNanos;
+    private final ScheduledExecutorService executor;
+
+    private final Map<Long, Estado> estados = new ConcurrentHashMap<>();
+
+    private final Counter marcacoes;
+    private final Counter recalculos;
+    private final Counter falhas;
+
+    public FilaRecalculoService(
+            ProjetoService projetoService,
+            MeterRegistry meterRegistry,
+            @Value("${projetos.recalculo.fila.janela-ms:300}") long janelaMs,
+            @Value("${projetos.recalculo.fila.espera-maxima-ms:3000}") long esperaMaximaMs,
+            @Value("${projetos.recalculo.fila.retencao-ms:60000}") long retencaoMs
+    ) {
+        this.projetoService = projetoService;
+        this.janelaNanos = TimeUnit.MILLISECONDS.toNanos(janelaMs);
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(janelaMs, esperaMaximaMs));
+        this.retencaoNanos = TimeUnit.MILLISECONDS.toNanos(retencaoMs);
+        // Uma thread: recálculos do mesmo projeto nunca se sobrepõem (cada um é barato, o grafo já está em memória)
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("recalculo-prazo").daemon().factory());
+
+        // marcacoes / recalculos mostra quantas alterações cada recálculo absorveu
+        this.marcacoes = Counter.builder("projetos.recalculo.fila.marcacoes").register(meterRegistry);
+        this.recalculos = Counter.builder("projetos.recalculo.fila.recalculos").register(meterRegistry);
+        this.falhas = Counter.builder("projetos.recalculo.fila.falhas").register(meterRegistry);
+        Gauge.builder("projetos.recalculo.fila.pendentes", this, FilaRecalculoService::pendentes)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // ============================
+    // Marcação e processamento
+    // ============================
+
+    /**
+     * Marca o projeto para recálculo e devolve a versão desta alteração.
+     */
+    public long marcar(Long projetoId) {
+        marcacoes.increment();
+        while (true) {
+            Estado estado = estados.computeIfAbsent(projetoId, id -> new Estado());
+            synchronized (estado) {
+                if (estado.descartado) {
+                    // Descartado entre o computeIfAbsent e o lock: pega o estado novo
+                    continue;
+                }
+                long agora = System.nanoTime();
+                estado.marcada++;
+                estado.ultimaMarca = agora;
+                if (!estado.agendado) {
+                    estado.agendado = true;
+                    estado.primeiraMarca = agora;
+                    executor.schedule(() -> processar(projetoId, estado), janelaNanos, TimeUnit.NANOSECONDS);
+                }
+                return estado.marcada;
+            }
+        }
+    }
+
+    private void processar(Long projetoId, Estado estado) {
+        long versao;
+        synchronized (estado) {
+            // Ainda chegando alterações: espera a janela fechar (sem passar da espera máxima)
+            long limite = Math.min(estado.ultimaMarca + janelaNanos, estado.primeiraMarca + esperaMaximaNanos);
+            long restante = limite - System.nanoTime();
+            if (restante > 0) {
+                executor.schedule(() -> processar(projetoId, estado), restante, TimeUnit.NANOSECONDS);
+                return;
+            }
+            versao = estado.marcada;
+            estado.agendado = false;
+        }
+
+        LocalDate prazo = null;
+        String erro = null;
+        try {
+            Projeto projeto = projetoService.recalcularPrazoOtimizado(projetoId);
+            prazo = projeto.getPrazoOtimizado();
+            recalculos.increment();
+        } catch (Exception e) {
+            // Projeto excluído nesse meio-tempo, banco fora etc.: quem espera não fica preso
+            log.warn("Falha ao recalcular o prazo do projeto {}: {}", projetoId, e.getMessage());
+            erro = e.getMessage();
+            falhas.increment();
+        }
+
+        CompletableFuture<Void> concluido;
+        synchronized (estado) {
+            estado.calculada = Math.max(estado.calculada, versao);
+            if (prazo != null) {
+                estado.prazo = prazo;
+            }
+            estado.erro = erro;
+            concluido = estado.proximo;
+            estado.proximo = new CompletableFuture<>();
+        }
+        concluido.complete(null);
+
+        // Situação do último recálculo fica disponível para consulta durante a retenção
+        executor.schedule(() -> descartar(projetoId, estado, versao), retencaoNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Remove o estado se nada foi marcado ou recalculado desde o recálculo da versão informada
+    private void descartar(Long projetoId, Estado estado, long versao) {
+        synchronized (estado) {
+            if (estado.agendado || estado.marcada != versao || estado.calculada != versao) {
+                return;
+            }
+            estado.descartado = true;
+            estados.remove(projetoId, estado);
+        }
+    }
+
+    // ============================
+    // Consulta e espera
+    // ============================
+
+    /**
+     * Espera até que as alterações marcadas antes desta chamada tenham sido recalculadas (ou o tempo
+     * acabar) e devolve a situação do projeto.
+     */
+    public Situacao aguardar(Long projetoId, Duration limite) throws InterruptedException {
+        Estado estado = estados.get(projetoId);
+        if (estado == null) {
+            return situacao(projetoId);
+        }
+
+        long alvo;
+        synchronized (estado) {
+            alvo = estado.marcada;
+        }
+        long fim = System.nanoTime() + limite.toNanos();
+        while (true) {
+            CompletableFuture<Void> proximo;
+            synchronized (estado) {
+                if (estado.calculada >= alvo) {
+                    break;
+                }
+                proximo = estado.proximo;
+            }
+            long restante = fim - System.nanoTime();
+            if (restante <= 0) {
+                break;
+            }
+            try {
+                proximo.get(restante, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                break;
+            } catch (ExecutionException e) {
+                // Nunca completado com erro
+            }
+        }
+        return situacao(projetoId);
+    }
+
+    public Situacao situacao(Long projetoId) {
+        Estado estado = estados.get(projetoId);
+        if (estado == null) {
+            return new Situacao(projetoId, false, 0, 0, null, null);
+        }
+        synchronized (estado) {
+            return new Situacao(projetoId, estado.calculada < estado.marcada, estado.marcada,
+                    estado.calculada, estado.prazo, estado.erro);
+        }
+    }
+
+    private int pendentes() {
+        int pendentes = 0;
+        for (Estado estado : estados.values()) {
+            synchronized (estado) {
+                if (estado.calculada < estado.marcada) {
+                    pendentes++;
+                }
+            }
+        }
+        return pendentes;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("janela", Duration.ofNanos(janelaNanos).toString());
+        state.put("esperaMaxima", Duration.ofNanos(esperaMaximaNanos).toString());
+        state.put("retencao", Duration.ofNanos(retencaoNanos).toString());
+        state.put("projetos", estados.size());
+        state.put("pendentes", pendentes());
+        state.put("marcacoes", (long) marcacoes.count());
+        state.put("recalculos", (long) recalculos.count());
+        state.put("falhas", (long) falhas.count());
+        return state;
+    }
+}
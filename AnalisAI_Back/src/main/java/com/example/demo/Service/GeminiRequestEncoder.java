@@ -0,0 +1,170 @@
+package com.example.demo.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Corpo do generateContent pré-compilado para um prompt com campos variáveis ("%s").
+ *
+ * Tudo o que não muda entre tarefas (envelope "contents", trechos fixos do prompt, generationConfig e
+ * o schema de resposta) é serializado uma única vez em bytes. Para cada tarefa só os campos são
+ * escapados (JSON) e copiados entre esses trechos, num buffer reaproveitado pela thread.
+ * O resultado é o mesmo JSON que o Jackson geraria para o payload equivalente em Map.
+ */
+public final class GeminiRequestEncoder {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    // Buffer de trabalho por thread; cresce conforme necessário e é reaproveitado entre chamadas
+    private static final ThreadLocal<byte[][]> SCRATCH = ThreadLocal.withInitial(() -> new byte[][]{new byte[4096]});
+
+    // segments[i] vem antes do campo i; o último fecha o texto e traz o generationConfig
+    private final byte[][] segments;
+
+    private GeminiRequestEncoder(byte[][] segments) {
+        this.segments = segments;
+    }
+
+    public static GeminiRequestEncoder compile(ObjectMapper objectMapper, String promptTemplate, JsonNode responseSchema) {
+        String[] trechos = promptTemplate.split("%s", -1);
+        byte[][] segments = new byte[trechos.length][];
+
+        try {
+            for (int i = 0; i < trechos.length; i++) {
+                segments[i] = escapedLiteral(objectMapper, trechos[i]);
+            }
+
+            // Ordem fixa: os bytes entram na chave do AnaliseCache e precisam ser estáveis entre reinícios
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("responseMimeType", "application/json");
+            config.put("responseSchema", responseSchema);
+            byte[] generationConfig = objectMapper.writeValueAsBytes(config);
+
+            segments[0] = concat("{\"contents\":[{\"parts\":[{\"text\":\"".getBytes(StandardCharsets.UTF_8), segments[0]);
+            segments[trechos.length - 1] = concat(segments[trechos.length - 1],
+                    "\"}]}],\"generationConfig\":".getBytes(StandardCharsets.UTF_8), generationConfig,
+                    "}".getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao pré-compilar o pedido ao Gemini", e);
+        }
+
+        return new GeminiRequestEncoder(segments);
+    }
+
+    public int campos() {
+        return segments.length - 1;
+    }
+
+    /**
+     * Gera o corpo JSON com os campos na ordem dos "%s" do template (null vira "null", como no String.format).
+     */
+    public byte[] encode(String... campos) {
+        if (campos.length != campos()) {
+            throw new IllegalArgumentException("Esperados " + campos() + " campos, recebidos " + campos.length);
+        }
+
+        byte[][] holder = SCRATCH.get();
+        byte[] buf = holder[0];
+        int pos = 0;
+
+        for (int i = 0; i < segments.length; i++) {
+            byte[] segment = segments[i];
+            buf = ensure(holder, buf, pos, segment.length);
+            System.arraycopy(segment, 0, buf, pos, segment.length);
+            pos += segment.length;
+
+            if (i < campos.length) {
+                String campo = campos[i] != null ? campos[i] : "null";
+                // Pior caso: \\uXXXX (6 bytes) por char
+                buf = ensure(holder, buf, pos, campo.length() * 6);
+                pos = writeEscaped(campo, buf, pos);
+            }
+        }
+
+        return Arrays.copyOf(buf, pos);
+    }
+
+    // Escapa conforme o JSON (aspas, barra invertida e controles) e grava em UTF-8
+    private static int writeEscaped(String s, byte[] buf, int pos) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x80) {
+                switch (c) {
+                    case '"' -> pos = writeShortEscape('"', buf, pos);
+                    case '\\' -> pos = writeShortEscape('\\', buf, pos);
+                    case '\n' -> pos = writeShortEscape('n', buf, pos);
+                    case '\r' -> pos = writeShortEscape('r', buf, pos);
+                    case '\t' -> pos = writeShortEscape('t', buf, pos);
+                    case '\b' -> pos = writeShortEscape('b', buf, pos);
+                    case '\f' -> pos = writeShortEscape('f', buf, pos);
+                    default -> pos = writeUnicodeEscape(c, buf, pos);
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Fora do BMP (emoji etc.): \\uXXXX por surrogate, como o Jackson grava por padrão
+                pos = writeUnicodeEscape(c, buf, pos);
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private static int writeShortEscape(char c, byte[] buf, int pos) {
+        buf[pos++] = '\\';
+        buf[pos++] = (byte) c;
+        return pos;
+    }
+
+    private static int writeUnicodeEscape(char c, byte[] buf, int pos) {
+        buf[pos++] = '\\';
+        buf[pos++] = 'u';
+        buf[pos++] = HEX[(c >> 12) & 0xF];
+        buf[pos++] = HEX[(c >> 8) & 0xF];
+        buf[pos++] = HEX[(c >> 4) & 0xF];
+        buf[pos++] = HEX[c & 0xF];
+        return pos;
+    }
+
+    private static byte[] ensure(byte[][] holder, byte[] buf, int pos, int extra) {
+        if (pos + extra <= buf.length) {
+            return buf;
+        }
+        byte[] maior = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        holder[0] = maior;
+        return maior;
+    }
+
+    // Texto fixo já escapado pelo próprio Jackson, sem as aspas externas
+    private static byte[] escapedLiteral(ObjectMapper objectMapper, String texto) throws JsonProcessingException {
+        byte[] quoted = objectMapper.writeValueAsBytes(texto);
+        return Arrays.copyOfRange(quoted, 1, quoted.length - 1);
+    }
+
+    private static byte[] concat(byte[]... partes) {
+        int total = 0;
+        for (byte[] parte : partes) {
+            total += parte.length;
+        }
+        byte[] out = new byte[total];
+        int pos = 0;
+        for (byte[] parte : partes) {
+            System.arraycopy(parte, 0, out, pos, parte.length);
+            pos += parte.length;
+        }
+        return out;
+    }
+}
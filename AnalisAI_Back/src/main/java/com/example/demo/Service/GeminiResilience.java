@@ -0,0 +1,538 @@
+package com.example.demo.Service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Camada de resiliência de todas as chamadas ao Gemini.
+ *
+ * <ul>
+ *   <li>Orçamento de latência por operação: a chamada (com hedge) falha com TimeoutException ao estourar
+ *       o orçamento, e o fluxo do chat tem um prazo para o primeiro pedaço e outro entre pedaços;</li>
+ *   <li>Circuit breaker: abre quando a taxa de falhas nas últimas chamadas passa do limite; aberto, rejeita
+ *       na hora (quem chama responde em modo degradado) e, depois de gemini.resiliencia.aberto-ms, deixa
+ *       passar algumas sondas (meio-aberto) que fecham ou reabrem o circuito;</li>
+ *   <li>Hedge: nas operações idempotentes e curtas (chat e análise individual), se a resposta não chegou
+ *       até o percentil configurado da latência recente, uma segunda chamada igual é disparada e vale a
+ *       primeira que responder. Os hedges ficam limitados a uma fração das chamadas.</li>
+ * </ul>
+ *
+ * Contam como falha para o circuito: tempo esgotado, erro de conexão, HTTP 429 e 5xx. Os outros 4xx são
+ * erro de quem chamou, não do Gemini.
+ *
+ * Métricas: gemini.requests (por operação e resultado; no fluxo, até o primeiro pedaço), gemini.tokens
+ * (usageMetadata de cada resposta) e o estado do circuito e dos hedges (gemini.circuit.*, gemini.hedges).
+ */
+@Service
+@Slf4j
+public class GeminiResilience {
+
+    public enum Operacao {
+        CHAT("chat", true),
+        CHAT_STREAM("chat-stream", false),
+        ANALISE("analise", true),
+        LOTE("lote", false),
+        RESUMO("resumo", false);
+
+        private final String nome;
+        private final boolean hedge;
+
+        Operacao(String nome, boolean hedge) {
+            this.nome = nome;
+            this.hedge = hedge;
+        }
+    }
+
+    // Em ordem: o ordinal é o valor do gauge gemini.circuit.state
+    private enum Estado { FECHADO, MEIO_ABERTO, ABERTO }
+
+    // Resultado de permitir()
+    private static final int REJEITADA = -1;
+    private static final int NORMAL = 0;
+    private static final int SONDA = 1;
+
+    /**
+     * Chamada rejeitada sem ir ao Gemini porque o circuito está aberto.
+     */
+    public static class CircuitoAbertoException extends RuntimeException {
+        public CircuitoAbertoException() {
+            super("Gemini indisponível no momento (circuito aberto)");
+        }
+    }
+
+    /**
+     * Resposta de erro do Gemini com o status HTTP (para o circuito separar 429/5xx dos demais 4xx).
+     */
+    public static class ErroHttpException extends RuntimeException {
+        private final int status;
+
+        public ErroHttpException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int janela;
+    private final int minimoChamadas;
+    private final double taxaFalhas;
+    private final long abertoNanos;
+    private final int sondas;
+    private final boolean hedgeHabilitado;
+    private final double hedgePercentil;
+    private final double hedgeMaxFracao;
+    private final long hedgeMinAtrasoNanos;
+    private final Map<Operacao, Duration> orcamentos = new EnumMap<>(Operacao.class);
+    private final Duration intervaloStream;
+
+    // Estado do circuito, protegido por "this"
+    private Estado estado = Estado.FECHADO;
+    private final boolean[] resultados;
+    private int posicao;
+    private int registrados;
+    private int falhasNaJanela;
+    private long abertoAte;
+    private int sondasEmCurso;
+    private int sondasOk;
+
+    private final Map<Operacao, Latencias> latencias = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, AtomicLong> estouros = new EnumMap<>(Operacao.class);
+    private final AtomicLong chamadas = new AtomicLong();
+    private final AtomicLong rejeitadas = new AtomicLong();
+    private final AtomicLong aberturas = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgesVencedores = new AtomicLong();
+
+    public GeminiResilience(
+            MeterRegistry meterRegistry,
+            @Value("${gemini.resiliencia.janela:20}") int janela,
+            @Value("${gemini.resiliencia.minimo-chamadas:10}") int minimoChamadas,
+            @Value("${gemini.resiliencia.taxa-falhas:0.5}") double taxaFalhas,
+            @Value("${gemini.resiliencia.aberto-ms:30000}") long abertoMs,
+            @Value("${gemini.resiliencia.sondas:2}") int sondas,
+            @Value("${gemini.resiliencia.hedge.habilitado:true}") boolean hedgeHabilitado,
+            @Value("${gemini.resiliencia.hedge.percentil:0.95}") double hedgePercentil,
+            @Value("${gemini.resiliencia.hedge.max-fracao:0.1}") double hedgeMaxFracao,
+            @Value("${gemini.resiliencia.hedge.min-atraso-ms:250}") long hedgeMinAtrasoMs,
+            @Value("${gemini.resiliencia.orcamento.chat-ms:20000}") long chatMs,
+            @Value("${gemini.resiliencia.orcamento.chat-stream-primeiro-ms:10000}") long streamPrimeiroMs,
+            @Value("${gemini.resiliencia.orcamento.chat-stream-intervalo-ms:10000}") long streamIntervaloMs,
+            @Value("${gemini.resiliencia.orcamento.analise-ms:30000}") long analiseMs,
+            @Value("${gemini.resiliencia.orcamento.lote-ms:60000}") long loteMs,
+            @Value("${gemini.resiliencia.orcamento.resumo-ms:30000}") long resumoMs
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.janela = Math.max(1, janela);
+        this.minimoChamadas = Math.max(1, Math.min(minimoChamadas, this.janela));
+        this.taxaFalhas = taxaFalhas;
+        this.abertoNanos = Duration.ofMillis(abertoMs).toNanos();
+        this.sondas = Math.max(1, sondas);
+        this.hedgeHabilitado = hedgeHabilitado;
+        this.hedgePercentil = hedgePercentil;
+        this.hedgeMaxFracao = hedgeMaxFracao;
+        this.hedgeMinAtrasoNanos = Duration.ofMillis(hedgeMinAtrasoMs).toNanos();
+        this.resultados = new boolean[this.janela];
+
+        orcamentos.put(Operacao.CHAT, Duration.ofMillis(chatMs));
+        orcamentos.put(Operacao.CHAT_STREAM, Duration.ofMillis(streamPrimeiroMs));
+        orcamentos.put(Operacao.ANALISE, Duration.ofMillis(analiseMs));
+        orcamentos.put(Operacao.LOTE, Duration.ofMillis(loteMs));
+        orcamentos.put(Operacao.RESUMO, Duration.ofMillis(resumoMs));
+        this.intervaloStream = Duration.ofMillis(streamIntervaloMs);
+
+        for (Operacao operacao : Operacao.values()) {
+            latencias.put(operacao, new Latencias());
+            estouros.put(operacao, new AtomicLong());
+        }
+
+        // 0 = fechado, 1 = meio-aberto, 2 = aberto
+        Gauge.builder("gemini.circuit.state", this, r -> r.estadoAtual().ordinal()).register(meterRegistry);
+        FunctionCounter.builder("gemini.circuit.rejected", rejeitadas, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("gemini.circuit.opened", aberturas, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("gemini.hedges", hedges, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("gemini.hedges.won", hedgesVencedores, AtomicLong::get).register(meterRegistry);
+    }
+
+    private synchronized Estado estadoAtual() {
+        return estado;
+    }
+
+    // ============================
+    // Execução
+    // ============================
+
+    /**
+     * Executa a chamada com circuito, hedge (se a operação permitir) e orçamento de latência.
+     * O fornecedor deve montar uma chamada nova a cada invocação (o hedge o chama de novo).
+     */
+    public <T> Mono<T> executar(Operacao operacao, Supplier<Mono<T>> chamada) {
+        return Mono.defer(() -> {
+            int permissao = permitir();
+            if (permissao == REJEITADA) {
+                return Mono.error(new CircuitoAbertoException());
+            }
+            chamadas.incrementAndGet();
+            long inicio = System.nanoTime();
+            Duration orcamento = orcamentos.get(operacao);
+
+            // Sonda do meio-aberto vai sozinha: um hedge dobraria a carga justamente no teste
+            Mono<T> execucao = permissao == SONDA ? Mono.defer(chamada) : comHedge(operacao, chamada);
+            return execucao
+                    .timeout(orcamento, Mono.error(() -> estourou(operacao, orcamento)))
+                    .doOnSuccess(valor -> {
+                        latencias.get(operacao).registrar(System.nanoTime() - inicio);
+                        medir(operacao, "success", inicio);
+                        registrar(permissao, true);
+                    })
+                    .doOnError(e -> {
+                        medir(operacao, resultado(e), inicio);
+                        registrar(permissao, !contaComoFalha(e));
+                    })
+                    .doOnCancel(() -> liberar(permissao));
+        });
+    }
+
+    /**
+     * Versão em fluxo (streamGenerateContent): sem hedge; o orçamento vale para o primeiro pedaço e
+     * para o intervalo entre pedaços. O circuito registra o resultado no primeiro pedaço (ou no erro
+     * antes dele).
+     */
+    public <T> Flux<T> executarStream(Operacao operacao, Supplier<Flux<T>> chamada) {
+        return Flux.defer(() -> {
+            int permissao = permitir();
+            if (permissao == REJEITADA) {
+                return Flux.error(new CircuitoAbertoException());
+            }
+            chamadas.incrementAndGet();
+            long inicio = System.nanoTime();
+            Duration primeiro = orcamentos.get(operacao);
+            AtomicBoolean registrado = new AtomicBoolean();
+
+            return chamada.get()
+                    .timeout(Mono.delay(primeiro), pedaco -> Mono.delay(intervaloStream),
+                            Flux.defer(() -> Flux.error(estourou(operacao,
+                                    registrado.get() ? intervaloStream : primeiro))))
+                    .doOnNext(pedaco -> {
+                        if (registrado.compareAndSet(false, true)) {
+                            latencias.get(operacao).registrar(System.nanoTime() - inicio);
+                            medir(operacao, "success", inicio);
+                            registrar(permissao, true);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (registrado.compareAndSet(false, true)) {
+                            medir(operacao, resultado(e), inicio);
+                            registrar(permissao, !contaComoFalha(e));
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (registrado.compareAndSet(false, true)) {
+                            registrar(permissao, true);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (registrado.compareAndSet(false, true)) {
+                            liberar(permissao);
+                        }
+                    });
+        });
+    }
+
+    private void medir(Operacao operacao, String outcome, long inicio) {
+        Timer.builder("gemini.requests")
+                .description("Chamadas ao Gemini (no fluxo do chat, tempo até o primeiro pedaço)")
+                .tag("operacao", operacao.nome)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private static String resultado(Throwable e) {
+        return Exceptions.unwrap(e) instanceof TimeoutException ? "timeout" : "error";
+    }
+
+    /**
+     * Tokens informados no usageMetadata de uma resposta do Gemini.
+     */
+    public void registrarUso(Operacao operacao, int promptTokens, int respostaTokens) {
+        if (promptTokens > 0) {
+            tokens(operacao, "prompt").record(promptTokens);
+        }
+        if (respostaTokens > 0) {
+            tokens(operacao, "resposta").record(respostaTokens);
+        }
+    }
+
+    private DistributionSummary tokens(Operacao operacao, String tipo) {
+        return DistributionSummary.builder("gemini.tokens")
+                .baseUnit("tokens")
+                .tag("operacao", operacao.nome)
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+    }
+
+    private TimeoutException estourou(Operacao operacao, Duration orcamento) {
+        estouros.get(operacao).incrementAndGet();
+        return new TimeoutException("Gemini não respondeu dentro do orçamento de "
+                + orcamento.toMillis() + " ms (" + operacao.nome + ")");
+    }
+
+    /**
+     * Indica se a falha é do Gemini (circuito aberto, tempo esgotado, conexão, 429/5xx): nesses casos quem
+     * chama responde em modo degradado em vez de devolver o erro.
+     */
+    public static boolean indisponivel(Throwable e) {
+        Throwable causa = Exceptions.unwrap(e);
+        return causa instanceof CircuitoAbertoException || contaComoFalha(causa);
+    }
+
+    private static boolean contaComoFalha(Throwable e) {
+        Throwable causa = Exceptions.unwrap(e);
+        if (causa instanceof ErroHttpException http) {
+            return statusDeFalha(http.getStatus());
+        }
+        if (causa instanceof WebClientResponseException http) {
+            return statusDeFalha(http.getStatusCode().value());
+        }
+        return causa instanceof TimeoutException || causa instanceof WebClientRequestException;
+    }
+
+    private static boolean statusDeFalha(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    // ============================
+    // Hedge
+    // ============================
+    private <T> Mono<T> comHedge(Operacao operacao, Supplier<Mono<T>> chamada) {
+        long atraso = hedgeHabilitado && operacao.hedge ? latencias.get(operacao).percentil(hedgePercentil) : -1;
+        if (atraso < 0) {
+            return Mono.defer(chamada);
+        }
+
+        // Se a primeira chamada falhar antes do prazo, o hedge não sai (não é retentativa)
+        AtomicReference<Throwable> erroPrimaria = new AtomicReference<>();
+        Sinks.One<Boolean> primariaFalhou = Sinks.one();
+        Mono<T> primaria = Mono.defer(chamada).doOnError(e -> {
+            erroPrimaria.set(e);
+            primariaFalhou.tryEmitValue(true);
+        });
+
+        Mono<T> hedge = Mono.delay(Duration.ofNanos(Math.max(atraso, hedgeMinAtrasoNanos)))
+                .takeUntilOther(primariaFalhou.asMono())
+                .flatMap(tick -> {
+                    if (!reservarHedge()) {
+                        return Mono.<T>empty();
+                    }
+                    return Mono.defer(chamada).doOnNext(valor -> hedgesVencedores.incrementAndGet());
+                });
+
+        // A primeira a responder vence e a outra é cancelada; se as duas falharem, vale o erro da primária
+        return Mono.firstWithValue(primaria, hedge)
+                .onErrorMap(e -> erroPrimaria.get() != null ? erroPrimaria.get() : causaDoHedge(e));
+    }
+
+    private boolean reservarHedge() {
+        while (true) {
+            long atuais = hedges.get();
+            if (atuais + 1 > hedgeMaxFracao * chamadas.get()) {
+                return false;
+            }
+            if (hedges.compareAndSet(atuais, atuais + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // firstWithValue junta os erros das fontes como suprimidos de uma NoSuchElementException
+    private static Throwable causaDoHedge(Throwable e) {
+        Throwable[] suprimidos = e.getSuppressed();
+        return suprimidos.length > 0 ? suprimidos[suprimidos.length - 1] : e;
+    }
+
+    // ============================
+    // Circuit breaker
+    // ============================
+    private synchronized int permitir() {
+        if (estado == Estado.ABERTO) {
+            if (System.nanoTime() - abertoAte < 0) {
+                rejeitadas.incrementAndGet();
+                return REJEITADA;
+            }
+            estado = Estado.MEIO_ABERTO;
+            sondasEmCurso = 0;
+            sondasOk = 0;
+            log.info("Circuito do Gemini meio-aberto: enviando sondas");
+        }
+        if (estado == Estado.MEIO_ABERTO) {
+            if (sondasEmCurso + sondasOk >= sondas) {
+                rejeitadas.incrementAndGet();
+                return REJEITADA;
+            }
+            sondasEmCurso++;
+            return SONDA;
+        }
+        return NORMAL;
+    }
+
+    // Chamadas que começaram antes de o circuito mudar de estado não contam no estado novo
+    private synchronized void registrar(int permissao, boolean sucesso) {
+        if (permissao == SONDA) {
+            if (estado != Estado.MEIO_ABERTO) {
+                return;
+            }
+            sondasEmCurso--;
+            if (!sucesso) {
+                abrir("sonda falhou");
+            } else if (++sondasOk >= sondas) {
+                fechar();
+            }
+            return;
+        }
+
+        if (estado != Estado.FECHADO) {
+            return;
+        }
+        if (registrados == janela && !resultados[posicao]) {
+            falhasNaJanela--;
+        }
+        resultados[posicao] = sucesso;
+        if (!sucesso) {
+            falhasNaJanela++;
+        }
+        posicao = (posicao + 1) % janela;
+        registrados = Math.min(janela, registrados + 1);
+
+        if (registrados >= minimoChamadas && falhasNaJanela >= taxaFalhas * registrados) {
+            abrir(falhasNaJanela + " falhas nas últimas " + registrados + " chamadas");
+        }
+    }
+
+    // Sonda cancelada (cliente desconectou, hedge perdedor): libera a vaga sem resultado
+    private synchronized void liberar(int permissao) {
+        if (permissao == SONDA && estado == Estado.MEIO_ABERTO) {
+            sondasEmCurso--;
+        }
+    }
+
+    private void abrir(String motivo) {
+        estado = Estado.ABERTO;
+        abertoAte = System.nanoTime() + abertoNanos;
+        aberturas.incrementAndGet();
+        log.warn("Circuito do Gemini aberto por {} ms ({})", abertoNanos / 1_000_000, motivo);
+    }
+
+    private void fechar() {
+        estado = Estado.FECHADO;
+        posicao = 0;
+        registrados = 0;
+        falhasNaJanela = 0;
+        log.info("Circuito do Gemini fechado");
+    }
+
+    // ============================
+    // Latências recentes (para o atraso do hedge e o diagnóstico)
+    // ============================
+    private static final class Latencias {
+        private static final int AMOSTRAS = 256;
+        private static final int MINIMO = 20;
+
+        private final long[] nanos = new long[AMOSTRAS];
+        private int proxima;
+        private int total;
+        // Percentis recalculados a cada 16 amostras novas
+        private long[] ordenadas = new long[0];
+        private int desdeOrdenacao;
+
+        synchronized void registrar(long duracao) {
+            nanos[proxima] = duracao;
+            proxima = (proxima + 1) % AMOSTRAS;
+            total = Math.min(AMOSTRAS, total + 1);
+            desdeOrdenacao++;
+        }
+
+        // -1 enquanto houver poucas amostras
+        synchronized long percentil(double p) {
+            if (total < MINIMO) {
+                return -1;
+            }
+            if (desdeOrdenacao >= 16 || ordenadas.length != total) {
+                ordenadas = Arrays.copyOf(nanos, total);
+                Arrays.sort(ordenadas);
+                desdeOrdenacao = 0;
+            }
+            return ordenadas[Math.min(total - 1, (int) Math.ceil(p * total) - 1)];
+        }
+
+        synchronized int total() {
+            return total;
+        }
+    }
+
+    // ============================
+    // Estado atual (diagnóstico)
+    // ============================
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        synchronized (this) {
+            state.put("circuito", estado.name());
+            state.put("falhasNaJanela", falhasNaJanela);
+            state.put("chamadasNaJanela", registrados);
+            if (estado == Estado.ABERTO) {
+                state.put("reabreEmMs", Math.max(0, (abertoAte - System.nanoTime()) / 1_000_000));
+            }
+        }
+        state.put("chamadas", chamadas.get());
+        state.put("rejeitadas", rejeitadas.get());
+        state.put("aberturas", aberturas.get());
+        state.put("hedges", hedges.get());
+        state.put("hedgesVencedores", hedgesVencedores.get());
+
+        Map<String, Object> operacoes = new LinkedHashMap<>();
+        for (Operacao operacao : Operacao.values()) {
+            Latencias lat = latencias.get(operacao);
+            Map<String, Object> op = new LinkedHashMap<>();
+            op.put("orcamentoMs", orcamentos.get(operacao).toMillis());
+            op.put("amostras", lat.total());
+            op.put("p50Ms", emMs(lat.percentil(0.5)));
+            op.put("p95Ms", emMs(lat.percentil(0.95)));
+            op.put("p99Ms", emMs(lat.percentil(0.99)));
+            op.put("estouros", estouros.get(operacao).get());
+            operacoes.put(operacao.nome, op);
+        }
+        state.put("operacoes", operacoes);
+        return state;
+    }
+
+    private static Long emMs(long nanos) {
+        return nanos < 0 ? null : nanos / 1_000_000;
+    }
+}
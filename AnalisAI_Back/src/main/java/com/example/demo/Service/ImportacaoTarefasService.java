@@ -0,0 +1,217 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.TarefaImportada;
+import com.example.demo.Model.Projeto;
+import com.example.demo.Model.Tarefa;
+import com.example.demo.Repository.ProjetoRepository;
+import com.example.demo.Repository.TarefaRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Importação de tarefas em massa (POST /tarefas/importar).
+ *
+ * O corpo é lido como stream com {@link JsonParser}, uma tarefa de cada vez: um array JSON ou NDJSON
+ * (um objeto por linha). As tarefas são gravadas com persist numa transação só, com flush + clear a
+ * cada tarefas.importacao.tamanho-lote tarefas; os inserts saem em batch JDBC (os ids vêm da sequência
+ * de Tarefa, sem ida ao banco por tarefa) e a memória não cresce com o tamanho do arquivo. Cada projeto
+ * afetado tem o prazo recalculado uma vez, depois do commit, em vez de um recálculo por tarefa.
+ *
+ * Tudo ou nada: um item inválido (JSON malformado, sem projetoId, projeto inexistente, dependência que
+ * não é tarefa já gravada no projeto) desfaz a importação inteira e a resposta aponta o item.
+ */
+@Service
+@Slf4j
+public class ImportacaoTarefasService {
+
+    public record Resultado(int tarefas, int projetos, int lotes, int falhasRecalculo, long duracaoMs) {}
+
+    private record Gravacao(int tarefas, int lotes, Set<Long> projetos) {}
+
+    private final ProjetoRepository projetoRepository;
+    private final TarefaRepository tarefaRepository;
+    private final ProjetoService projetoService;
+    private final CronogramaService cronogramaService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final MeterRegistry meterRegistry;
+    private final int tamanhoLote;
+
+    public ImportacaoTarefasService(
+            ProjetoRepository projetoRepository,
+            TarefaRepository tarefaRepository,
+            ProjetoService projetoService,
+            CronogramaService cronogramaService,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${tarefas.importacao.tamanho-lote:1000}") int tamanhoLote
+    ) {
+        this.projetoRepository = projetoRepository;
+        this.tarefaRepository = tarefaRepository;
+        this.projetoService = projetoService;
+        this.cronogramaService = cronogramaService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.meterRegistry = meterRegistry;
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+    }
+
+    // ============================
+    // Importação
+    // ============================
+    public Resultado importar(InputStream corpo) {
+        long inicio = System.nanoTime();
+        String outcome = "error";
+        try {
+            Gravacao gravacao = transactionTemplate.execute(status -> gravar(corpo));
+
+            // Um recálculo por projeto afetado; o grafo em memória não viu as tarefas novas
+            int falhas = 0;
+            for (Long projetoId : gravacao.projetos()) {
+                cronogramaService.invalidar(projetoId);
+                try {
+                    projetoService.recalcularPrazoOtimizado(projetoId);
+                } catch (Exception e) {
+                    // As tarefas já estão gravadas: o recálculo noturno corrige o prazo
+                    log.warn("Falha ao recalcular o prazo do projeto {} após importação: {}", projetoId, e.getMessage());
+                    falhas++;
+                }
+            }
+
+            Resultado resultado = new Resultado(gravacao.tarefas(), gravacao.projetos().size(), gravacao.lotes(),
+                    falhas, (System.nanoTime() - inicio) / 1_000_000);
+            outcome = "success";
+
+            log.info("Importação de tarefas: {} tarefas em {} projetos, {} lotes, {} falhas de recálculo, {} ms",
+                    resultado.tarefas(), resultado.projetos(), resultado.lotes(), resultado.falhasRecalculo(),
+                    resultado.duracaoMs());
+            DistributionSummary.builder("tarefas.importacao.tarefas").register(meterRegistry).record(resultado.tarefas());
+            return resultado;
+        } finally {
+            Timer.builder("tarefas.importacao")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - inicio));
+        }
+    }
+
+    private Gravacao gravar(InputStream corpo) {
+        // Só nesta sessão: os inserts pendentes vão ao banco em batches do tamanho do lote
+        entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoLote);
+
+        Set<Long> projetos = new TreeSet<>();
+        // Ids das tarefas de cada projeto, carregados só quando algum item tem dependências
+        Map<Long, Set<Long>> tarefasDoProjeto = new HashMap<>();
+        // Tarefas já lidas; erros apontam o item seguinte (tarefas + 1), o que estava sendo lido
+        int tarefas = 0;
+        int lotes = 0;
+
+        try (JsonParser parser = jsonFactory.createParser(corpo)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw invalido(tarefas + 1, "esperado um objeto JSON");
+                }
+                TarefaImportada dados = objectMapper.readValue(parser, TarefaImportada.class);
+                entityManager.persist(nova(dados, tarefas + 1, projetos, tarefasDoProjeto));
+                tarefas++;
+
+                if (tarefas % tamanhoLote == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    lotes++;
+                }
+                token = parser.nextToken();
+            }
+            if (array && token == null) {
+                throw invalido(tarefas + 1, "array JSON não terminado");
+            }
+        } catch (JsonProcessingException e) {
+            JsonLocation local = e.getLocation();
+            String onde = local != null ? " (linha " + local.getLineNr() + ", coluna " + local.getColumnNr() + ")" : "";
+            throw invalido(tarefas + 1, "JSON inválido" + onde + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Falha ao ler o corpo da importação: " + e.getMessage());
+        }
+
+        if (tarefas % tamanhoLote != 0) {
+            entityManager.flush();
+            entityManager.clear();
+            lotes++;
+        }
+        return new Gravacao(tarefas, lotes, projetos);
+    }
+
+    private Tarefa nova(TarefaImportada dados, int item, Set<Long> projetos, Map<Long, Set<Long>> tarefasDoProjeto) {
+        Long projetoId = dados.projetoId();
+        if (projetoId == null) {
+            throw invalido(item, "projetoId é obrigatório");
+        }
+        if (!projetos.contains(projetoId)) {
+            if (!projetoRepository.existsById(projetoId)) {
+                throw invalido(item, "projeto " + projetoId + " não encontrado");
+            }
+            projetos.add(projetoId);
+        }
+
+        Tarefa tarefa = new Tarefa();
+        tarefa.setNome(dados.nome());
+        tarefa.setDuracaoDias(dados.duracaoDias());
+        tarefa.setGargalo(dados.gargalo());
+        tarefa.setConcluida(dados.concluida());
+        tarefa.setProjeto(entityManager.getReference(Projeto.class, projetoId));
+
+        // Só tarefas já gravadas no projeto: nenhuma delas depende da nova, então não há como formar ciclo
+        if (dados.dependencias() != null && !dados.dependencias().isEmpty()) {
+            Set<Long> existentes = tarefasDoProjeto.computeIfAbsent(projetoId,
+                    id -> new HashSet<>(tarefaRepository.findIdsByProjetoId(id)));
+            for (Long dependencia : dados.dependencias()) {
+                if (!existentes.contains(dependencia)) {
+                    throw invalido(item, "dependência " + dependencia + " não é tarefa do projeto " + projetoId);
+                }
+            }
+            tarefa.setDependencias(new HashSet<>(dados.dependencias()));
+        }
+        return tarefa;
+    }
+
+    private static ResponseStatusException invalido(int item, String motivo) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item " + item + ": " + motivo);
+    }
+}
@@ -1,35 +1,33 @@
 package com.example.demo.Service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.Base64;
 
 @Service
+@Slf4j
 public class JiraAuthService {
 
-    private static final Logger log = LoggerFactory.getLogger(JiraAuthService.class);
+    private static final String MYSELF_PATH = "/rest/api/3/myself";
+
+    // Cliente compartilhado (mesmo pool de conexões e base URL do JiraClient)
+    private final WebClient jiraWebClient;
+
+    public JiraAuthService(WebClient jiraWebClient) {
+        this.jiraWebClient = jiraWebClient;
+    }
 
     /**
      * Testa se email + token estão corretos chamando o /myself do Jira.
      */
     public boolean testCredentials(String email, String apiToken) {
-
-        String basicAuth = Base64.getEncoder()
-                .encodeToString((email + ":" + apiToken).getBytes());
-
-        WebClient client = WebClient.builder()
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Basic " + basicAuth)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
-
         try {
-            client.get()
-                    .uri("https://cesar-team-tg0m2r5x.atlassian.net/rest/api/3/myself")
+            jiraWebClient.get()
+                    .uri(MYSELF_PATH)
+                    .header(HttpHeaders.AUTHORIZATION, basicAuth(email, apiToken))
                     .retrieve()
                     .bodyToMono(String.class)
                     .block();
@@ -44,14 +42,16 @@ public class JiraAuthService {
 
     /**
      * Retorna um WebClient autenticado para chamadas futuras.
+     * O mutate() reaproveita o conector compartilhado, sem abrir um novo pool.
      */
     public WebClient authenticatedClient(String email, String apiToken) {
-        String basicAuth = Base64.getEncoder()
-                .encodeToString((email + ":" + apiToken).getBytes());
-
-        return WebClient.builder()
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Basic " + basicAuth)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        return jiraWebClient.mutate()
+                .defaultHeader(HttpHeaders.AUTHORIZATION, basicAuth(email, apiToken))
                 .build();
     }
-}
\ No newline at end of file
+
+    private static String basicAuth(String email, String apiToken) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((email + ":" + apiToken).getBytes());
+    }
+}
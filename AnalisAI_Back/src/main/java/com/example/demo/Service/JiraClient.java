@@ -1,18 +1,32 @@
 package com.example.demo.Service;
 
 import com.example.demo.DTO.IssueSummary;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.DTO.JiraSearchJqlRequest;
+import com.example.demo.DTO.JiraSearchJqlResponse;
+import com.example.demo.DTO.JiraSummaryPage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service
+@Slf4j
 public class JiraClient {
 
     // ============================
@@ -22,44 +36,66 @@ public class JiraClient {
     private static final String PROJECT_SEARCH_PATH = "/rest/api/3/project/search";
     private static final String MYSELF_PATH = "/rest/api/3/myself";
 
-    private final WebClient.Builder webClientBuilder;
-    private final String apiBaseUrl;
+    // Campos pedidos ao /search/jql (exatamente os usados em IssueSummary)
+    private static final List<String> SEARCH_FIELDS = List.of(
+            "key",
+            "summary",
+            "status",
+            "assignee",
+            "updated",
+            "created",
+            "project",
+            "issuetype",
+            "duedate"
+    );
+
+    // Formato de data do Jira (ex: 2025-10-24T11:21:43.226-0300) e de data em JQL
+    private static final DateTimeFormatter JIRA_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final DateTimeFormatter JQL_DATE_TIME = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm").withZone(ZoneOffset.UTC);
+
+    private final WebClient webClient;
+    private final JiraRequestGovernor governor;
+    private final JiraIssueStreamExtractor extractor;
     private final String defaultJql;
     private final int pageSize;
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final String encodedToken;
+    private final int partitionSlices;
+    private final int partitionParallelism;
 
     // ============================
     // Construtor
     // ============================
     public JiraClient(
-            @Value("${jira.base-url}") String apiBaseUrl,
+            WebClient jiraWebClient,
+            JiraRequestGovernor governor,
+            JiraIssueStreamExtractor extractor,
             @Value("${jira.username}") String username,
             @Value("${jira.api-token}") String apiToken,
             @Value("${jira.jql:ORDER BY updated DESC}") String defaultJql,
-            @Value("${jira.page-size:50}") Integer pageSize
+            @Value("${jira.page-size:50}") Integer pageSize,
+            @Value("${jira.partition.slices:8}") int partitionSlices,
+            @Value("${jira.partition.parallelism:4}") int partitionParallelism
     ) {
-        this.apiBaseUrl = apiBaseUrl;
         this.defaultJql = (defaultJql == null || defaultJql.isBlank()) ? "project = AP ORDER BY updated DESC" : defaultJql;
         this.pageSize = (pageSize != null ? pageSize : 50);
+        this.governor = governor;
+        this.extractor = extractor;
+        this.partitionSlices = Math.max(1, partitionSlices);
+        this.partitionParallelism = Math.max(1, partitionParallelism);
 
-        this.encodedToken = encodeToken(username, apiToken);
+        log.info("✅ JiraClient inicializado.");
 
-        System.out.println("✅ JiraClient inicializado.");
-        System.out.println("🌐 Base URL Jira API: " + this.apiBaseUrl);
-
-        this.webClientBuilder = WebClient.builder()
-                .baseUrl(apiBaseUrl)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        // Criado uma única vez: mutate() reaproveita o conector (e o pool) do jiraWebClient compartilhado
+        this.webClient = jiraWebClient.mutate()
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Basic " + encodeToken(username, apiToken))
                 .filter(ExchangeFilterFunction.ofRequestProcessor(req -> {
-                    System.out.println("➡️ [REQUEST] " + req.method() + " " + req.url());
+                    log.debug("➡️ [REQUEST] {} {}", req.method(), req.url());
                     return Mono.just(req);
                 }))
                 .filter(ExchangeFilterFunction.ofResponseProcessor(resp -> {
-                    System.out.println("⬅️ [RESPONSE] HTTP " + resp.statusCode());
+                    log.debug("⬅️ [RESPONSE] HTTP {}", resp.statusCode());
                     return Mono.just(resp);
-                }));
+                }))
+                .build();
     }
 
     // ============================
@@ -70,25 +106,16 @@ public class JiraClient {
         return Base64.getEncoder().encodeToString(raw.getBytes());
     }
 
-    // ============================
-    // WebClient com Basic Auth
-    // ============================
-    private WebClient webClientWithBasicAuth() {
-        return webClientBuilder
-                .clone()
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Basic " + encodedToken)
-                .build();
-    }
-
     // ============================
     // Teste de autenticação /myself
     // ============================
     public String pingMe() {
-        System.out.println("🔍 Testando conexão com Jira Cloud via /myself ...");
-        return webClientWithBasicAuth().get()
-                .uri(MYSELF_PATH)
-                .retrieve()
-                .bodyToMono(String.class)
+        log.info("🔍 Testando conexão com Jira Cloud via /myself ...");
+        return governor.execute("myself", () -> webClient.get()
+                        .uri(MYSELF_PATH)
+                        .retrieve()
+                        .onStatus(status -> status.value() >= 400, JiraClient::toJiraError)
+                        .bodyToMono(String.class))
                 .onErrorResume(ex -> Mono.just("{\"error\": \"Erro ao chamar /myself: " + ex.getMessage() + "\"}"))
                 .block();
     }
@@ -97,188 +124,209 @@ public class JiraClient {
     // Lista projetos
     // ============================
     public String listProjectsRaw() {
-        System.out.println("📂 Listando projetos...");
-        return webClientWithBasicAuth().get()
-                .uri(PROJECT_SEARCH_PATH)
-                .retrieve()
-                .bodyToMono(String.class)
+        log.info("📂 Listando projetos...");
+        return governor.execute("project/search", () -> webClient.get()
+                        .uri(PROJECT_SEARCH_PATH)
+                        .retrieve()
+                        .onStatus(status -> status.value() >= 400, JiraClient::toJiraError)
+                        .bodyToMono(String.class))
                 .onErrorResume(ex -> Mono.just("{\"error\": \"Erro ao listar projetos: " + ex.getMessage() + "\"}"))
                 .block();
     }
 
     // ============================
-    // Busca paginada /search/jql (retorna JSON como String)
+    // JQL padrão com filtro adicional (antes do ORDER BY)
     // ============================
-    public String searchPageRaw(String nextPageToken) {
-        try {
-            Map<String, Object> body = new LinkedHashMap<>();
-            body.put("jql", defaultJql);
-            body.put("maxResults", pageSize);
-            body.put("fields", List.of(
-                    "key",
-                    "summary",
-                    "status",
-                    "assignee",
-                    "updated",
-                    "created",
-                    "project",
-                    "issuetype",
-                    "duedate"
-            ));
-            if (nextPageToken != null && !nextPageToken.isBlank()) {
-                body.put("nextPageToken", nextPageToken);
-            }
-
-            String jsonLogBody = mapper.writeValueAsString(body);
-            System.out.println("📤 Enviando requisição para " + SEARCH_JQL_PATH +
-                    " → nextPageToken=" + nextPageToken);
-            System.out.println("📦 Corpo enviado: " + jsonLogBody);
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = webClientWithBasicAuth().post()
-                    .uri(SEARCH_JQL_PATH)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(body)
-                    .retrieve()
-                    .onStatus(
-                            status -> status.value() >= 400,
-                            resp -> resp.bodyToMono(String.class)
-                                    .flatMap(msg -> {
-                                        System.err.println("❌ Erro Jira HTTP " + resp.statusCode().value()
-                                                + ": " + msg);
-                                        return Mono.error(new RuntimeException(
-                                                "Erro Jira HTTP " + resp.statusCode().value() + ": " + msg));
-                                    })
-                    )
-                    .bodyToMono(Map.class)
-                    .block();
-
-            if (response == null) return "{\"error\": \"Resposta vazia da API do Jira\"}";
-
-            Boolean isLast = (Boolean) response.getOrDefault("isLast", Boolean.TRUE);
-            String newNextPageToken = (String) response.get("nextPageToken");
-
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> issues =
-                    (List<Map<String, Object>>) response.getOrDefault("issues", Collections.emptyList());
-
-            boolean hasNext = !Boolean.TRUE.equals(isLast) && newNextPageToken != null;
+    public String getDefaultJql() {
+        return defaultJql;
+    }
 
-            Map<String, Object> paginated = new LinkedHashMap<>();
-            paginated.put("issues", issues);
-            paginated.put("hasNext", hasNext);
-            paginated.put("nextPageToken", newNextPageToken);
-            paginated.put("issuesCount", issues.size());
-            paginated.put("isLast", isLast);
+    public String withJqlFilter(String clause) {
+        String filtered = jqlWhere().isBlank() ? clause : "(" + jqlWhere() + ") AND " + clause;
+        return filtered + jqlOrderBy();
+    }
 
-            return mapper.writeValueAsString(paginated);
+    private String jqlWhere() {
+        int orderIdx = defaultJql.toUpperCase(Locale.ROOT).lastIndexOf("ORDER BY");
+        return (orderIdx >= 0 ? defaultJql.substring(0, orderIdx) : defaultJql).trim();
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erro ao buscar issues no Jira: " + e.getMessage());
-            return "{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}";
-        }
+    private String jqlOrderBy() {
+        int orderIdx = defaultJql.toUpperCase(Locale.ROOT).lastIndexOf("ORDER BY");
+        return orderIdx >= 0 ? " " + defaultJql.substring(orderIdx).trim() : "";
     }
 
     // ============================
-    // Retorna issues paginadas como Map (para controller /issues/raw)
+    // Busca paginada /search/jql (extração em streaming direto para IssueSummary)
     // ============================
-    public Map<String, Object> fetchAllPagesAsMap(String nextPageToken) {
-        try {
-            String jsonResponse = searchPageRaw(nextPageToken);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> responseMap = mapper.readValue(jsonResponse, Map.class);
+    // Retentativas do governador repetem apenas esta página (mesmo nextPageToken)
+    public Mono<JiraSummaryPage> searchPage(String jql, String nextPageToken) {
+        return governor.execute("search/jql", () -> {
+            log.debug("📤 Enviando requisição para {} → nextPageToken={}", SEARCH_JQL_PATH, nextPageToken);
 
-            if (responseMap.containsKey("error")) {
-                System.err.println("❌ Erro retornado na paginação: " + responseMap.get("error"));
-                return null;
-            }
-
-            return responseMap;
-        } catch (Exception e) {
-            System.err.println("❌ Erro ao converter JSON para Map: " + e.getMessage());
-            return null;
-        }
+            return webClient.post()
+                    .uri(SEARCH_JQL_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(searchBody(jql, nextPageToken))
+                    .retrieve()
+                    .onStatus(status -> status.value() >= 400, JiraClient::toJiraError)
+                    .bodyToMono(byte[].class)
+                    .map(this::extractPage);
+        });
     }
 
     // ============================
-    // Busca todas as issues e converte para IssueSummary
+    // Stream de IssueSummary: cada página é emitida assim que chega
     // ============================
-    public List<IssueSummary> fetchAllAsSummaries() {
-        List<IssueSummary> summaries = new ArrayList<>();
-        String nextPageToken = null;
-
-        try {
-            boolean hasNext;
-            do {
-                String jsonResponse = searchPageRaw(nextPageToken);
+    public Flux<IssueSummary> streamSummaries() {
+        return streamSummaries(defaultJql);
+    }
 
-                @SuppressWarnings("unchecked")
-                Map<String, Object> page = mapper.readValue(jsonResponse, Map.class);
+    public Flux<IssueSummary> streamSummaries(String jql) {
+        return streamPages(jql).concatMapIterable(JiraSummaryPage::issues);
+    }
 
-                if (page.containsKey("error")) {
-                    System.err.println("❌ Erro retornado na paginação: " + page.get("error"));
-                    break;
-                }
+    // As páginas em si (quem sincroniza conta as páginas de cada sincronização)
+    public Flux<JiraSummaryPage> streamPages(String jql) {
+        return searchPage(jql, null)
+                .expand(page -> page.hasNext() ? searchPage(jql, page.nextPageToken()) : Mono.empty());
+    }
 
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> issues =
-                        (List<Map<String, Object>>) page.getOrDefault("issues", Collections.emptyList());
+    // ============================
+    // Busca particionada: fatias disjuntas por "created", percorridas em paralelo
+    // ============================
+    // Páginas de todas as fatias, na ordem em que chegam (a mesma issue pode vir em duas fatias;
+    // o espelho grava por chave, então a repetição não duplica nada)
+    public Flux<JiraSummaryPage> streamPagesPartitioned() {
+        if (partitionSlices == 1) {
+            return streamPages(defaultJql);
+        }
 
-                for (Map<String, Object> issue : issues) {
-                    summaries.add(convertToSummary(issue));
-                }
+        return earliestCreated()
+                .flatMapMany(from -> {
+                    List<String> slices = partitionJql(from, Instant.now(), partitionSlices);
+                    log.info("🧩 Busca particionada: {} fatias, paralelismo {}", slices.size(), partitionParallelism);
 
-                hasNext = Boolean.TRUE.equals(page.get("hasNext"));
-                nextPageToken = (String) page.get("nextPageToken");
+                    return Flux.fromIterable(slices)
+                            .flatMap(this::streamPages, partitionParallelism);
+                })
+                // Sem data de criação (projeto vazio ou formato inesperado): cai na busca sequencial
+                .switchIfEmpty(Flux.defer(() -> streamPages(defaultJql)));
+    }
 
-                System.out.println("✅ Fetched " + summaries.size() + " issues até agora...");
-            } while (hasNext);
+    /**
+     * Divide o JQL padrão em fatias contíguas e disjuntas de "created" entre {@code from} e {@code to}.
+     * A primeira fatia não tem limite inferior e a última não tem limite superior, então a união
+     * cobre todo o JQL independentemente do fuso horário com que o Jira interpreta as datas.
+     */
+    public List<String> partitionJql(Instant from, Instant to, int slices) {
+        // Limites internos com precisão de minuto (a precisão do JQL), sem repetição
+        TreeSet<String> boundaries = new TreeSet<>();
+        long span = Math.max(0, Duration.between(from, to).toMillis());
+        for (int i = 1; i < slices; i++) {
+            Instant boundary = from.plusMillis(span * i / slices);
+            boundaries.add(JQL_DATE_TIME.format(boundary));
+        }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erro ao buscar summaries: " + e.getMessage());
+        List<String> jqls = new ArrayList<>();
+        String lower = null;
+        for (String upper : boundaries) {
+            jqls.add(withJqlFilter(lower == null
+                    ? "created < \"" + upper + "\""
+                    : "created >= \"" + lower + "\" AND created < \"" + upper + "\""));
+            lower = upper;
         }
+        jqls.add(lower == null ? defaultJql : withJqlFilter("created >= \"" + lower + "\""));
+        return jqls;
+    }
 
-        return summaries;
+    // Data de criação da issue mais antiga do JQL padrão
+    private Mono<Instant> earliestCreated() {
+        String jql = (jqlWhere().isBlank() ? "" : jqlWhere() + " ") + "ORDER BY created ASC";
+
+        return governor.execute("search/jql", () -> webClient.post()
+                        .uri(SEARCH_JQL_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new JiraSearchJqlRequest(jql, 1, List.of("created"), null))
+                        .retrieve()
+                        .onStatus(status -> status.value() >= 400, JiraClient::toJiraError)
+                        .bodyToMono(JiraSearchJqlResponse.class))
+                .flatMap(page -> {
+                    if (page.issues() == null || page.issues().isEmpty()
+                            || page.issues().get(0).fields() == null
+                            || page.issues().get(0).fields().created() == null) {
+                        return Mono.empty();
+                    }
+                    try {
+                        String created = page.issues().get(0).fields().created();
+                        return Mono.just(OffsetDateTime.parse(created, JIRA_DATE_TIME).toInstant());
+                    } catch (DateTimeParseException e) {
+                        log.warn("⚠️ Data de criação inesperada: {}", e.getMessage());
+                        return Mono.empty();
+                    }
+                });
     }
 
     // ============================
-    // Conversão Map → IssueSummary
+    // Página /search/jql como Map (para controller /issues/raw)
     // ============================
-    @SuppressWarnings("unchecked")
-    private IssueSummary convertToSummary(Map<String, Object> issueMap) {
+    public Map<String, Object> fetchAllPagesAsMap(String nextPageToken) {
         try {
-            String key = (String) issueMap.get("key");
-            Map<String, Object> fields = (Map<String, Object>) issueMap.get("fields");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> response = governor.execute("search/jql", () -> webClient.post()
+                            .uri(SEARCH_JQL_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(searchBody(defaultJql, nextPageToken))
+                            .retrieve()
+                            .onStatus(status -> status.value() >= 400, JiraClient::toJiraError)
+                            .bodyToMono(Map.class))
+                    .block();
 
-            if (fields == null) {
-                return new IssueSummary(key != null ? key : "?",
-                        "Sem fields na resposta", null, null, null, null, null, null, null);
+            if (response == null) {
+                log.error("❌ Resposta vazia da API do Jira");
+                return null;
             }
 
-            String summary = (String) fields.getOrDefault("summary", "");
-
-            Map<String, Object> statusObj = (Map<String, Object>) fields.get("status");
-            String status = statusObj != null ? (String) statusObj.get("name") : null;
-
-            Map<String, Object> assigneeObj = (Map<String, Object>) fields.get("assignee");
-            String assignee = assigneeObj != null ? (String) assigneeObj.get("displayName") : null;
+            Boolean isLast = (Boolean) response.getOrDefault("isLast", Boolean.TRUE);
+            String newNextPageToken = (String) response.get("nextPageToken");
 
-            String updated = (String) fields.get("updated");
-            String created = (String) fields.get("created");
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> issues =
+                    (List<Map<String, Object>>) response.getOrDefault("issues", Collections.emptyList());
 
-            Map<String, Object> projectObj = (Map<String, Object>) fields.get("project");
-            String project = projectObj != null ? (String) projectObj.get("name") : null;
+            boolean hasNext = !Boolean.TRUE.equals(isLast) && newNextPageToken != null;
 
-            Map<String, Object> issueTypeObj = (Map<String, Object>) fields.get("issuetype");
-            String issueType = issueTypeObj != null ? (String) issueTypeObj.get("name") : null;
+            Map<String, Object> paginated = new LinkedHashMap<>();
+            paginated.put("issues", issues);
+            paginated.put("hasNext", hasNext);
+            paginated.put("nextPageToken", newNextPageToken);
+            paginated.put("issuesCount", issues.size());
+            paginated.put("isLast", isLast);
+            return paginated;
 
-            String duedate = fields.get("duedate") != null ? (String) fields.get("duedate") : null;
+        } catch (Exception e) {
+            log.error("❌ Erro ao buscar issues no Jira: {}", e.getMessage());
+            return null;
+        }
+    }
 
-            return new IssueSummary(key, summary, status, assignee, project, issueType, created, updated, duedate);
+    private JiraSearchJqlRequest searchBody(String jql, String nextPageToken) {
+        String token = (nextPageToken != null && !nextPageToken.isBlank()) ? nextPageToken : null;
+        return new JiraSearchJqlRequest(jql, pageSize, SEARCH_FIELDS, token);
+    }
 
-        } catch (Exception e) {
-            System.err.println("⚠️ Erro ao converter issue: " + e.getMessage());
-            return new IssueSummary("?", "Erro ao converter", null, null, null, null, null, null, null);
+    private JiraSummaryPage extractPage(byte[] body) {
+        try {
+            return extractor.extractPage(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Resposta inválida do " + SEARCH_JQL_PATH, e);
         }
     }
-}
\ No newline at end of file
+
+    // Mantém status e headers (Retry-After) na exceção para o governador decidir a retentativa
+    private static Mono<? extends Throwable> toJiraError(ClientResponse resp) {
+        return resp.createException()
+                .doOnNext(ex -> log.warn("❌ Erro Jira HTTP {}: {}", resp.statusCode().value(),
+                        ex.getResponseBodyAsString()));
+    }
+}
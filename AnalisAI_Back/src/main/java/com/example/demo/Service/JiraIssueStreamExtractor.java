@@ -0,0 +1,156 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.DTO.JiraSummaryPage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extrai IssueSummary de uma página do /search/jql lendo tokens com {@link JsonParser}.
+ *
+ * Só os 9 campos usados (key, summary, status.name, assignee.displayName, project.name,
+ * issuetype.name, created, updated, duedate) são lidos; o resto de cada issue (self, avatarUrls,
+ * statusCategory...) é pulado com skipChildren() sem criar Map, JsonNode ou DTO intermediário.
+ */
+@Component
+public class JiraIssueStreamExtractor {
+
+    private final JsonFactory jsonFactory;
+
+    public JiraIssueStreamExtractor(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // ============================
+    // Página { "issues": [...], "nextPageToken": "...", "isLast": bool }
+    // ============================
+    public JiraSummaryPage extractPage(byte[] content) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(content)) {
+            return readPage(parser);
+        }
+    }
+
+    private JiraSummaryPage readPage(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Página do Jira não é um objeto JSON");
+        }
+
+        List<IssueSummary> issues = new ArrayList<>();
+        String nextPageToken = null;
+        Boolean isLast = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "issues" -> readIssues(parser, issues);
+                case "nextPageToken" -> nextPageToken = parser.getValueAsString();
+                case "isLast" -> isLast = value == JsonToken.VALUE_NULL ? null : parser.getValueAsBoolean();
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new JiraSummaryPage(issues, nextPageToken, isLast);
+    }
+
+    // ============================
+    // Array de issues
+    // ============================
+    private void readIssues(JsonParser parser, List<IssueSummary> out) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        // Elementos que não são objeto (null, número...) são pulados; o array é lido até o fim
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "Array de issues não terminado");
+            }
+            if (token == JsonToken.START_OBJECT) {
+                out.add(readIssue(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private IssueSummary readIssue(JsonParser parser) throws IOException {
+        String key = null;
+        String summary = null;
+        String status = null;
+        String assignee = null;
+        String project = null;
+        String issuetype = null;
+        String created = null;
+        String updated = null;
+        String duedate = null;
+        boolean hasFields = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+
+            if ("key".equals(field)) {
+                key = parser.getValueAsString();
+            } else if ("fields".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                hasFields = true;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+
+                    switch (name) {
+                        case "summary" -> summary = parser.getValueAsString();
+                        case "status" -> status = nestedText(parser, "name");
+                        case "assignee" -> assignee = nestedText(parser, "displayName");
+                        case "project" -> project = nestedText(parser, "name");
+                        case "issuetype" -> issuetype = nestedText(parser, "name");
+                        case "created" -> created = parser.getValueAsString();
+                        case "updated" -> updated = parser.getValueAsString();
+                        case "duedate" -> duedate = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (!hasFields) {
+            return new IssueSummary(key != null ? key : "?",
+                    "Sem fields na resposta", null, null, null, null, null, null, null);
+        }
+
+        return new IssueSummary(key, summary, status, assignee, project, issuetype, created, updated, duedate);
+    }
+
+    // Lê um único campo texto de um objeto aninhado (ex: status.name) e pula o restante
+    private String nestedText(JsonParser parser, String wanted) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            if (wanted.equals(name)) {
+                value = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+}
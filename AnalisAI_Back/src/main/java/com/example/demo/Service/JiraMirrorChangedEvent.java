@@ -0,0 +1,11 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.IssueSummary;
+
+import java.util.List;
+
+/**
+ * Publicado pelo {@link JiraMirrorService} a cada lote gravado ou removido do espelho,
+ * para que consumidores mantenham seus agregados sem reler a tabela inteira.
+ */
+public record JiraMirrorChangedEvent(List<IssueSummary> upserted, List<String> removed) {}
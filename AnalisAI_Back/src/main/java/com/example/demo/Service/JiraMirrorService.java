@@ -0,0 +1,199 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.DTO.JiraSummaryPage;
+import com.example.demo.Model.JiraIssueMirror;
+import com.example.demo.Model.JiraSyncState;
+import com.example.demo.Repository.JiraIssueMirrorRepository;
+import com.example.demo.Repository.JiraSyncStateRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantém o espelho local das issues do Jira (tabela jira_issue_mirror).
+ *
+ * A leitura ({@link #listIssues()}) é servida do banco. A sincronização incremental pede ao Jira
+ * apenas "updated >= marca d'água", de modo que o custo depende do volume de mudanças e não do
+ * tamanho do projeto. Uma sincronização completa periódica remove issues apagadas no Jira.
+ */
+@Service
+@Slf4j
+public class JiraMirrorService {
+
+    private static final String STATE_ID = "default";
+    private static final int STORE_BATCH_SIZE = 500;
+
+    private final JiraClient jiraClient;
+    private final JiraIssueMirrorRepository mirrorRepository;
+    private final JiraSyncStateRepository stateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Duration overlap;
+    private final Duration fullResyncInterval;
+
+    // Evita duas sincronizações simultâneas (agendador + carga a frio, por exemplo)
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    public JiraMirrorService(
+            JiraClient jiraClient,
+            JiraIssueMirrorRepository mirrorRepository,
+            JiraSyncStateRepository stateRepository,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${jira.mirror.overlap-minutes:5}") long overlapMinutes,
+            @Value("${jira.mirror.full-resync-hours:24}") long fullResyncHours
+    ) {
+        this.jiraClient = jiraClient;
+        this.mirrorRepository = mirrorRepository;
+        this.stateRepository = stateRepository;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.overlap = Duration.ofMinutes(overlapMinutes);
+        this.fullResyncInterval = Duration.ofHours(fullResyncHours);
+    }
+
+    // ============================
+    // Leitura (servida do espelho)
+    // ============================
+    public List<IssueSummary> listIssues() {
+        if (!stateRepository.existsById(STATE_ID)) {
+            // Carga a frio: o espelho ainda não foi populado
+            try {
+                sync();
+            } catch (Exception e) {
+                log.error("Falha na carga inicial do espelho do Jira: {}", e.getMessage());
+            }
+        }
+
+        return mirrorRepository.findAllByOrderByUpdatedDesc().stream()
+                .map(JiraIssueMirror::toSummary)
+                .toList();
+    }
+
+    // ============================
+    // Sincronização (incremental ou completa)
+    // ============================
+    public int sync() {
+        return sync(false);
+    }
+
+    public int sync(boolean forceFull) {
+        syncLock.lock();
+        try {
+            Instant inicio = Instant.now();
+            JiraSyncState state = stateRepository.findById(STATE_ID).orElse(null);
+
+            boolean full = forceFull
+                    || state == null
+                    || state.getUltimaSincronizacao() == null
+                    || state.getUltimaSincronizacaoCompleta() == null
+                    || state.getUltimaSincronizacaoCompleta().isBefore(inicio.minus(fullResyncInterval));
+
+            if (state == null) {
+                state = new JiraSyncState();
+                state.setId(STATE_ID);
+            }
+
+            AtomicInteger paginas = new AtomicInteger();
+            int recebidas;
+            try {
+                recebidas = full ? fullSync(inicio, paginas) : deltaSync(state.getUltimaSincronizacao(), inicio, paginas);
+            } catch (RuntimeException e) {
+                registrarMetricas(full, "error", inicio, paginas.get(), 0);
+                throw e;
+            }
+            registrarMetricas(full, "success", inicio, paginas.get(), recebidas);
+
+            state.setUltimaSincronizacao(inicio);
+            if (full) {
+                state.setUltimaSincronizacaoCompleta(inicio);
+            }
+            state.setIssuesRecebidas(recebidas);
+            stateRepository.save(state);
+
+            log.info("Espelho do Jira sincronizado ({}): {} issues recebidas em {} ms",
+                    full ? "completa" : "incremental", recebidas,
+                    Duration.between(inicio, Instant.now()).toMillis());
+
+            eventPublisher.publishEvent(new JiraMirrorSyncedEvent(recebidas, full));
+            return recebidas;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // jira.sync (duração), jira.sync.pages e jira.sync.issues por sincronização, separados por tipo
+    private void registrarMetricas(boolean full, String outcome, Instant inicio, int paginas, int issues) {
+        String tipo = full ? "completa" : "incremental";
+        Timer.builder("jira.sync")
+                .tag("tipo", tipo)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.between(inicio, Instant.now()));
+        if ("success".equals(outcome)) {
+            DistributionSummary.builder("jira.sync.pages").tag("tipo", tipo).register(meterRegistry).record(paginas);
+            DistributionSummary.builder("jira.sync.issues").tag("tipo", tipo).register(meterRegistry).record(issues);
+        }
+    }
+
+    private int deltaSync(Instant watermark, Instant inicio, AtomicInteger paginas) {
+        // JQL relativo ("-Nm") evita depender do fuso horário configurado no perfil do Jira
+        long minutes = Duration.between(watermark, inicio).plus(overlap).toMinutes() + 1;
+        String jql = jiraClient.withJqlFilter("updated >= -" + minutes + "m");
+
+        return store(jiraClient.streamPages(jql), inicio, new HashSet<>(), paginas);
+    }
+
+    private int fullSync(Instant inicio, AtomicInteger paginas) {
+        Set<String> remoteKeys = new HashSet<>();
+        int recebidas = store(jiraClient.streamPagesPartitioned(), inicio, remoteKeys, paginas);
+
+        // Remove do espelho as issues que não existem mais no Jira
+
+        List<String> removed = mirrorRepository.findAllKeys().stream()
+                .filter(key -> !remoteKeys.contains(key))
+                .toList();
+
+        if (!removed.isEmpty()) {
+            mirrorRepository.deleteAllByIdInBatch(removed);
+            eventPublisher.publishEvent(new JiraMirrorChangedEvent(List.of(), removed));
+            log.info("{} issues removidas do espelho (não existem mais no Jira)", removed.size());
+        }
+
+        return recebidas;
+    }
+
+    // Grava as issues em lotes conforme as páginas chegam (memória limitada ao lote).
+    // toIterable() mantém o JPA na thread chamadora, fora do event loop do reactor-netty.
+    private int store(Flux<JiraSummaryPage> pages, Instant inicio, Set<String> keys, AtomicInteger paginas) {
+        Flux<IssueSummary> issues = pages
+                .doOnNext(page -> paginas.incrementAndGet())
+                .concatMapIterable(JiraSummaryPage::issues)
+                // Na busca particionada uma issue recriada/movida entre fatias pode vir duas vezes
+                .distinct(IssueSummary::key);
+        int recebidas = 0;
+        for (List<IssueSummary> batch : issues.buffer(STORE_BATCH_SIZE).toIterable()) {
+            mirrorRepository.saveAll(batch.stream()
+                    .map(issue -> JiraIssueMirror.fromSummary(issue, inicio))
+                    .toList());
+            eventPublisher.publishEvent(new JiraMirrorChangedEvent(batch, List.of()));
+            batch.forEach(issue -> keys.add(issue.key()));
+            recebidas += batch.size();
+        }
+        return recebidas;
+    }
+}
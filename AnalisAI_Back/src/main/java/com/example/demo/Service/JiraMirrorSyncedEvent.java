@@ -0,0 +1,6 @@
+package com.example.demo.Service;
+
+/**
+ * Publicado pelo {@link JiraMirrorService} ao final de cada sincronização concluída com sucesso.
+ */
+public record JiraMirrorSyncedEvent(int issuesRecebidas, boolean completa) {}
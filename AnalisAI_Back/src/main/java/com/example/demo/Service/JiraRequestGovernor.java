@@ -0,0 +1,376 @@
+package com.example.demo.Service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Governador compartilhado de todas as chamadas de saída ao Jira.
+ *
+ * <ul>
+ *   <li>Token bucket: limita a taxa de requisições (a taxa cai pela metade a cada 429 e volta aos poucos);</li>
+ *   <li>Concorrência adaptativa (AIMD): o limite sobe enquanto a latência fica abaixo do alvo e cai em 429
+ *       ou latência alta;</li>
+ *   <li>Retentativas com backoff exponencial e jitter, respeitando o header Retry-After
+ *       (que também pausa as demais chamadas até o prazo indicado).</li>
+ * </ul>
+ *
+ * Como cada página do /search/jql passa por aqui com o seu próprio nextPageToken, uma falha
+ * transitória é retentada a partir da página que falhou, sem recomeçar o cursor.
+ *
+ * Métricas: jira.requests (tempo de cada chamada por path, incluindo fila e retentativas) e o estado do
+ * governador (jira.governor.*).
+ */
+@Service
+@Slf4j
+public class JiraRequestGovernor {
+
+    private final MeterRegistry meterRegistry;
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long latencyTargetMs;
+    private final int maxRetries;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration maxRetryAfter;
+
+    // Estado protegido por "this"
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private double concurrencyLimit;
+    private int inFlight;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public JiraRequestGovernor(
+            MeterRegistry meterRegistry,
+            @Value("${jira.governor.rate-per-second:10}") double maxRate,
+            @Value("${jira.governor.min-rate-per-second:1}") double minRate,
+            @Value("${jira.governor.burst:20}") double burst,
+            @Value("${jira.governor.initial-concurrency:4}") int initialConcurrency,
+            @Value("${jira.governor.min-concurrency:1}") int minConcurrency,
+            @Value("${jira.governor.max-concurrency:16}") int maxConcurrency,
+            @Value("${jira.governor.latency-target-ms:1500}") long latencyTargetMs,
+            @Value("${jira.governor.max-retries:5}") int maxRetries,
+            @Value("${jira.governor.base-backoff-ms:500}") long baseBackoffMs,
+            @Value("${jira.governor.max-backoff-ms:30000}") long maxBackoffMs,
+            @Value("${jira.governor.max-retry-after-ms:120000}") long maxRetryAfterMs
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.maxRate = maxRate;
+        this.minRate = Math.min(minRate, maxRate);
+        this.burst = Math.max(1, burst);
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.latencyTargetMs = latencyTargetMs;
+        this.maxRetries = maxRetries;
+        this.baseBackoff = Duration.ofMillis(baseBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.maxRetryAfter = Duration.ofMillis(maxRetryAfterMs);
+
+        this.rate = maxRate;
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.concurrencyLimit = Math.min(this.maxConcurrency, Math.max(this.minConcurrency, initialConcurrency));
+
+        Gauge.builder("jira.governor.concurrency.limit", this, g -> g.estado().limite()).register(meterRegistry);
+        Gauge.builder("jira.governor.in.flight", this, g -> g.estado().inFlight()).register(meterRegistry);
+        Gauge.builder("jira.governor.waiting", this, g -> g.estado().waiting()).register(meterRegistry);
+        Gauge.builder("jira.governor.rate", this, g -> g.estado().rate()).baseUnit("requests/s").register(meterRegistry);
+        FunctionCounter.builder("jira.governor.throttled", throttled, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("jira.governor.retries", retries, AtomicLong::get).register(meterRegistry);
+    }
+
+    private record Estado(double limite, int inFlight, int waiting, double rate) {}
+
+    private synchronized Estado estado() {
+        return new Estado(Math.floor(concurrencyLimit), inFlight, waiters.size(), rate);
+    }
+
+    // ============================
+    // Execução governada (permissão de concorrência + token + retentativas)
+    // ============================
+    public <T> Mono<T> execute(String operation, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long inicio = System.nanoTime();
+            return withRetries(operation, call)
+                    .doOnSuccess(v -> record(operation, "success", inicio))
+                    .doOnError(e -> record(operation, "error", inicio));
+        });
+    }
+
+    private void record(String operation, String outcome, long inicio) {
+        Timer.builder("jira.requests")
+                .description("Chamadas ao Jira, incluindo espera no governador e retentativas")
+                .tag("path", "/" + operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> Mono<T> withRetries(String operation, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> attempt(call))
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    Throwable failure = signal.failure();
+                    if (!isRetryable(failure) || signal.totalRetries() >= maxRetries) {
+                        failures.incrementAndGet();
+                        return Mono.error(failure);
+                    }
+
+                    Duration delay = retryDelay(failure, signal.totalRetries());
+                    retries.incrementAndGet();
+                    log.warn("Jira {}: tentativa {} falhou ({}), nova tentativa em {} ms",
+                            operation, signal.totalRetries() + 1, describe(failure), delay.toMillis());
+                    return Mono.delay(delay);
+                })));
+    }
+
+    private <T> Mono<T> attempt(Supplier<Mono<T>> call) {
+        return Mono.usingWhen(
+                acquirePermit(),
+                permit -> reserveToken().then(Mono.defer(() -> {
+                    requests.incrementAndGet();
+                    permit.startNanos = System.nanoTime();
+                    return call.get();
+                })).doOnSuccess(v -> permit.success())
+                        .doOnError(permit::failure),
+                Permit::release,
+                (permit, error) -> permit.release(),
+                Permit::release
+        );
+    }
+
+    // ============================
+    // Concorrência adaptativa
+    // ============================
+    private Mono<Permit> acquirePermit() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            synchronized (this) {
+                if (inFlight < Math.floor(concurrencyLimit)) {
+                    inFlight++;
+                    waiter.permit = new Permit();
+                } else {
+                    waiters.addLast(waiter);
+                }
+            }
+
+            if (waiter.permit != null) {
+                sink.success(waiter.permit);
+                return;
+            }
+
+            sink.onCancel(() -> {
+                boolean stillWaiting;
+                synchronized (this) {
+                    stillWaiting = waiters.remove(waiter);
+                }
+                // Cancelado depois de receber a permissão: devolve para não vazar
+                if (!stillWaiting && waiter.permit != null) {
+                    waiter.permit.release().subscribe();
+                }
+            });
+        });
+    }
+
+    private void onRelease(Permit permit) {
+        List<Waiter> granted = new ArrayList<>();
+
+        synchronized (this) {
+            inFlight--;
+            adjustConcurrency(permit);
+
+            while (!waiters.isEmpty() && inFlight < Math.floor(concurrencyLimit)) {
+                Waiter next = waiters.pollFirst();
+                inFlight++;
+                next.permit = new Permit();
+                granted.add(next);
+            }
+        }
+
+        granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+    }
+
+    // Chamado com o lock: AIMD sobre o limite de concorrência e a taxa
+    private void adjustConcurrency(Permit permit) {
+        if (permit.rateLimited) {
+            concurrencyLimit = Math.max(minConcurrency, concurrencyLimit / 2);
+            rate = Math.max(minRate, rate / 2);
+            return;
+        }
+
+        if (!permit.succeeded || permit.startNanos == 0) {
+            return;
+        }
+
+        long latencyMs = (System.nanoTime() - permit.startNanos) / 1_000_000;
+        if (latencyMs <= latencyTargetMs) {
+            concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+            rate = Math.min(maxRate, rate + maxRate * 0.02);
+        } else if (latencyMs > 2 * latencyTargetMs) {
+            concurrencyLimit = Math.max(minConcurrency, concurrencyLimit * 0.9);
+        }
+    }
+
+    // ============================
+    // Token bucket (reserva: quem chega primeiro espera menos)
+    // ============================
+    private Mono<Void> reserveToken() {
+        long waitNanos;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * rate);
+            lastRefillNanos = now;
+            tokens -= 1;
+
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / rate * 1e9);
+            waitNanos = Math.max(waitNanos, pausedUntilNanos - now);
+        }
+
+        return waitNanos > 0 ? Mono.delay(Duration.ofNanos(waitNanos)).then() : Mono.empty();
+    }
+
+    // ============================
+    // Política de retentativa
+    // ============================
+    private boolean isRetryable(Throwable failure) {
+        if (failure instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+        return failure instanceof WebClientRequestException || failure instanceof TimeoutException;
+    }
+
+    private Duration retryDelay(Throwable failure, long attempt) {
+        if (failure instanceof WebClientResponseException e) {
+            Duration retryAfter = parseRetryAfter(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            if (retryAfter != null) {
+                Duration delay = retryAfter.compareTo(maxRetryAfter) > 0 ? maxRetryAfter : retryAfter;
+                if (e.getStatusCode().value() == 429) {
+                    // Pausa global: as outras chamadas também esperam o prazo pedido pelo Jira
+                    synchronized (this) {
+                        pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + delay.toNanos());
+                    }
+                }
+                return delay;
+            }
+        }
+
+        // Backoff exponencial com jitter: aleatório entre metade e o total de min(max, base * 2^tentativa)
+        long cap = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(attempt, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap / 2, cap + 1));
+    }
+
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+            // Formato HTTP-date (RFC 1123)
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(date.getZone()), date);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String describe(Throwable failure) {
+        if (failure instanceof WebClientResponseException e) {
+            return "HTTP " + e.getStatusCode().value();
+        }
+        return failure.getClass().getSimpleName();
+    }
+
+    // ============================
+    // Estado atual (diagnóstico)
+    // ============================
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("concurrencyLimit", Math.floor(concurrencyLimit));
+        state.put("inFlight", inFlight);
+        state.put("waiting", waiters.size());
+        state.put("ratePerSecond", rate);
+        state.put("requests", requests.get());
+        state.put("throttled", throttled.get());
+        state.put("retries", retries.get());
+        state.put("failures", failures.get());
+        return state;
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private volatile Permit permit;
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long startNanos;
+        private volatile boolean succeeded;
+        private volatile boolean rateLimited;
+
+        private void success() {
+            succeeded = true;
+        }
+
+        private void failure(Throwable error) {
+            if (error instanceof WebClientResponseException e && e.getStatusCode().value() == 429) {
+                rateLimited = true;
+                throttled.incrementAndGet();
+            }
+        }
+
+        private Mono<Void> release() {
+            return Mono.fromRunnable(() -> {
+                if (released.compareAndSet(false, true)) {
+                    onRelease(this);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.demo.Service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de textos curtos quase iguais (MinHash + LSH sobre trigramas de caracteres).
+ *
+ * O texto é normalizado (minúsculas, sem acentos e pontuação) e quebrado em trigramas. A assinatura
+ * MinHash é dividida em faixas (bands); textos que coincidem em pelo menos uma faixa caem no mesmo
+ * bucket e viram candidatos. Só os candidatos têm a similaridade de Jaccard calculada de verdade,
+ * sobre os trigramas guardados, então a busca não depende do tamanho do índice.
+ *
+ * Com 16 faixas de 4 linhas, pares com Jaccard 0,6 viram candidatos em ~90% dos casos e pares
+ * com 0,85 praticamente sempre; abaixo de 0,3 raramente.
+ *
+ * Cada chave tem no máximo uma entrada: um novo {@link #put} substitui o texto anterior.
+ * Em boards muito repetitivos um bucket pode juntar milhares de entradas; a busca examina no máximo
+ * {@link #MAX_CANDIDATOS} candidatos (os mais recentes de cada bucket vêm primeiro).
+ */
+public class MinHashIndex<T> {
+
+    public record Match<T>(String key, T value, double similaridade) {}
+
+    private static final int EMPTY = -1;
+    static final int MAX_CANDIDATOS = 256;
+
+    private final int bands;
+    private final int rows;
+    private final long[] hashA;
+    private final long[] hashB;
+
+    // Entradas (índice = id interno); key == null marca entrada substituída
+    private String[] keys = new String[1024];
+    private Object[] values = new Object[1024];
+    private int[][] shingles = new int[1024][];
+    private int size;
+    private int alive;
+    private final Map<String, Integer> idPorKey = new HashMap<>();
+
+    // Buckets por faixa, em endereçamento aberto: hash da faixa -> primeira entrada; next encadeia as demais
+    private int[][] bucketHash;
+    private int[][] bucketHead;
+    private int bucketCount;
+    private int[] next;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MinHashIndex() {
+        this(16, 4);
+    }
+
+    public MinHashIndex(int bands, int rows) {
+        this.bands = bands;
+        this.rows = rows;
+
+        // Semente fixa: mesmas funções de hash a cada execução
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        this.hashA = new long[bands * rows];
+        this.hashB = new long[bands * rows];
+        for (int i = 0; i < hashA.length; i++) {
+            hashA[i] = random.nextLong() | 1L;
+            hashB[i] = random.nextLong();
+        }
+
+        this.next = new int[keys.length * bands];
+        allocateBuckets(2048);
+    }
+
+    // ============================
+    // Escrita
+    // ============================
+    public void put(String key, String texto, T value) {
+        int[] sh = shingles(texto);
+        int[] bandHashes = bandHashes(sh);
+
+        lock.writeLock().lock();
+        try {
+            Integer anterior = idPorKey.remove(key);
+            if (anterior != null) {
+                clear(anterior);
+            }
+            if (size - alive > Math.max(alive, 1024)) {
+                compact();
+            }
+
+            int id = size++;
+            ensureCapacity(size);
+            keys[id] = key;
+            values[id] = value;
+            shingles[id] = sh;
+            idPorKey.put(key, id);
+            alive++;
+
+            index(id, bandHashes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return alive;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============================
+    // Busca
+    // ============================
+
+    /**
+     * Entrada mais parecida com o texto, com Jaccard (sobre trigramas) de pelo menos {@code minimo}.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<Match<T>> maisSimilar(String texto, double minimo) {
+        int[] sh = shingles(texto);
+        int[] bandHashes = bandHashes(sh);
+
+        lock.readLock().lock();
+        try {
+            // Conjunto de ids já comparados (endereçamento aberto, no máximo MAX_CANDIDATOS)
+            int[] vistos = new int[MAX_CANDIDATOS * 2];
+            Arrays.fill(vistos, EMPTY);
+            int candidatos = 0;
+            int melhor = EMPTY;
+            double melhorSimilaridade = minimo;
+
+            busca:
+            for (int b = 0; b < bands; b++) {
+                int slot = find(b, bandHashes[b]);
+                if (slot == EMPTY) {
+                    continue;
+                }
+                for (int id = bucketHead[b][slot]; id != EMPTY; id = next[id * bands + b]) {
+                    if (keys[id] == null || !marcar(vistos, id)) {
+                        continue;
+                    }
+                    candidatos++;
+                    double similaridade = jaccard(sh, shingles[id]);
+                    if (similaridade > melhorSimilaridade || (melhor == EMPTY && similaridade >= minimo)) {
+                        melhor = id;
+                        melhorSimilaridade = similaridade;
+                    }
+                    if (melhorSimilaridade == 1.0 || candidatos >= MAX_CANDIDATOS) {
+                        break busca;
+                    }
+                }
+            }
+
+            return melhor == EMPTY
+                    ? Optional.empty()
+                    : Optional.of(new Match<>(keys[melhor], (T) values[melhor], melhorSimilaridade));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Jaccard entre dois textos, com a mesma normalização do índice.
+     */
+    public static double similaridade(String a, String b) {
+        return jaccard(shingles(a), shingles(b));
+    }
+
+    // ============================
+    // Trigramas e assinatura
+    // ============================
+    static int[] shingles(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return new int[0];
+        }
+        if (normalizado.length() < 3) {
+            return new int[]{normalizado.hashCode()};
+        }
+
+        int[] hashes = new int[normalizado.length() - 2];
+        for (int i = 0; i < hashes.length; i++) {
+            long trigram = ((long) normalizado.charAt(i) << 32)
+                    | ((long) normalizado.charAt(i + 1) << 16)
+                    | normalizado.charAt(i + 2);
+            hashes[i] = mix(trigram);
+        }
+
+        // Conjunto ordenado (sem repetidos), usado tanto na assinatura quanto no Jaccard
+        Arrays.sort(hashes);
+        int distintos = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[i - 1]) {
+                hashes[distintos++] = hashes[i];
+            }
+        }
+        return Arrays.copyOf(hashes, distintos);
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcento = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return semAcento.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private int[] bandHashes(int[] sh) {
+        int[] result = new int[bands];
+        for (int b = 0; b < bands; b++) {
+            int h = 1;
+            for (int r = 0; r < rows; r++) {
+                int i = b * rows + r;
+                int min = Integer.MAX_VALUE;
+                for (int s : sh) {
+                    int v = (int) ((hashA[i] * s + hashB[i]) >>> 32);
+                    if (v < min) {
+                        min = v;
+                    }
+                }
+                h = h * 0x9E3779B1 + min;
+            }
+            result[b] = h;
+        }
+        return result;
+    }
+
+    // true se o id ainda não estava no conjunto
+    private static boolean marcar(int[] vistos, int id) {
+        int mask = vistos.length - 1;
+        int slot = mix(id) & mask;
+        while (vistos[slot] != EMPTY) {
+            if (vistos[slot] == id) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        vistos[slot] = id;
+        return true;
+    }
+
+    private static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 1.0;
+        }
+        int i = 0, j = 0, comuns = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                comuns++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) comuns / (a.length + b.length - comuns);
+    }
+
+    private static int mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        return (int) x;
+    }
+
+    // ============================
+    // Buckets
+    // ============================
+
+    private void index(int id, int[] bandHashes) {
+        if ((bucketCount + 1) * 2 > bucketHash[0].length) {
+            allocateBuckets(bucketHash[0].length * 2);
+        }
+        boolean novoBucket = false;
+        for (int b = 0; b < bands; b++) {
+            novoBucket |= link(b, bandHashes[b], id);
+        }
+        if (novoBucket) {
+            bucketCount++;
+        }
+    }
+
+    // Encadeia a entrada no bucket da faixa; true se o bucket foi criado agora
+    private boolean link(int band, int hash, int id) {
+        int[] hashes = bucketHash[band];
+        int[] heads = bucketHead[band];
+        int mask = hashes.length - 1;
+        int slot = mix(hash) & mask;
+        while (heads[slot] != EMPTY && hashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        boolean novo = heads[slot] == EMPTY;
+        hashes[slot] = hash;
+        next[id * bands + band] = heads[slot];
+        heads[slot] = id;
+        return novo;
+    }
+
+    private int find(int band, int hash) {
+        int[] hashes = bucketHash[band];
+        int[] heads = bucketHead[band];
+        int mask = hashes.length - 1;
+        int slot = mix(hash) & mask;
+        while (heads[slot] != EMPTY) {
+            if (hashes[slot] == hash) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    // Capacidade sempre potência de 2; bucketCount é o maior número de buckets ocupados numa faixa
+    private void allocateBuckets(int capacity) {
+        int[][] oldHash = bucketHash;
+        int[][] oldHead = bucketHead;
+
+        bucketHash = new int[bands][capacity];
+        bucketHead = new int[bands][capacity];
+        for (int b = 0; b < bands; b++) {
+            Arrays.fill(bucketHead[b], EMPTY);
+        }
+        if (oldHash == null) {
+            return;
+        }
+
+        int maiorFaixa = 0;
+        for (int b = 0; b < bands; b++) {
+            int ocupados = 0;
+            int mask = capacity - 1;
+            for (int s = 0; s < oldHash[b].length; s++) {
+                if (oldHead[b][s] == EMPTY) {
+                    continue;
+                }
+                int slot = mix(oldHash[b][s]) & mask;
+                while (bucketHead[b][slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                bucketHash[b][slot] = oldHash[b][s];
+                bucketHead[b][slot] = oldHead[b][s];
+                ocupados++;
+            }
+            maiorFaixa = Math.max(maiorFaixa, ocupados);
+        }
+        bucketCount = maiorFaixa;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= keys.length) {
+            return;
+        }
+        int novo = Math.max(capacity, keys.length * 2);
+        keys = Arrays.copyOf(keys, novo);
+        values = Arrays.copyOf(values, novo);
+        shingles = Arrays.copyOf(shingles, novo);
+        next = Arrays.copyOf(next, novo * bands);
+    }
+
+    // Entradas substituídas passaram das vivas: reconstrói os buckets só com as vivas
+    private void compact() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[][] oldShingles = shingles;
+        int oldSize = size;
+
+        keys = new String[oldKeys.length];
+        values = new Object[oldKeys.length];
+        shingles = new int[oldKeys.length][];
+        next = new int[oldKeys.length * bands];
+        size = 0;
+        bucketHash = null;
+        bucketCount = 0;
+        allocateBuckets(2048);
+        idPorKey.clear();
+
+        for (int old = 0; old < oldSize; old++) {
+            if (oldKeys[old] == null) {
+                continue;
+            }
+            int id = size++;
+            keys[id] = oldKeys[old];
+            values[id] = oldValues[old];
+            shingles[id] = oldShingles[old];
+            idPorKey.put(keys[id], id);
+            index(id, bandHashes(shingles[id]));
+        }
+    }
+
+    // A entrada continua nas cadeias dos buckets (até a próxima compactação), mas é ignorada na busca
+    private void clear(int id) {
+        keys[id] = null;
+        values[id] = null;
+        shingles[id] = null;
+        alive--;
+    }
+}
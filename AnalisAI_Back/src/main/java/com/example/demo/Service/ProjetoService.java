@@ -1,13 +1,15 @@
 package com.example.demo.Service;
 
+import com.example.demo.DTO.Pagina;
+import com.example.demo.DTO.ProjetoResumo;
 import com.example.demo.Model.Projeto;
-import com.example.demo.Model.Tarefa;
 import com.example.demo.Repository.ProjetoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProjetoService {
@@ -15,14 +17,18 @@ public class ProjetoService {
     @Autowired
     private ProjetoRepository projetoRepository;
 
+    @Autowired
+    private CronogramaService cronogramaService;
+
     // Criar novo projeto
     public Projeto salvarProjeto(Projeto projeto) {
         return projetoRepository.save(projeto);
     }
 
-    // Listar todos os projetos
-    public List<Projeto> listarProjetos() {
-        return projetoRepository.findAll();
+    // Página de projetos por chave (id > depois), sem as tarefas
+    public Pagina<ProjetoResumo> listarResumos(long depois, int limite) {
+        int tamanho = Pagina.limitar(limite);
+        return Pagina.de(projetoRepository.findResumos(depois, PageRequest.of(0, tamanho + 1)), tamanho, ProjetoResumo::id);
     }
 
     // Buscar projeto pelo ID
@@ -46,35 +52,32 @@ public class ProjetoService {
 
         // Salva antes de recalcular para evitar inconsistências
         projetoRepository.save(existente);
+        cronogramaService.invalidar(id);
 
         // Recalcula automaticamente após atualização
         return recalcularPrazoOtimizado(id);
     }
 
-    // Recalcular o prazo otimizado do projeto com base nas tarefas
+    // Excluir o projeto com as tarefas (cascade) e descartar o grafo dele em memória
+    public void deletarProjeto(Long id) {
+        projetoRepository.delete(buscarPorId(id));
+        cronogramaService.invalidar(id);
+    }
+
+    // Recalcular o prazo otimizado do projeto pelo caminho crítico das tarefas
+    // (tarefas sem dependência entre si correm em paralelo; concluídas não contam mais)
     public Projeto recalcularPrazoOtimizado(Long id) {
         Projeto projeto = buscarPorId(id);
 
-        if (projeto.getTarefas() == null || projeto.getTarefas().isEmpty()) {
-            projeto.setPrazoOtimizado(LocalDate.now());
-            return projetoRepository.save(projeto);
-        }
-
-        // Soma as durações das tarefas
-        int totalDias = projeto.getTarefas().stream()
-                .mapToInt(Tarefa::getDuracaoDias)
-                .sum();
-
-        // Ajuste adicional se houver gargalos
-        boolean temGargalo = projeto.getTarefas().stream().anyMatch(Tarefa::isGargalo);
-        if (temGargalo) {
-            totalDias += 3; // penalidade
-        }
-
-        // Define o novo prazo
-        LocalDate prazo = LocalDate.now().plusDays(totalDias);
+        LocalDate prazo = LocalDate.now().plusDays(cronogramaService.duracaoDias(id));
         projeto.setPrazoOtimizado(prazo);
 
         return projetoRepository.save(projeto);
     }
+
+    // Caminho crítico: duração, cadeia crítica e início mais cedo/mais tarde e folga de cada tarefa
+    public Map<String, Object> caminhoCritico(Long id) {
+        buscarPorId(id);
+        return cronogramaService.resumo(id);
+    }
 }
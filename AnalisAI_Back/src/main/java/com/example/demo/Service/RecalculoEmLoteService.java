@@ -0,0 +1,201 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.ProjetoRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recálculo do prazo otimizado de todos os projetos (agendamento noturno).
+ *
+ * Os projetos são percorridos em páginas de ids (keyset: "id > último da página anterior"), sem
+ * carregar entidades. Para cada página, tarefas e dependências de todos os projetos vêm em duas
+ * consultas por intervalo de id ({@link CronogramaService#duracoesEmLote}) e os prazos são gravados
+ * num único batch JDBC. Com projetos.recalculo.particoes > 1 a faixa de ids é dividida em intervalos
+ * iguais e cada um roda em uma thread própria.
+ */
+@Service
+@Slf4j
+public class RecalculoEmLoteService {
+
+    private static final String UPDATE_PRAZO = "update projeto set prazo_otimizado = ? where id = ?";
+
+    public record Resultado(int projetos, int tarefas, int paginas, int linhasAtualizadas, int falhas,
+                            int particoes, long duracaoMs) {}
+
+    private record Parcial(int projetos, int tarefas, int paginas, int linhas, int falhas) {}
+
+    private final ProjetoRepository projetoRepository;
+    private final CronogramaService cronogramaService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int tamanhoPagina;
+    private final int particoes;
+
+    // Evita duas execuções simultâneas (agendador + chamada manual, por exemplo)
+    private final ReentrantLock execucaoLock = new ReentrantLock();
+    private final AtomicLong execucoes = new AtomicLong();
+    private volatile Resultado ultimo;
+
+    public RecalculoEmLoteService(
+            ProjetoRepository projetoRepository,
+            CronogramaService cronogramaService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${projetos.recalculo.tamanho-pagina:500}") int tamanhoPagina,
+            @Value("${projetos.recalculo.particoes:1}") int particoes
+    ) {
+        this.projetoRepository = projetoRepository;
+        this.cronogramaService = cronogramaService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.tamanhoPagina = Math.max(1, tamanhoPagina);
+        this.particoes = Math.max(1, particoes);
+    }
+
+    // ============================
+    // Execução
+    // ============================
+    public Resultado recalcularTodos() {
+        if (!execucaoLock.tryLock()) {
+            throw new IllegalStateException("Recálculo em lote já em andamento");
+        }
+        long inicio = System.nanoTime();
+        String outcome = "error";
+        try {
+            // Mesma data para a execução inteira, mesmo que ela passe da meia-noite
+            LocalDate hoje = LocalDate.now();
+            long maxId = projetoRepository.findMaxId();
+            List<Parcial> parciais = new ArrayList<>();
+
+            if (particoes == 1) {
+                parciais.add(processarParticao(0, maxId, hoje));
+            } else {
+                try (ExecutorService executor = Executors.newFixedThreadPool(particoes,
+                        Thread.ofPlatform().name("recalculo-", 0).factory())) {
+                    List<Future<Parcial>> futuros = new ArrayList<>();
+                    for (int particao = 0; particao < particoes; particao++) {
+                        long de = maxId * particao / particoes;
+                        long ate = maxId * (particao + 1) / particoes;
+                        futuros.add(executor.submit(() -> processarParticao(de, ate, hoje)));
+                    }
+                    for (Future<Parcial> futuro : futuros) {
+                        parciais.add(futuro.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Recálculo em lote interrompido", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Falha no recálculo em lote: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+
+            Resultado resultado = new Resultado(
+                    parciais.stream().mapToInt(Parcial::projetos).sum(),
+                    parciais.stream().mapToInt(Parcial::tarefas).sum(),
+                    parciais.stream().mapToInt(Parcial::paginas).sum(),
+                    parciais.stream().mapToInt(Parcial::linhas).sum(),
+                    parciais.stream().mapToInt(Parcial::falhas).sum(),
+                    particoes,
+                    (System.nanoTime() - inicio) / 1_000_000);
+            ultimo = resultado;
+            execucoes.incrementAndGet();
+            outcome = "success";
+
+            log.info("Prazos recalculados em lote: {} projetos ({} tarefas) em {} páginas, {} linhas atualizadas, "
+                            + "{} falhas, {} partições, {} ms",
+                    resultado.projetos(), resultado.tarefas(), resultado.paginas(), resultado.linhasAtualizadas(),
+                    resultado.falhas(), resultado.particoes(), resultado.duracaoMs());
+            DistributionSummary.builder("projetos.recalculo.projetos").register(meterRegistry).record(resultado.projetos());
+            return resultado;
+        } finally {
+            Timer.builder("projetos.recalculo")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - inicio));
+            execucaoLock.unlock();
+        }
+    }
+
+    // Projetos com id em (depois, ate]
+    private Parcial processarParticao(long depois, long ate, LocalDate hoje) {
+        int projetos = 0, tarefas = 0, paginas = 0, linhas = 0, falhas = 0;
+        PageRequest pagina = PageRequest.of(0, tamanhoPagina);
+
+        while (true) {
+            List<Long> ids = projetoRepository.findIdsEntre(depois, ate, pagina);
+            if (ids.isEmpty()) {
+                break;
+            }
+            depois = ids.get(ids.size() - 1);
+            paginas++;
+
+            try {
+                Parcial parcial = transactionTemplate.execute(status -> processarPagina(ids, hoje));
+                projetos += parcial.projetos();
+                tarefas += parcial.tarefas();
+                linhas += parcial.linhas();
+                falhas += parcial.falhas();
+            } catch (Exception e) {
+                // Uma página com erro não impede as seguintes
+                log.warn("Falha ao recalcular os projetos {}..{}: {}", ids.get(0), depois, e.getMessage());
+                falhas += ids.size();
+            }
+
+            if (ids.size() < tamanhoPagina) {
+                break;
+            }
+        }
+        return new Parcial(projetos, tarefas, paginas, linhas, falhas);
+    }
+
+    private Parcial processarPagina(List<Long> ids, LocalDate hoje) {
+        CronogramaService.Lote lote = cronogramaService.duracoesEmLote(ids);
+
+        List<Object[]> prazos = new ArrayList<>(lote.duracoes().size());
+        lote.duracoes().forEach((projetoId, dias) ->
+                prazos.add(new Object[]{Date.valueOf(hoje.plusDays(dias)), projetoId}));
+
+        int linhas = 0;
+        for (int atualizadas : jdbcTemplate.batchUpdate(UPDATE_PRAZO, prazos)) {
+            // Alguns drivers não informam a contagem por comando do batch
+            linhas += atualizadas == Statement.SUCCESS_NO_INFO ? 1 : atualizadas;
+        }
+        return new Parcial(lote.duracoes().size(), lote.tarefas(), 1, linhas, lote.falhas().size());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("tamanhoPagina", tamanhoPagina);
+        state.put("particoes", particoes);
+        state.put("emAndamento", execucaoLock.isLocked());
+        state.put("execucoes", execucoes.get());
+        state.put("ultimaExecucao", ultimo);
+        return state;
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.demo.Service;
 
+import com.example.demo.DTO.Pagina;
+import com.example.demo.DTO.TarefaDetalhe;
+import com.example.demo.DTO.TarefaResumo;
 import com.example.demo.Model.Tarefa;
 import com.example.demo.Repository.TarefaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class TarefaService {
@@ -13,22 +20,45 @@ public class TarefaService {
     @Autowired
     private TarefaRepository tarefaRepository;
 
+    // O prazo do projeto é recalculado em segundo plano, agrupando alterações próximas
     @Autowired
-    private ProjetoService projetoService;
+    private FilaRecalculoService filaRecalculo;
 
-    // Listar todas as tarefas
-    public List<Tarefa> listarTarefas() {
-        return tarefaRepository.findAll();
+    @Autowired
+    private CronogramaService cronogramaService;
+
+    // Página de tarefas por chave (id > depois), com o projeto só pelo id
+    public Pagina<TarefaResumo> listarResumos(long depois, int limite) {
+        int tamanho = Pagina.limitar(limite);
+        return Pagina.de(tarefaRepository.findResumos(depois, PageRequest.of(0, tamanho + 1)), tamanho, TarefaResumo::id);
+    }
+
+    // Tarefas de um projeto (uma consulta com as dependências)
+    public List<TarefaDetalhe> listarDoProjeto(Long projetoId) {
+        return tarefaRepository.findByProjetoId(projetoId).stream()
+                .map(t -> new TarefaDetalhe(t.getId(), t.getNome(), t.getDuracaoDias(), t.isGargalo(),
+                        t.isConcluida(), Set.copyOf(t.getDependencias())))
+                .toList();
     }
 
     // Criar ou atualizar uma tarefa
     public Tarefa salvarTarefa(Tarefa tarefa) {
+        // Dependências precisam ser tarefas do mesmo projeto e não podem formar ciclo
+        try {
+            cronogramaService.validar(tarefa);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Set<Long> dependencias = tarefa.getDependencias() == null ? Set.of() : Set.copyOf(tarefa.getDependencias());
         Tarefa novaTarefa = tarefaRepository.save(tarefa);
+        List<Long> projetosAnteriores = cronogramaService.tarefaSalva(novaTarefa, dependencias);
 
-        // Recalcula automaticamente o prazo otimizado do projeto
+        // Marca o projeto (e o anterior, se a tarefa mudou de projeto) para recálculo do prazo
         if (novaTarefa.getProjeto() != null) {
-            projetoService.recalcularPrazoOtimizado(novaTarefa.getProjeto().getId());
+            filaRecalculo.marcar(novaTarefa.getProjeto().getId());
         }
+        projetosAnteriores.forEach(filaRecalculo::marcar);
 
         return novaTarefa;
     }
@@ -39,11 +69,14 @@ public class TarefaService {
 
         if (tarefa != null && tarefa.getProjeto() != null) {
             Long projetoId = tarefa.getProjeto().getId();
+            tarefaRepository.removerDependenciasPara(id);
             tarefaRepository.deleteById(id);
+            cronogramaService.tarefaRemovida(projetoId, id);
 
             // Recalcula após excluir a tarefa
-            projetoService.recalcularPrazoOtimizado(projetoId);
+            filaRecalculo.marcar(projetoId);
         } else {
+            tarefaRepository.removerDependenciasPara(id);
             tarefaRepository.deleteById(id);
         }
     }
@@ -57,7 +90,10 @@ public class TarefaService {
         Tarefa atualizada = tarefaRepository.save(tarefa);
 
         // Recalcula após concluir a tarefa
-        projetoService.recalcularPrazoOtimizado(tarefa.getProjeto().getId());
+        if (tarefa.getProjeto() != null) {
+            cronogramaService.tarefaConcluida(tarefa.getProjeto().getId(), id);
+            filaRecalculo.marcar(tarefa.getProjeto().getId());
+        }
 
         return atualizada;
     }
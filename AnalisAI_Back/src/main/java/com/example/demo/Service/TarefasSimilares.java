@@ -0,0 +1,111 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.AnaliseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tarefas com resumo quase igual ao de uma tarefa já analisada ("Criar tela X" / "Criar tela Y").
+ *
+ * Mantém um {@link MinHashIndex} dos resumos que geraram análise no Gemini, apontando para a chave da
+ * análise no {@link AnaliseCache}. Acima de gemini.similaridade.reuso a análise anterior é reaproveitada
+ * sem chamar o Gemini; entre gemini.similaridade.adaptacao e o reuso ela vai no prompt como ponto de
+ * partida ("adapte esta análise"). O índice é recarregado de analise_historico na subida.
+ */
+@Component
+@Slf4j
+public class TarefasSimilares {
+
+    public record Referencia(String chave, String resumo) {}
+
+    public record Similar(String issueKey, String chave, String resumo, double similaridade) {}
+
+    private final AnaliseRepository analiseRepository;
+    private final boolean habilitada;
+    private final double limiarReuso;
+    private final double limiarAdaptacao;
+
+    private final MinHashIndex<Referencia> index = new MinHashIndex<>();
+
+    private final AtomicLong buscas = new AtomicLong();
+    private final AtomicLong reusos = new AtomicLong();
+    private final AtomicLong adaptacoes = new AtomicLong();
+
+    public TarefasSimilares(
+            AnaliseRepository analiseRepository,
+            @Value("${gemini.similaridade.habilitada:true}") boolean habilitada,
+            @Value("${gemini.similaridade.reuso:0.9}") double limiarReuso,
+            @Value("${gemini.similaridade.adaptacao:0.6}") double limiarAdaptacao
+    ) {
+        this.analiseRepository = analiseRepository;
+        this.habilitada = habilitada;
+        this.limiarReuso = limiarReuso;
+        this.limiarAdaptacao = limiarAdaptacao;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitada) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        analiseRepository.findByResumoTarefaIsNotNullAndChaveConteudoIsNotNullOrderByDataGeracaoAsc()
+                .forEach(a -> index.put(a.getIssueKey(), a.getResumoTarefa(),
+                        new Referencia(a.getChaveConteudo(), a.getResumoTarefa())));
+        log.info("Índice de tarefas similares carregado: {} resumos em {} ms",
+                index.size(), System.currentTimeMillis() - inicio);
+    }
+
+    // Análise nova gerada pelo Gemini para esta tarefa (substitui a anterior da mesma issue)
+    public void registrar(String issueKey, String resumo, String chave) {
+        if (habilitada && issueKey != null && resumo != null && !resumo.isBlank()) {
+            index.put(issueKey, resumo, new Referencia(chave, resumo));
+        }
+    }
+
+    /**
+     * Tarefa analisada mais parecida, com similaridade de pelo menos gemini.similaridade.adaptacao.
+     */
+    public Optional<Similar> buscar(String resumo) {
+        if (!habilitada || resumo == null || resumo.isBlank()) {
+            return Optional.empty();
+        }
+        buscas.incrementAndGet();
+        return index.maisSimilar(resumo, limiarAdaptacao)
+                .map(m -> new Similar(m.key(), m.value().chave(), m.value().resumo(), m.similaridade()));
+    }
+
+    // A mesma issue com resumo igual continua sendo reanalisada quando muda (status, responsável...):
+    // reaproveitar só faz sentido entre issues diferentes
+    public boolean podeReusar(Similar similar, String issueKey) {
+        return similar.similaridade() >= limiarReuso && !similar.issueKey().equals(issueKey);
+    }
+
+    public void contarReuso() {
+        reusos.incrementAndGet();
+    }
+
+    public void contarAdaptacao() {
+        adaptacoes.incrementAndGet();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("habilitada", habilitada);
+        state.put("resumosIndexados", index.size());
+        state.put("limiarReuso", limiarReuso);
+        state.put("limiarAdaptacao", limiarAdaptacao);
+        state.put("buscas", buscas.get());
+        state.put("reusos", reusos.get());
+        state.put("adaptacoes", adaptacoes.get());
+        return state;
+    }
+}
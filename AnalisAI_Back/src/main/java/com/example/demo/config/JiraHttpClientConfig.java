@@ -0,0 +1,96 @@
+package com.example.demo.config;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Cliente HTTP de saída compartilhado por todas as chamadas ao Jira.
+ *
+ * Um único pool reactor-netty (keep-alive, limite de conexões, fila de espera limitada e
+ * remoção de conexões ociosas) evita refazer conexão e handshake TLS a cada requisição.
+ */
+@Configuration
+@Slf4j
+public class JiraHttpClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider jiraConnectionProvider(
+            JiraHttpPoolMetrics poolMetrics,
+            @Value("${jira.http.max-connections:50}") int maxConnections,
+            @Value("${jira.http.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${jira.http.pending-acquire-timeout-ms:10000}") long pendingAcquireTimeoutMs,
+            @Value("${jira.http.max-idle-time-ms:30000}") long maxIdleTimeMs,
+            @Value("${jira.http.max-life-time-ms:300000}") long maxLifeTimeMs,
+            @Value("${jira.http.evict-in-background-ms:30000}") long evictInBackgroundMs
+    ) {
+        return ConnectionProvider.builder("jira")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictInBackgroundMs))
+                .metrics(true, () -> poolMetrics)
+                .build();
+    }
+
+    @Bean
+    public HttpClient jiraHttpClient(
+            ConnectionProvider jiraConnectionProvider,
+            @Value("${jira.base-url}") String baseUrl,
+            @Value("${jira.http.connect-timeout-ms:5000}") int connectTimeoutMs,
+            @Value("${jira.http.response-timeout-ms:30000}") long responseTimeoutMs,
+            @Value("${jira.http.compress:true}") boolean compress,
+            @Value("${jira.http.http2:true}") boolean http2
+    ) {
+        HttpClient client = HttpClient.create(jiraConnectionProvider)
+                .keepAlive(true)
+                .compress(compress) // envia Accept-Encoding: gzip e descompacta a resposta
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
+        // HTTP/2 só é negociado via TLS (ALPN); em http:// fica HTTP/1.1
+        boolean useHttp2 = http2 && baseUrl.startsWith("https://");
+        if (useHttp2) {
+            client = client
+                    .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    // secure() sem argumentos escolhe o contexto TLS de HTTP/2 (com ALPN) pelos protocolos acima
+                    .secure();
+        }
+
+        log.info("🌐 Cliente HTTP do Jira: {} (http2={}, gzip={})", baseUrl, useHttp2, compress);
+        return client;
+    }
+
+    /**
+     * WebClient base do Jira (sem credenciais). Quem precisa de autenticação usa
+     * {@code mutate()}, que reaproveita o mesmo conector e, portanto, o mesmo pool.
+     */
+    @Bean
+    public WebClient jiraWebClient(WebClient.Builder webClientBuilder,
+                                   HttpClient jiraHttpClient,
+                                   @Value("${jira.base-url}") String baseUrl,
+                                   @Value("${jira.http.max-in-memory-bytes:16777216}") int maxInMemoryBytes) {
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(jiraHttpClient))
+                // Páginas grandes do /search/jql (page-size alto) passam do limite padrão de 256 KB
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemoryBytes))
+                .baseUrl(baseUrl)
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+}
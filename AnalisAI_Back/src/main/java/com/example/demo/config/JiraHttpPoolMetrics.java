@@ -0,0 +1,80 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recebe do reactor-netty as métricas de cada pool de conexões (um por host remoto)
+ * do cliente HTTP compartilhado do Jira, publica-as como gauges jira.http.pool.* (tags pool e
+ * remote) e expõe um retrato para diagnóstico.
+ */
+@Component
+public class JiraHttpPoolMetrics implements ConnectionProvider.MeterRegistrar {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    // Gauges de cada pool, removidos do registry quando o reactor-netty descarta o pool
+    private final Map<String, List<Meter>> gauges = new ConcurrentHashMap<>();
+
+    public JiraHttpPoolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        String key = poolKey(poolName, remoteAddress);
+        pools.put(key, metrics);
+
+        Tags tags = Tags.of("pool", poolName, "remote", String.valueOf(remoteAddress));
+        gauges.put(key, List.of(
+                Gauge.builder("jira.http.pool.acquired", metrics, ConnectionPoolMetrics::acquiredSize).tags(tags).register(meterRegistry),
+                Gauge.builder("jira.http.pool.idle", metrics, ConnectionPoolMetrics::idleSize).tags(tags).register(meterRegistry),
+                Gauge.builder("jira.http.pool.allocated", metrics, ConnectionPoolMetrics::allocatedSize).tags(tags).register(meterRegistry),
+                Gauge.builder("jira.http.pool.pending", metrics, ConnectionPoolMetrics::pendingAcquireSize).tags(tags).register(meterRegistry),
+                Gauge.builder("jira.http.pool.max.allocated", metrics, ConnectionPoolMetrics::maxAllocatedSize).tags(tags).register(meterRegistry),
+                Gauge.builder("jira.http.pool.max.pending", metrics, ConnectionPoolMetrics::maxPendingAcquireSize).tags(tags).register(meterRegistry)
+        ));
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        String key = poolKey(poolName, remoteAddress);
+        pools.remove(key);
+        List<Meter> removidos = gauges.remove(key);
+        if (removidos != null) {
+            removidos.forEach(meterRegistry::remove);
+        }
+    }
+
+    public List<Map<String, Object>> snapshot() {
+        return pools.entrySet().stream()
+                .map(entry -> {
+                    ConnectionPoolMetrics m = entry.getValue();
+                    Map<String, Object> pool = new LinkedHashMap<>();
+                    pool.put("pool", entry.getKey());
+                    pool.put("acquired", m.acquiredSize());
+                    pool.put("idle", m.idleSize());
+                    pool.put("allocated", m.allocatedSize());
+                    pool.put("pendingAcquire", m.pendingAcquireSize());
+                    pool.put("maxAllocated", m.maxAllocatedSize());
+                    pool.put("maxPendingAcquire", m.maxPendingAcquireSize());
+                    return pool;
+                })
+                .toList();
+    }
+
+    private static String poolKey(String poolName, SocketAddress remoteAddress) {
+        return poolName + "@" + remoteAddress;
+    }
+}
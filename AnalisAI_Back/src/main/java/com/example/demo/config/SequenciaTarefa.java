@@ -0,0 +1,44 @@
+package com.example.demo.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alinha a sequência tarefa_seq com os ids já gravados.
+ *
+ * Antes da sequência os ids de tarefa vinham do auto_increment da tabela. Numa base que já tem
+ * tarefas, a sequência criada pelo ddl-auto começa em 1 e entregaria ids em uso; na subida, se o
+ * próximo bloco da sequência começa em um id já existente, ela é reiniciada logo acima do maior id.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class SequenciaTarefa {
+
+    // Mesmo allocationSize de Tarefa.id: o otimizador pooled usa os ids (valor - 50, valor]
+    private static final int BLOCO = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenciaTarefa(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alinhar() {
+        Long maiorId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from tarefa", Long.class);
+        if (maiorId == null || maiorId == 0) {
+            return;
+        }
+
+        Long proximo = jdbcTemplate.queryForObject("select next value for tarefa_seq", Long.class);
+        if (proximo != null && proximo - BLOCO < maiorId) {
+            long reinicio = maiorId + BLOCO;
+            jdbcTemplate.execute("alter sequence tarefa_seq restart with " + reinicio);
+            log.info("Sequência tarefa_seq reiniciada em {} (maior id de tarefa: {})", reinicio, maiorId);
+        }
+    }
+}
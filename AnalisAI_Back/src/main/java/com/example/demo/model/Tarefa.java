@@ -1,16 +1,24 @@
 package com.example.demo.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 @Entity
+@Table(indexes = @Index(name = "idx_tarefa_projeto", columnList = "projeto_id, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Tarefa {
 
+    // Ids de uma sequência reservados em blocos de 50 (otimizador pooled): o Hibernate não precisa
+    // de um insert por vez para descobrir o id, então os inserts de tarefas podem ir em batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tarefa_seq")
+    @SequenceGenerator(name = "tarefa_seq", sequenceName = "tarefa_seq", allocationSize = 50)
     private Long id;
 
     private String nome;
@@ -23,7 +31,15 @@ public class Tarefa {
 
     private boolean concluida;
 
+    // ids das tarefas do mesmo projeto que precisam terminar antes desta começar
+    @ElementCollection
+    @CollectionTable(name = "tarefa_dependencia", joinColumns = @JoinColumn(name = "tarefa_id"))
+    @Column(name = "depende_de")
+    private Set<Long> dependencias = new HashSet<>();
+
+    // Serializado sem a lista de tarefas do projeto (evita o ciclo projeto -> tarefas -> projeto)
     @ManyToOne
     @JoinColumn(name = "projeto_id")
+    @JsonIgnoreProperties("tarefas")
     private Projeto projeto;
 }
\ No newline at end of file
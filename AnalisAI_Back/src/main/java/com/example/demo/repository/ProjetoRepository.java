@@ -1,8 +1,25 @@
 package com.example.demo.Repository;
 
+import com.example.demo.DTO.ProjetoResumo;
 import com.example.demo.Model.Projeto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ProjetoRepository extends JpaRepository<Projeto, Long> {
-}
 
+    // Listagem por chave: próxima página de projetos com id > depois
+    @Query("select new com.example.demo.DTO.ProjetoResumo(p.id, p.nome, p.prazoOtimizado) " +
+            "from Projeto p where p.id > :depois order by p.id")
+    List<ProjetoResumo> findResumos(@Param("depois") long depois, Pageable pagina);
+
+    @Query("select coalesce(max(p.id), 0) from Projeto p")
+    long findMaxId();
+
+    // Próxima página de ids no intervalo (depois, ate], em ordem (paginação por chave, sem offset)
+    @Query("select p.id from Projeto p where p.id > :depois and p.id <= :ate order by p.id")
+    List<Long> findIdsEntre(@Param("depois") long depois, @Param("ate") long ate, Pageable pagina);
+}
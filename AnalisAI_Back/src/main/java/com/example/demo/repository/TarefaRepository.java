@@ -1,10 +1,44 @@
 package com.example.demo.Repository;
 
+import com.example.demo.DTO.DependenciaTarefa;
+import com.example.demo.DTO.TarefaCronograma;
+import com.example.demo.DTO.TarefaResumo;
 import com.example.demo.Model.Tarefa;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface TarefaRepository extends JpaRepository<Tarefa, Long> {
-    List<Tarefa> findByProjetoId(Long projetoId);
-}
\ No newline at end of file
+    // Tarefas do projeto com projeto e dependências na mesma consulta (sem carregamento lazy por tarefa)
+    @Query("select t from Tarefa t join fetch t.projeto left join fetch t.dependencias " +
+            "where t.projeto.id = :projetoId order by t.id")
+    List<Tarefa> findByProjetoId(@Param("projetoId") Long projetoId);
+
+    @Query("select t.id from Tarefa t where t.projeto.id = :projetoId")
+    List<Long> findIdsByProjetoId(@Param("projetoId") Long projetoId);
+
+    // Listagem por chave: próxima página de tarefas com id > depois
+    @Query("select new com.example.demo.DTO.TarefaResumo(t.id, t.nome, t.duracaoDias, t.gargalo, t.concluida, t.projeto.id) " +
+            "from Tarefa t where t.id > :depois order by t.id")
+    List<TarefaResumo> findResumos(@Param("depois") long depois, Pageable pagina);
+
+    // Grafo de tarefas dos projetos com id entre "de" e "ate" (um projeto ou uma página do recálculo em lote)
+    @Query("select new com.example.demo.DTO.TarefaCronograma(t.projeto.id, t.id, t.duracaoDias, t.gargalo, t.concluida) " +
+            "from Tarefa t where t.projeto.id between :de and :ate")
+    List<TarefaCronograma> findCronogramaByProjetoIdEntre(@Param("de") Long de, @Param("ate") Long ate);
+
+    @Query("select new com.example.demo.DTO.DependenciaTarefa(t.projeto.id, t.id, d) " +
+            "from Tarefa t join t.dependencias d where t.projeto.id between :de and :ate")
+    List<DependenciaTarefa> findDependenciasByProjetoIdEntre(@Param("de") Long de, @Param("ate") Long ate);
+
+    // Ao excluir uma tarefa, as outras deixam de depender dela
+    @Modifying
+    @Transactional
+    @Query(value = "delete from tarefa_dependencia where depende_de = :tarefaId", nativeQuery = true)
+    int removerDependenciasPara(@Param("tarefaId") Long tarefaId);
+}
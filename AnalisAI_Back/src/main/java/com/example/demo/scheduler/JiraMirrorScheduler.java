@@ -0,0 +1,26 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.Service.JiraMirrorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class JiraMirrorScheduler {
+
+    @Autowired
+    private JiraMirrorService jiraMirrorService;
+
+    // Sincronização incremental do espelho de issues do Jira (intervalo configurável)
+    @Scheduled(fixedDelayString = "${jira.mirror.sync-interval-ms:60000}",
+               initialDelayString = "${jira.mirror.initial-delay-ms:10000}")
+    public void sincronizarEspelhoJira() {
+        try {
+            jiraMirrorService.sync();
+        } catch (Exception e) {
+            log.warn("⚠️ Erro ao sincronizar espelho do Jira: {}", e.getMessage());
+        }
+    }
+}
@@ -1,35 +1,26 @@
 package com.example.demo.scheduler;
 
-import com.example.demo.Model.Projeto;
-import com.example.demo.Service.ProjetoService;
+import com.example.demo.Service.RecalculoEmLoteService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 @Component
+@Slf4j
 public class ProjetoScheduler {
 
     @Autowired
-    private ProjetoService projetoService;
+    private RecalculoEmLoteService recalculoEmLoteService;
 
-    // Roda automaticamente todo dia às 2h da manhã
-    @Scheduled(cron = "0 0 2 * * *")
+    // Roda automaticamente todo dia às 2h da manhã (configurável)
+    @Scheduled(cron = "${projetos.recalculo.cron:0 0 2 * * *}")
     public void recalcularProjetosAutomaticamente() {
-        System.out.println("🔄 Recalculando prazos otimizados dos projetos...");
-
-        List<Projeto> projetos = projetoService.listarProjetos();
-
-        for (Projeto projeto : projetos) {
-            try {
-                projetoService.recalcularPrazoOtimizado(projeto.getId());
-                System.out.println("✅ Projeto " + projeto.getNome() + " recalculado com sucesso.");
-            } catch (Exception e) {
-                System.err.println("⚠️ Erro ao recalcular projeto " + projeto.getNome() + ": " + e.getMessage());
-            }
+        log.info("🔄 Recalculando prazos otimizados dos projetos...");
+        try {
+            recalculoEmLoteService.recalcularTodos();
+        } catch (Exception e) {
+            log.error("⚠️ Erro no recálculo automático dos projetos: {}", e.getMessage());
         }
-
-        System.out.println("✅ Recalculo automático concluído.");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.AnaliseTarefaRequest;
+import com.example.demo.DTO.AnaliseTarefaResponse;
+import com.example.demo.DTO.AnaliseTarefaResultado;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnaliseIaServiceLoteTest {
+
+    private HttpServer server;
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private final CountDownLatch primeiraChamada = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub lento do generateContent: 500 ms e um texto que não é JSON, então todo lote falha e é dividido
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            chamadas.incrementAndGet();
+            primeiraChamada.countDown();
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] corpo = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"não é JSON\"}]}}]}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, corpo.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(corpo);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void tempoLimiteEncerraOLoteSemNovasChamadas() throws Exception {
+        AnaliseIaService service = service(200);
+
+        List<AnaliseTarefaResultado> resultados = service.analisarTarefasConcorrente(tarefas(4))
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(4, resultados.size());
+        resultados.forEach(r -> assertEquals(List.of("ERRO: Tempo limite excedido"), r.resposta().riscosIdentificados()));
+
+        // Sem o encerramento, a falha do lote de 4 viraria dois lotes de 2 (e depois quatro individuais)
+        Thread.sleep(1200);
+        assertEquals(1, chamadas.get());
+    }
+
+    @Test
+    void cancelarAInscricaoEncerraOLote() throws Exception {
+        AnaliseIaService service = service(90000);
+
+        Disposable inscricao = service.analisarTarefasConcorrente(tarefas(4)).subscribe();
+        assertTrue(primeiraChamada.await(5, TimeUnit.SECONDS));
+        inscricao.dispose();
+
+        Thread.sleep(1200);
+        assertEquals(1, chamadas.get());
+    }
+
+    private AnaliseIaService service(long itemTimeoutMs) {
+        ObjectMapper mapper = new ObjectMapper();
+        GeminiResilience resilience = new GeminiResilience(new SimpleMeterRegistry(), 20, 10, 0.5, 30000, 2,
+                false, 0.95, 0.1, 250, 20000, 10000, 10000, 30000, 60000, 30000);
+        // Cache sempre vazio e sem banco
+        AnaliseCache cache = new AnaliseCache(null, mapper, 100) {
+            @Override
+            public Optional<AnaliseTarefaResponse> get(String chave) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void put(String chave, String issueKey, String resumo, AnaliseTarefaResponse response) {
+            }
+        };
+        TarefasSimilares similares = new TarefasSimilares(null, false, 0.9, 0.6);
+
+        AnaliseIaService service = new AnaliseIaService(WebClient.builder(), mapper, cache, similares, resilience,
+                20, 8000, 4, itemTimeoutMs);
+        ReflectionTestUtils.setField(service, "apiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/models/stub:generateContent");
+        ReflectionTestUtils.setField(service, "apiKey", "chave");
+        return service;
+    }
+
+    private static List<AnaliseTarefaRequest> tarefas(int quantidade) {
+        return IntStream.rangeClosed(1, quantidade)
+                .mapToObj(i -> new AnaliseTarefaRequest("Task", null, null, "Ana", "AP-" + i,
+                        "Tarefa número " + i + " do lote", "To Do", List.of()))
+                .toList();
+    }
+}
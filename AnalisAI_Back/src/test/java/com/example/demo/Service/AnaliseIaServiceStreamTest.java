@@ -0,0 +1,65 @@
+package com.example.demo.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnaliseIaServiceStreamTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> pathRecebido = new AtomicReference<>();
+    private AnaliseIaService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub do streamGenerateContent: um evento SSE por pedaço, enviados com flush entre eles
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            pathRecebido.set(exchange.getRequestURI().toString());
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String texto : List.of("Olá", ", ", "tudo certo?")) {
+                    String evento = "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + texto + "\"}]}}]}\r\n\r\n";
+                    out.write(evento.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        });
+        server.start();
+
+        GeminiResilience resilience = new GeminiResilience(new SimpleMeterRegistry(), 20, 10, 0.5, 30000, 2,
+                false, 0.95, 0.1, 250, 20000, 10000, 10000, 30000, 60000, 30000);
+        service = new AnaliseIaService(WebClient.builder(), new ObjectMapper(), null, null, resilience, 20, 8000, 4, 90000);
+        ReflectionTestUtils.setField(service, "apiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/models/stub:generateContent");
+        ReflectionTestUtils.setField(service, "apiKey", "chave");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void chatLivreStreamEmiteCadaPedacoDoGemini() {
+        List<String> pedacos = service.chatLivreStream("Oi", "").collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(List.of("Olá", ", ", "tudo certo?"), pedacos);
+        assertEquals("/v1beta/models/stub:streamGenerateContent?alt=sse&key=chave", pathRecebido.get());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.AnaliseRequestDTO;
+import com.example.demo.DTO.AnaliseTarefaRequest;
+import com.example.demo.DTO.AnaliseTarefaResponse;
+import com.example.demo.DTO.AnaliseTarefaResultado;
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.Model.AnaliseJob;
+import com.example.demo.Model.AnaliseJobItem;
+import com.example.demo.Model.JiraIssueMirror;
+import com.example.demo.Repository.AnaliseJobItemRepository;
+import com.example.demo.Repository.AnaliseJobRepository;
+import com.example.demo.Repository.JiraIssueMirrorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AnaliseJobServiceTest {
+
+    @Autowired
+    private AnaliseJobRepository jobRepository;
+
+    @Autowired
+    private AnaliseJobItemRepository itemRepository;
+
+    @Autowired
+    private JiraIssueMirrorRepository mirrorRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Quantas vezes cada issue ainda falha antes de a análise dar certo
+    private final Map<String, AtomicInteger> falhasRestantes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> analises = new ConcurrentHashMap<>();
+    private AnaliseJobService jobs;
+
+    @BeforeEach
+    void setUp() {
+        GeminiResilience resilience = new GeminiResilience(new SimpleMeterRegistry(), 20, 10, 0.5, 30000, 2,
+                false, 0.95, 0.1, 250, 20000, 10000, 10000, 30000, 60000, 30000);
+        // Gemini falso: "Falha na análise" enquanto a issue tiver falhas restantes
+        AnaliseIaService ia = new AnaliseIaService(WebClient.builder(), objectMapper, null, null, resilience,
+                20, 8000, 4, 90000) {
+            @Override
+            public Flux<AnaliseTarefaResultado> analisarTarefasConcorrente(List<AnaliseTarefaRequest> requests) {
+                return Flux.range(0, requests.size()).map(i -> {
+                    String key = requests.get(i).key();
+                    analises.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                    boolean falha = falhasRestantes.getOrDefault(key, new AtomicInteger()).getAndDecrement() > 0;
+                    return new AnaliseTarefaResultado(i, false, new AnaliseTarefaResponse(key, List.of("ERRO: 503"),
+                            falha ? "Falha na análise" : "Sem riscos", List.of(), List.of(), List.of()));
+                });
+            }
+
+            @Override
+            public String chaveAnalise(AnaliseTarefaRequest request) {
+                return "chave-" + request.key();
+            }
+        };
+        jobs = new AnaliseJobService(jobRepository, itemRepository, mirrorRepository, null, ia, null, objectMapper,
+                1, 3, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobs.encerrar();
+    }
+
+    @Test
+    void falhaTransitoriaVoltaParaAFilaAteDarCerto() throws Exception {
+        espelho("JB-1", "JB-2");
+        falhasRestantes.put("JB-2", new AtomicInteger(2));
+
+        String jobId = criar("JB-1", "JB-2", "inexistente");
+        aguardarFim(jobId);
+
+        assertEquals(AnaliseJob.Status.CONCLUIDO, jobRepository.findById(jobId).orElseThrow().getStatus());
+        List<AnaliseJobItem> itens = itemRepository.findByJobIdOrderByIndiceAsc(jobId);
+        assertEquals(AnaliseJobItem.Status.CONCLUIDO, itens.get(0).getStatus());
+        assertEquals(0, itens.get(0).getTentativas());
+        // Duas falhas e a terceira rodada deu certo
+        assertEquals(AnaliseJobItem.Status.CONCLUIDO, itens.get(1).getStatus());
+        assertEquals(2, itens.get(1).getTentativas());
+        assertEquals("chave-JB-2", itens.get(1).getChaveConteudo());
+        assertNull(itens.get(1).getErro());
+        assertEquals(3, analises.get("JB-2").get());
+        // A que já deu certo não é analisada de novo
+        assertEquals(1, analises.get("JB-1").get());
+        // Issue inexistente é falha definitiva, sem tentativas
+        assertEquals(AnaliseJobItem.Status.FALHOU, itens.get(2).getStatus());
+        assertEquals(0, itens.get(2).getTentativas());
+    }
+
+    @Test
+    void tentativasEsgotadasFalhamEReprocessarDevolveParaAFila() throws Exception {
+        espelho("JB-3", "JB-4");
+        falhasRestantes.put("JB-4", new AtomicInteger(3));
+
+        String jobId = criar("JB-3", "JB-4", "inexistente");
+        aguardarFim(jobId);
+
+        AnaliseJobItem esgotado = itemRepository.findByJobIdOrderByIndiceAsc(jobId).get(1);
+        assertEquals(AnaliseJobItem.Status.FALHOU, esgotado.getStatus());
+        assertEquals(3, esgotado.getTentativas());
+        assertEquals("ERRO: 503", esgotado.getErro());
+        assertEquals(3, analises.get("JB-4").get());
+        assertEquals(2L, jobs.buscar(jobId).orElseThrow().get("falhas"));
+
+        jobs.reprocessar(jobId);
+        aguardarFim(jobId);
+
+        List<AnaliseJobItem> itens = itemRepository.findByJobIdOrderByIndiceAsc(jobId);
+        assertEquals(AnaliseJobItem.Status.CONCLUIDO, itens.get(1).getStatus());
+        assertEquals(AnaliseJobItem.Status.FALHOU, itens.get(2).getStatus());
+        assertEquals(4, analises.get("JB-4").get());
+        assertEquals(1, analises.get("JB-3").get());
+        assertEquals(1L, jobs.buscar(jobId).orElseThrow().get("falhas"));
+    }
+
+    private void espelho(String... keys) {
+        for (String key : keys) {
+            mirrorRepository.save(JiraIssueMirror.fromSummary(new IssueSummary(key, "Tarefa " + key, "To Do", "Ana",
+                    "Projeto", "Task", null, null, null), Instant.now()));
+        }
+    }
+
+    private String criar(String... keys) {
+        AnaliseRequestDTO request = new AnaliseRequestDTO();
+        request.setIssueKeys(List.of(keys));
+        return (String) jobs.criar(request).get("jobId");
+    }
+
+    private void aguardarFim(String jobId) throws InterruptedException {
+        Set<AnaliseJob.Status> finais = Set.of(AnaliseJob.Status.CONCLUIDO, AnaliseJob.Status.FALHOU,
+                AnaliseJob.Status.CANCELADO);
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!finais.contains(jobRepository.findById(jobId).orElseThrow().getStatus())) {
+            assertTrue(System.currentTimeMillis() < limite, "job não terminou");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.AnaliseTarefaRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Corpo do generateContent da análise montado como Map e serializado pelo Jackson, como era feito
+ * antes do {@link GeminiRequestEncoder}. Referência do GeminiRequestEncoderTest e linha de base do
+ * GeminiPayloadBenchmark.
+ */
+public final class AnalisePayloadMap {
+
+    private AnalisePayloadMap() {
+    }
+
+    // O schema é reconstruído a cada chamada, como no caminho antigo
+    public static Map<String, Object> payload(AnaliseIaService service, AnaliseTarefaRequest request) {
+        Map<String, Object> generationConfig = Map.of(
+                "responseMimeType", "application/json",
+                "responseSchema", service.buildResponseSchema()
+        );
+
+        return Map.of(
+                "contents", List.of(
+                        Map.of("parts", List.of(Map.of("text", prompt(request))))
+                ),
+                "generationConfig", generationConfig
+        );
+    }
+
+    public static String prompt(AnaliseTarefaRequest request) {
+        return String.format(AnaliseIaService.PROMPT_ANALISE,
+                request.issuetype(), request.key(), request.status(), request.assignee(),
+                request.summary(), request.updated()
+        );
+    }
+}
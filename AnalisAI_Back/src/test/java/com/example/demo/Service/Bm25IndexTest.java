@@ -0,0 +1,100 @@
+package com.example.demo.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Bm25IndexTest {
+
+    private static final String[] PALAVRAS = {
+            "criar", "tela", "cadastro", "funcionario", "ajustar", "relatorio", "folha", "pagamento",
+            "integrar", "api", "beneficios", "revisar", "fluxo", "admissao", "ferias", "login", "erro"
+    };
+
+    @Test
+    void rankeiaPorRelevanciaComChavesAcentosEPlurais() {
+        Bm25Index<String> index = new Bm25Index<>();
+        index.put("AP-1", "AP-1 Corrigir erro no login do portal", "1");
+        index.put("AP-2", "AP-2 Criar relatório de férias", "2");
+        index.put("AP-3", "AP-3 Erro ao exportar relatórios de folha", "3");
+        index.put("AP-17", "AP-17 Tela de login com SSO", "17");
+
+        List<Bm25Index.Resultado<String>> erroLogin = index.buscar("Quais erros de login estão abertos?", 10);
+        assertEquals("AP-1", erroLogin.get(0).key());
+        assertEquals(3, erroLogin.size());
+
+        assertEquals("AP-2", index.buscar("relatorio de ferias", 1).get(0).key());
+        assertEquals("AP-17", index.buscar("o que falta na ap-17?", 1).get(0).key());
+        assertTrue(index.buscar("orçamento de marketing", 5).isEmpty());
+    }
+
+    @Test
+    void atualizacoesIncrementaisEquivalemAReconstrucao() {
+        Random random = new Random(3);
+        Bm25Index<String> incremental = new Bm25Index<>();
+        Map<String, String> estado = new LinkedHashMap<>();
+
+        // Muitas substituições e remoções: passa pela compactação
+        for (int i = 0; i < 6000; i++) {
+            String key = "AP-" + random.nextInt(400);
+            if (random.nextInt(5) == 0) {
+                incremental.remove(key);
+                estado.remove(key);
+            } else {
+                String texto = frase(random);
+                incremental.put(key, texto, texto);
+                estado.put(key, texto);
+            }
+        }
+
+        Bm25Index<String> reconstruido = new Bm25Index<>();
+        estado.forEach((key, texto) -> reconstruido.put(key, texto, texto));
+        assertEquals(estado.size(), incremental.size());
+
+        for (int i = 0; i < 50; i++) {
+            String consulta = frase(random);
+            List<Bm25Index.Resultado<String>> a = incremental.buscar(consulta, 400);
+            List<Bm25Index.Resultado<String>> b = reconstruido.buscar(consulta, 400);
+            assertEquals(b.size(), a.size(), consulta);
+
+            Map<String, Double> scores = new LinkedHashMap<>();
+            b.forEach(r -> scores.put(r.key(), r.score()));
+            for (Bm25Index.Resultado<String> r : a) {
+                assertEquals(scores.get(r.key()), r.score(), 1e-9, consulta + " / " + r.key());
+                assertEquals(estado.get(r.key()), r.value());
+            }
+        }
+    }
+
+    @Test
+    void compactacaoDescartaTermosQueSoExistiamEmRemovidos() {
+        Bm25Index<String> index = new Bm25Index<>();
+        // Cada versão da issue traz uma palavra nova: sem renumerar, o vocabulário cresceria sem limite
+        for (int i = 0; i < 20_000; i++) {
+            String key = "AP-" + (i % 100);
+            index.put(key, "tarefa versao" + i, key);
+        }
+
+        int termos = ((Map<?, ?>) ReflectionTestUtils.getField(index, "termIds")).size();
+        assertTrue(termos < 3000, termos + " termos");
+        assertEquals(100, index.size());
+        assertEquals("AP-99", index.buscar("versao19999", 1).get(0).key());
+        assertEquals(100, index.buscar("tarefa", 200).size());
+        assertTrue(index.buscar("versao0", 1).isEmpty());
+    }
+
+    private static String frase(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0, n = 2 + random.nextInt(5); i < n; i++) {
+            sb.append(PALAVRAS[random.nextInt(PALAVRAS.length)]).append(' ');
+        }
+        return sb.toString().trim();
+    }
+}
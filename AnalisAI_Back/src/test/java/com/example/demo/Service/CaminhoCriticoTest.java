@@ -0,0 +1,132 @@
+package com.example.demo.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaminhoCriticoTest {
+
+    private static CaminhoCritico.No no(long id, int duracao, long... dependencias) {
+        return new CaminhoCritico.No(id, duracao, dependencias);
+    }
+
+    @Test
+    void calculaFolgaECadeiaCritica() {
+        // 1 -> 2 -> 4 e 1 -> 3 -> 4: o ramo pelo 2 é o mais longo
+        CaminhoCritico cc = CaminhoCritico.construir(List.of(
+                no(1, 2), no(2, 5, 1), no(3, 1, 1), no(4, 3, 2, 3), no(5, 4)));
+
+        assertEquals(10, cc.duracaoProjeto());
+        assertEquals(List.of(1L, 2L, 4L), cc.cadeiaCritica());
+
+        CaminhoCritico.Agenda t3 = cc.agenda(3).orElseThrow();
+        assertEquals(2, t3.inicioMaisCedo());
+        assertEquals(6, t3.inicioMaisTarde());
+        assertEquals(4, t3.folga());
+        assertEquals(6, cc.agenda(5).orElseThrow().folga());
+        assertTrue(cc.agenda(2).orElseThrow().critica());
+
+        // Encurtar o 2 faz o ramo do 3 dividir o caminho crítico
+        cc.alterarDuracao(2, 1);
+        assertEquals(6, cc.duracaoProjeto());
+        assertEquals(0, cc.agenda(3).orElseThrow().folga());
+    }
+
+    @Test
+    void recusaCicloEDependenciaDesconhecidaSemAlterarNada() {
+        CaminhoCritico cc = CaminhoCritico.construir(List.of(no(1, 1), no(2, 1, 1), no(3, 1, 2)));
+
+        assertThrows(IllegalArgumentException.class, () -> cc.atualizar(1, 1, new long[]{3}));
+        assertThrows(IllegalArgumentException.class, () -> cc.atualizar(1, 1, new long[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> cc.atualizar(2, 1, new long[]{99}));
+        assertThrows(IllegalArgumentException.class,
+                () -> CaminhoCritico.construir(List.of(no(1, 1, 2), no(2, 1, 1))));
+
+        assertEquals(3, cc.duracaoProjeto());
+        assertEquals(List.of(1L, 2L, 3L), cc.cadeiaCritica());
+    }
+
+    @Test
+    void alteracoesIncrementaisBatemComRecalculoCompleto() {
+        Random random = new Random(42);
+        Map<Long, CaminhoCritico.No> tarefas = new LinkedHashMap<>();
+        for (long id = 0; id < 300; id++) {
+            tarefas.put(id, new CaminhoCritico.No(id, random.nextInt(10), dependenciasAleatorias(random, tarefas, id)));
+        }
+        CaminhoCritico cc = CaminhoCritico.construir(tarefas.values());
+        long proximoId = 300;
+
+        for (int passo = 0; passo < 2000; passo++) {
+            List<Long> ids = new ArrayList<>(tarefas.keySet());
+            long id = ids.get(random.nextInt(ids.size()));
+            int operacao = random.nextInt(10);
+
+            if (operacao < 3) {
+                int duracao = random.nextInt(10);
+                cc.alterarDuracao(id, duracao);
+                tarefas.put(id, new CaminhoCritico.No(id, duracao, tarefas.get(id).dependencias()));
+            } else if (operacao < 7) {
+                // Dependências para qualquer tarefa, inclusive "posteriores": exercita a reordenação
+                long[] novas = dependenciasAleatorias(random, tarefas, id);
+                int duracao = random.nextInt(10);
+                try {
+                    cc.atualizar(id, duracao, novas);
+                    tarefas.put(id, new CaminhoCritico.No(id, duracao, novas));
+                } catch (IllegalArgumentException ciclo) {
+                    // Recusada: nada pode ter mudado (conferido abaixo)
+                }
+            } else if (operacao < 8 && tarefas.size() > 50) {
+                cc.remover(id);
+                tarefas.remove(id);
+                tarefas.replaceAll((k, no) -> new CaminhoCritico.No(k, no.duracao(),
+                        Arrays.stream(no.dependencias()).filter(d -> d != id).toArray()));
+            } else {
+                long novo = proximoId++;
+                long[] dependencias = dependenciasAleatorias(random, tarefas, novo);
+                int duracao = random.nextInt(10);
+                cc.atualizar(novo, duracao, dependencias);
+                tarefas.put(novo, new CaminhoCritico.No(novo, duracao, dependencias));
+            }
+
+            if (passo % 50 == 0) {
+                assertIguais(CaminhoCritico.construir(tarefas.values()), cc);
+            }
+        }
+        assertIguais(CaminhoCritico.construir(tarefas.values()), cc);
+    }
+
+    private static long[] dependenciasAleatorias(Random random, Map<Long, CaminhoCritico.No> tarefas, long id) {
+        List<Long> ids = new ArrayList<>(tarefas.keySet());
+        Set<Long> escolhidas = new HashSet<>();
+        int quantas = ids.isEmpty() ? 0 : random.nextInt(4);
+        for (int i = 0; i < quantas; i++) {
+            long d = ids.get(random.nextInt(ids.size()));
+            if (d != id) {
+                escolhidas.add(d);
+            }
+        }
+        return escolhidas.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void assertIguais(CaminhoCritico esperado, CaminhoCritico atual) {
+        assertEquals(esperado.duracaoProjeto(), atual.duracaoProjeto());
+        Comparator<CaminhoCritico.Agenda> porId = Comparator.comparingLong(CaminhoCritico.Agenda::id);
+        List<CaminhoCritico.Agenda> a = new ArrayList<>(esperado.agendas());
+        List<CaminhoCritico.Agenda> b = new ArrayList<>(atual.agendas());
+        a.sort(porId);
+        b.sort(porId);
+        assertEquals(a, b);
+    }
+}
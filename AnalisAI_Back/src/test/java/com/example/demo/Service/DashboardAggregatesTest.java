@@ -0,0 +1,111 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.IssueSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DashboardAggregatesTest {
+
+    private static final String[] STATUS = {"To Do", "In Progress", "Done", "done", "Blocked", "", null};
+
+    @Test
+    void deltasMatchFullRecompute() {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.of(2025, 3, 1);
+        Map<String, IssueSummary> mirror = new LinkedHashMap<>();
+
+        for (int i = 0; i < 200; i++) {
+            IssueSummary issue = randomIssue(random, "AN-" + i, today);
+            mirror.put(issue.key(), issue);
+        }
+
+        DashboardAggregates aggregates = new DashboardAggregates();
+        aggregates.beginRebuild();
+        aggregates.finishRebuild(mirror.values());
+
+        for (int round = 0; round < 300; round++) {
+            for (int i = 0; i < 5; i++) {
+                int op = random.nextInt(10);
+                String key = "AN-" + random.nextInt(260);
+                if (op < 2) {
+                    mirror.remove(key);
+                    aggregates.removeAll(List.of(key));
+                } else {
+                    IssueSummary issue = randomIssue(random, key, today);
+                    mirror.put(key, issue);
+                    aggregates.upsertAll(List.of(issue));
+                }
+            }
+
+            // O relógio anda (às vezes vários dias de uma vez) e passa das duedates
+            if (random.nextInt(4) == 0) {
+                today = today.plusDays(random.nextInt(3));
+            }
+
+            assertEquals(expected(mirror, today), aggregates.snapshot(today), "rodada " + round);
+        }
+    }
+
+    @Test
+    void changesDuringRebuildAreReplayed() {
+        LocalDate today = LocalDate.of(2025, 3, 1);
+        DashboardAggregates aggregates = new DashboardAggregates();
+
+        IssueSummary antes = issue("AN-1", "To Do", "2025-02-01");
+        IssueSummary depois = issue("AN-1", "Done", "2025-02-01");
+        IssueSummary nova = issue("AN-2", "In Progress", null);
+
+        aggregates.beginRebuild();
+        aggregates.upsertAll(List.of(depois, nova));
+        aggregates.finishRebuild(List.of(antes));
+
+        assertEquals(expected(Map.of("AN-1", depois, "AN-2", nova), today), aggregates.snapshot(today));
+    }
+
+    @Test
+    void emptyMirrorMatchesFullRecompute() {
+        LocalDate today = LocalDate.now();
+        DashboardAggregates aggregates = new DashboardAggregates();
+        aggregates.beginRebuild();
+        aggregates.finishRebuild(List.of());
+
+        assertEquals(DashboardStatsReferencia.calcular(List.of()), aggregates.snapshot(today));
+    }
+
+    // A referência usa LocalDate.now(); as datas de prazo são deslocadas para o mesmo referencial
+    private Object expected(Map<String, IssueSummary> mirror, LocalDate today) {
+        long shift = LocalDate.now().toEpochDay() - today.toEpochDay();
+        List<IssueSummary> shifted = mirror.values().stream()
+                .map(i -> issue(i.key(), i.status(), shiftDate(i.duedate(), shift)))
+                .toList();
+        return DashboardStatsReferencia.calcular(shifted);
+    }
+
+    private static String shiftDate(String date, long days) {
+        if (date == null || date.isBlank() || date.equals("invalida")) {
+            return date;
+        }
+        return LocalDate.parse(date).plusDays(days).toString();
+    }
+
+    private static IssueSummary randomIssue(Random random, String key, LocalDate today) {
+        String status = STATUS[random.nextInt(STATUS.length)];
+        String due = switch (random.nextInt(100)) {
+            case 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 -> null;
+            case 10 -> "invalida";
+            default -> today.plusDays(random.nextInt(21) - 10).toString();
+        };
+        return issue(key, status, due);
+    }
+
+    private static IssueSummary issue(String key, String status, String duedate) {
+        return new IssueSummary(key, "resumo", status, null, "AN", "Task", null, null, duedate);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.DashboardStatsDTO;
+import com.example.demo.DTO.IssueSummary;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Agregação completa do dashboard sobre a lista de issues, como era feita antes dos agregados
+ * incrementais. Referência para o {@link DashboardAggregatesTest} e linha de base do
+ * DashboardAggregationBenchmark.
+ */
+public final class DashboardStatsReferencia {
+
+    private DashboardStatsReferencia() {
+    }
+
+    // Prazos comparados com LocalDate.now()
+    public static DashboardStatsDTO calcular(List<IssueSummary> allIssues) {
+        DashboardStatsDTO stats = new DashboardStatsDTO();
+
+        if (allIssues == null || allIssues.isEmpty()) {
+            stats.setTotalTasks(0);
+            stats.setProgressPercentage(0.0);
+            return stats;
+        }
+
+        int total = allIssues.size();
+        stats.setTotalTasks(total);
+
+        Map<String, Long> tasksByStatus = allIssues.stream()
+                .collect(Collectors.groupingBy(
+                        issue -> (issue.status() != null && !issue.status().isBlank())
+                                ? issue.status()
+                                : "Sem Status",
+                        Collectors.counting()
+                ));
+
+        stats.setTasksByStatus(tasksByStatus);
+
+        int completed = tasksByStatus.getOrDefault("Done", 0L).intValue();
+        stats.setCompletedTasks(completed);
+        stats.setInProgressTasks(tasksByStatus.getOrDefault("In Progress", 0L).intValue());
+        stats.setTodoTasks(tasksByStatus.getOrDefault("To Do", 0L).intValue());
+
+        LocalDate today = LocalDate.now();
+        int delayed = (int) allIssues.stream().filter(issue -> {
+            boolean isOverdue = false;
+
+            if (issue.duedate() != null && !issue.duedate().isBlank()) {
+                try {
+                    isOverdue = LocalDate.parse(issue.duedate()).isBefore(today);
+                } catch (DateTimeParseException ignored) {
+                    // Prazo ilegível não conta como atraso
+                }
+            }
+
+            return isOverdue && !"Done".equalsIgnoreCase(issue.status());
+        }).count();
+
+        stats.setDelayedTasks(delayed);
+        stats.setProgressPercentage(((double) completed / total) * 100.0);
+        return stats;
+    }
+}
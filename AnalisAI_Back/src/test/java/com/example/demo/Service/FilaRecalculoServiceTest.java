@@ -0,0 +1,121 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Projeto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilaRecalculoServiceTest {
+
+    // Conta recálculos por projeto; o projeto 99 não existe
+    private final Map<Long, AtomicInteger> recalculos = new ConcurrentHashMap<>();
+    private final ProjetoService projetoService = new ProjetoService() {
+        @Override
+        public Projeto recalcularPrazoOtimizado(Long id) {
+            if (id == 99L) {
+                throw new RuntimeException("Projeto não encontrado com ID: " + id);
+            }
+            recalculos.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+            Projeto projeto = new Projeto();
+            projeto.setId(id);
+            projeto.setPrazoOtimizado(LocalDate.now().plusDays(id));
+            return projeto;
+        }
+    };
+
+    private FilaRecalculoService fila;
+
+    @AfterEach
+    void encerrar() {
+        fila.encerrar();
+    }
+
+    @Test
+    void rajadaDeAlteracoesViraUmRecalculoPorProjeto() throws Exception {
+        fila = new FilaRecalculoService(projetoService, new SimpleMeterRegistry(), 100, 5000, 60000);
+
+        for (int i = 0; i < 50; i++) {
+            fila.marcar(1L);
+            if (i % 10 == 0) {
+                fila.marcar(2L);
+            }
+        }
+        assertTrue(fila.situacao(1L).pendente());
+
+        FilaRecalculoService.Situacao situacao = fila.aguardar(1L, Duration.ofSeconds(5));
+        assertFalse(situacao.pendente());
+        assertEquals(50, situacao.versaoCalculada());
+        assertEquals(LocalDate.now().plusDays(1), situacao.prazoOtimizado());
+        assertFalse(fila.aguardar(2L, Duration.ofSeconds(5)).pendente());
+
+        assertEquals(1, recalculos.get(1L).get());
+        assertEquals(1, recalculos.get(2L).get());
+    }
+
+    @Test
+    void alteracoesContinuasRespeitamEsperaMaxima() throws Exception {
+        fila = new FilaRecalculoService(projetoService, new SimpleMeterRegistry(), 100, 300, 60000);
+
+        // Uma alteração a cada 20 ms por ~600 ms: a janela nunca fecha, a espera máxima força o recálculo
+        long inicio = System.nanoTime();
+        while (System.nanoTime() - inicio < Duration.ofMillis(600).toNanos()) {
+            fila.marcar(1L);
+            Thread.sleep(20);
+        }
+        assertNotNull(recalculos.get(1L));
+        assertTrue(recalculos.get(1L).get() >= 1);
+
+        FilaRecalculoService.Situacao situacao = fila.aguardar(1L, Duration.ofSeconds(5));
+        assertFalse(situacao.pendente());
+        assertEquals(situacao.versaoMarcada(), situacao.versaoCalculada());
+    }
+
+    @Test
+    void falhaNoRecalculoNaoPrendeQuemEspera() throws Exception {
+        fila = new FilaRecalculoService(projetoService, new SimpleMeterRegistry(), 50, 1000, 60000);
+
+        fila.marcar(99L);
+        FilaRecalculoService.Situacao situacao = fila.aguardar(99L, Duration.ofSeconds(5));
+        assertFalse(situacao.pendente());
+        assertTrue(situacao.ultimoErro().contains("não encontrado"));
+
+        // Tempo esgotado: devolve a situação ainda pendente
+        fila.marcar(1L);
+        assertTrue(fila.aguardar(1L, Duration.ofMillis(10)).pendente());
+    }
+
+    @Test
+    void projetoEmDiaSaiDaMemoriaDepoisDaRetencao() throws Exception {
+        fila = new FilaRecalculoService(projetoService, new SimpleMeterRegistry(), 20, 100, 200);
+
+        fila.marcar(1L);
+        fila.marcar(99L);
+        assertEquals(2, fila.snapshot().get("projetos"));
+        assertEquals(LocalDate.now().plusDays(1), fila.aguardar(1L, Duration.ofSeconds(5)).prazoOtimizado());
+
+        // Durante a retenção a situação continua consultável; depois, o projeto (e o excluído) saem do mapa
+        assertEquals(1, fila.situacao(1L).versaoCalculada());
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while ((int) fila.snapshot().get("projetos") > 0) {
+            assertTrue(System.nanoTime() < limite, "estados não descartados");
+            Thread.sleep(20);
+        }
+        assertEquals(0, fila.situacao(1L).versaoMarcada());
+
+        // Uma alteração nova recomeça do zero e é recalculada normalmente
+        assertEquals(1, fila.marcar(1L));
+        assertFalse(fila.aguardar(1L, Duration.ofSeconds(5)).pendente());
+        assertEquals(2, recalculos.get(1L).get());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.AnaliseTarefaRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeminiRequestEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AnaliseIaService service =
+            new AnaliseIaService(WebClient.builder(), objectMapper, null, null, null, 20, 8000, 4, 90000);
+
+    @Test
+    void encodeEquivaleAoPayloadSerializadoPeloJackson() throws Exception {
+        List<AnaliseTarefaRequest> requests = List.of(
+                request("PROJ-1", "Ajustar folha de pagamento", "To Do", "Maria"),
+                request("PROJ-2", "Aspas \"duplas\", barra \\ e /", "In Progress", null),
+                request("PROJ-3", "Linha 1\nLinha 2\r\n\tTab \b\f \u0001 \u001f", "Done", "João"),
+                request("PROJ-4", "Acentuação: ção, ü, ñ — € ✓ 日本語", "Em revisão", "Zoë"),
+                request("PROJ-5", "Emoji 🚀👩‍💻 e %s literal", "To Do", ""),
+                request("PROJ-6", "x".repeat(20_000), "To Do", "Ana")
+        );
+
+        for (AnaliseTarefaRequest request : requests) {
+            byte[] esperado = objectMapper.writeValueAsBytes(AnalisePayloadMap.payload(service, request));
+            byte[] gerado = service.encodeAnalysisPayload(request);
+
+            assertEquals(objectMapper.readTree(esperado), objectMapper.readTree(gerado), request.key());
+        }
+    }
+
+    private static AnaliseTarefaRequest request(String key, String summary, String status, String assignee) {
+        return new AnaliseTarefaRequest("Task", "2024-01-01", "2024-02-01", assignee, key, summary, status, List.of());
+    }
+}
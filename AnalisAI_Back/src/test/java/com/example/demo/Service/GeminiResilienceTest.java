@@ -0,0 +1,124 @@
+package com.example.demo.Service;
+
+import com.example.demo.Service.GeminiResilience.Operacao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiResilienceTest {
+
+    // janela 10, abre com 50% de falhas em 4+ chamadas, 200 ms aberto, 2 sondas; orçamento de 300 ms
+    private static GeminiResilience resilience(boolean hedge) {
+        return new GeminiResilience(new SimpleMeterRegistry(), 10, 4, 0.5, 200, 2,
+                hedge, 0.9, 0.5, 20, 300, 300, 300, 300, 300, 300);
+    }
+
+    private static final Mono<String> ERRO_503 =
+            Mono.error(new GeminiResilience.ErroHttpException(503, "Erro 503 Gemini"));
+
+    @Test
+    void circuitoAbreRejeitaEFechaDepoisDasSondas() throws Exception {
+        GeminiResilience resilience = resilience(false);
+        AtomicInteger chamadas = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class,
+                    () -> resilience.executar(Operacao.CHAT, () -> ERRO_503.doOnSubscribe(s -> chamadas.incrementAndGet())).block());
+        }
+        assertEquals("ABERTO", resilience.snapshot().get("circuito"));
+
+        // Aberto: nem chega ao Gemini
+        RuntimeException rejeitada = assertThrows(RuntimeException.class,
+                () -> resilience.executar(Operacao.CHAT, () -> Mono.just("ok").doOnSubscribe(s -> chamadas.incrementAndGet())).block());
+        assertInstanceOf(GeminiResilience.CircuitoAbertoException.class, rejeitada);
+        assertTrue(GeminiResilience.indisponivel(rejeitada));
+        assertEquals(4, chamadas.get());
+
+        // Meio-aberto: duas sondas com sucesso fecham o circuito
+        Thread.sleep(250);
+        assertEquals("ok", resilience.executar(Operacao.CHAT, () -> Mono.just("ok")).block());
+        assertEquals("MEIO_ABERTO", resilience.snapshot().get("circuito"));
+        assertEquals("ok", resilience.executar(Operacao.CHAT, () -> Mono.just("ok")).block());
+        assertEquals("FECHADO", resilience.snapshot().get("circuito"));
+    }
+
+    @Test
+    void sondaComFalhaReabreEErro4xxNaoConta() throws Exception {
+        GeminiResilience resilience = resilience(false);
+
+        // 400 é erro de quem chamou: o circuito continua fechado
+        for (int i = 0; i < 6; i++) {
+            assertThrows(RuntimeException.class, () -> resilience.executar(Operacao.ANALISE,
+                    () -> Mono.<String>error(new GeminiResilience.ErroHttpException(400, "Erro 400 Gemini"))).block());
+        }
+        assertEquals("FECHADO", resilience.snapshot().get("circuito"));
+
+        for (int i = 0; i < 6; i++) {
+            assertThrows(RuntimeException.class, () -> resilience.executar(Operacao.ANALISE, () -> ERRO_503).block());
+        }
+        assertEquals("ABERTO", resilience.snapshot().get("circuito"));
+
+        Thread.sleep(250);
+        assertThrows(RuntimeException.class, () -> resilience.executar(Operacao.ANALISE, () -> ERRO_503).block());
+        assertEquals("ABERTO", resilience.snapshot().get("circuito"));
+        assertEquals(2L, resilience.snapshot().get("aberturas"));
+    }
+
+    @Test
+    void orcamentoEstouradoViraTimeoutEContaComoFalha() {
+        GeminiResilience resilience = resilience(false);
+
+        RuntimeException erro = assertThrows(RuntimeException.class, () -> resilience.executar(Operacao.LOTE,
+                () -> Mono.delay(Duration.ofSeconds(5)).thenReturn("tarde")).block());
+        assertInstanceOf(TimeoutException.class, erro.getCause());
+        assertTrue(GeminiResilience.indisponivel(erro));
+
+        // Fluxo: orçamento para o primeiro pedaço
+        List<String> pedacos = resilience.executarStream(Operacao.CHAT_STREAM,
+                        () -> Flux.just("a", "b").delayElements(Duration.ofMillis(10)))
+                .collectList().block();
+        assertEquals(List.of("a", "b"), pedacos);
+        assertThrows(RuntimeException.class, () -> resilience.executarStream(Operacao.CHAT_STREAM,
+                () -> Flux.just("a").delaySequence(Duration.ofSeconds(5))).blockLast());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> lote = (Map<String, Object>) ((Map<String, Object>) resilience.snapshot().get("operacoes")).get("lote");
+        assertEquals(1L, lote.get("estouros"));
+    }
+
+    @Test
+    void hedgeVenceChamadaLentaMasNaoRepeteFalhaRapida() {
+        GeminiResilience resilience = resilience(true);
+        for (int i = 0; i < 30; i++) {
+            resilience.executar(Operacao.CHAT, () -> Mono.just("rápida").delayElement(Duration.ofMillis(5))).block();
+        }
+
+        // Primeira chamada fica presa; a segunda (hedge) responde logo
+        AtomicInteger tentativas = new AtomicInteger();
+        String resposta = resilience.executar(Operacao.CHAT, () -> tentativas.incrementAndGet() == 1
+                ? Mono.<String>never()
+                : Mono.just("hedge")).block(Duration.ofSeconds(2));
+        assertEquals("hedge", resposta);
+        assertEquals(1L, resilience.snapshot().get("hedgesVencedores"));
+
+        // Falha antes do atraso do hedge: o erro sai direto, sem segunda chamada
+        AtomicInteger falhas = new AtomicInteger();
+        RuntimeException erro = assertThrows(RuntimeException.class, () -> resilience.executar(Operacao.CHAT,
+                () -> Mono.<String>error(new GeminiResilience.ErroHttpException(400, "Erro 400 Gemini"))
+                        .doOnSubscribe(s -> falhas.incrementAndGet())).block());
+        assertEquals("Erro 400 Gemini", erro.getMessage());
+        assertEquals(1, falhas.get());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.TarefaDetalhe;
+import com.example.demo.Model.Projeto;
+import com.example.demo.Model.Tarefa;
+import com.example.demo.Repository.ProjetoRepository;
+import com.example.demo.Repository.TarefaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "tarefas.importacao.tamanho-lote=2")
+class ImportacaoTarefasServiceTest {
+
+    @Autowired
+    private ImportacaoTarefasService importacao;
+
+    @Autowired
+    private ProjetoRepository projetoRepository;
+
+    @Autowired
+    private TarefaRepository tarefaRepository;
+
+    @Autowired
+    private TarefaService tarefaService;
+
+    @Autowired
+    private ProjetoService projetoService;
+
+    @Test
+    void importaArrayENdjsonERecalculaCadaProjeto() {
+        Long a = novoProjeto("A");
+        Long b = novoProjeto("B");
+        Tarefa base = new Tarefa();
+        base.setNome("Base");
+        base.setDuracaoDias(4);
+        base.setProjeto(projetoRepository.getReferenceById(a));
+        Long baseId = tarefaService.salvarTarefa(base).getId();
+
+        ImportacaoTarefasService.Resultado array = importacao.importar(corpo("""
+                [
+                  {"nome": "Depois da base", "duracaoDias": 3, "projetoId": %d, "dependencias": [%d]},
+                  {"nome": "Paralela", "duracaoDias": 5, "projetoId": %d},
+                  {"nome": "Outra", "duracaoDias": 2, "gargalo": true, "projetoId": %d}
+                ]""".formatted(a, baseId, a, b)));
+        assertEquals(3, array.tarefas());
+        assertEquals(2, array.projetos());
+        assertEquals(2, array.lotes());
+
+        // Base (4) -> Depois da base (3) é o caminho crítico de A; gargalo soma 3 dias em B
+        assertEquals(LocalDate.now().plusDays(7), projetoService.buscarPorId(a).getPrazoOtimizado());
+        assertEquals(LocalDate.now().plusDays(5), projetoService.buscarPorId(b).getPrazoOtimizado());
+        List<TarefaDetalhe> doProjeto = tarefaService.listarDoProjeto(a);
+        assertEquals(3, doProjeto.size());
+        assertEquals(Set.of(baseId), doProjeto.get(1).dependencias());
+
+        ImportacaoTarefasService.Resultado ndjson = importacao.importar(corpo(
+                "{\"nome\": \"N1\", \"duracaoDias\": 9, \"projetoId\": " + b + "}\n"
+                        + "{\"nome\": \"N2\", \"duracaoDias\": 1, \"projetoId\": " + b + "}\n"));
+        assertEquals(2, ndjson.tarefas());
+        assertEquals(1, ndjson.lotes());
+        assertEquals(LocalDate.now().plusDays(9), projetoService.buscarPorId(b).getPrazoOtimizado());
+        assertEquals(3, tarefaService.listarDoProjeto(b).size());
+    }
+
+    @Test
+    void itemInvalidoDesfazAImportacaoInteira() {
+        Long projeto = novoProjeto("C");
+        long antes = tarefaRepository.count();
+
+        // Os dois primeiros itens já foram gravados (um lote) quando o terceiro falha
+        ResponseStatusException erro = assertThrows(ResponseStatusException.class, () -> importacao.importar(corpo("""
+                {"nome": "1", "projetoId": %d}
+                {"nome": "2", "projetoId": %d}
+                {"nome": "3", "projetoId": 999999}
+                """.formatted(projeto, projeto))));
+        assertEquals(HttpStatus.BAD_REQUEST, erro.getStatusCode());
+        assertTrue(erro.getReason().startsWith("Item 3:"), erro.getReason());
+        assertEquals(antes, tarefaRepository.count());
+
+        erro = assertThrows(ResponseStatusException.class, () -> importacao.importar(corpo(
+                "[{\"nome\": \"1\", \"projetoId\": " + projeto + "}, {\"nome\": ")));
+        assertEquals(HttpStatus.BAD_REQUEST, erro.getStatusCode());
+        assertTrue(erro.getReason().startsWith("Item 2: JSON inválido"), erro.getReason());
+        assertEquals(antes, tarefaRepository.count());
+
+        erro = assertThrows(ResponseStatusException.class, () -> importacao.importar(corpo(
+                "[{\"nome\": \"1\", \"projetoId\": " + projeto + ", \"dependencias\": [123456789]}]")));
+        assertTrue(erro.getReason().contains("dependência 123456789"), erro.getReason());
+        assertEquals(antes, tarefaRepository.count());
+    }
+
+    private Long novoProjeto(String nome) {
+        Projeto projeto = new Projeto();
+        projeto.setNome(nome);
+        return projetoRepository.save(projeto).getId();
+    }
+
+    private static InputStream corpo(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JiraClientTest {
+
+    private static final String JQL = "project = AP ORDER BY updated DESC";
+    private static final Pattern INFERIOR = Pattern.compile("created >= \"([^\"]+)\"");
+    private static final Pattern SUPERIOR = Pattern.compile("created < \"([^\"]+)\"");
+    private static final DateTimeFormatter FORMATO_JQL = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+
+    private final JiraClient client = new JiraClient(
+            WebClient.builder().build(),
+            new JiraRequestGovernor(new SimpleMeterRegistry(), 10, 1, 20, 4, 1, 16, 1500, 5, 500, 30000, 120000),
+            new JiraIssueStreamExtractor(new ObjectMapper()),
+            "user", "token", JQL, 50, 8, 4);
+
+    // Uma fatia do created: [inferior, superior), com null para o lado aberto
+    private record Fatia(Instant inferior, Instant superior) {
+        boolean contem(Instant created) {
+            return (inferior == null || !created.isBefore(inferior)) && (superior == null || created.isBefore(superior));
+        }
+    }
+
+    @Test
+    void fatiasSaoContiguasDisjuntasECobremTudo() {
+        Instant de = Instant.parse("2023-03-14T10:17:42.123Z");
+        Instant ate = Instant.parse("2025-10-24T14:21:43.226Z");
+
+        List<String> jqls = client.partitionJql(de, ate, 8);
+        assertEquals(8, jqls.size());
+        jqls.forEach(jql -> {
+            assertTrue(jql.startsWith("(project = AP) AND created "), jql);
+            assertTrue(jql.endsWith(" ORDER BY updated DESC"), jql);
+        });
+
+        List<Fatia> fatias = fatias(jqls);
+        assertNull(fatias.get(0).inferior());
+        assertNull(fatias.get(fatias.size() - 1).superior());
+        for (int i = 1; i < fatias.size(); i++) {
+            // Cada fatia começa exatamente onde a anterior termina
+            assertEquals(fatias.get(i - 1).superior(), fatias.get(i).inferior());
+            if (fatias.get(i - 1).inferior() != null) {
+                assertTrue(fatias.get(i).inferior().isAfter(fatias.get(i - 1).inferior()));
+            }
+        }
+
+        // Qualquer data (inclusive antes de "de", depois de "ate" e em cima dos limites) cai em exatamente uma fatia
+        Random random = new Random(42);
+        long inicio = de.minus(Duration.ofDays(30)).toEpochMilli();
+        long fim = ate.plus(Duration.ofDays(30)).toEpochMilli();
+        for (int i = 0; i < 20_000; i++) {
+            assertUmaFatia(fatias, Instant.ofEpochMilli(inicio + (long) (random.nextDouble() * (fim - inicio))));
+        }
+        for (Fatia fatia : fatias) {
+            if (fatia.inferior() != null) {
+                assertUmaFatia(fatias, fatia.inferior());
+                assertUmaFatia(fatias, fatia.inferior().minusMillis(1));
+            }
+        }
+    }
+
+    @Test
+    void intervaloCurtoJuntaLimitesRepetidos() {
+        // 3 minutos em 8 fatias: limites com precisão de minuto se repetem e viram menos fatias
+        Instant de = Instant.parse("2025-01-01T00:00:10Z");
+        List<Fatia> fatias = fatias(client.partitionJql(de, de.plus(Duration.ofMinutes(3)), 8));
+        assertTrue(fatias.size() < 8);
+        for (int i = 1; i < fatias.size(); i++) {
+            assertEquals(fatias.get(i - 1).superior(), fatias.get(i).inferior());
+        }
+        for (int s = -120; s < 400; s++) {
+            assertUmaFatia(fatias, de.plusSeconds(s));
+        }
+
+        // Sem intervalo: uma fatia aberta de cada lado do mesmo limite
+        fatias = fatias(client.partitionJql(de, de, 8));
+        assertEquals(2, fatias.size());
+        assertEquals(fatias.get(0).superior(), fatias.get(1).inferior());
+    }
+
+    @Test
+    void umaFatiaDevolveOJqlPadrao() {
+        assertEquals(List.of(JQL), client.partitionJql(Instant.EPOCH, Instant.now(), 1));
+    }
+
+    private static List<Fatia> fatias(List<String> jqls) {
+        return jqls.stream().map(jql -> new Fatia(limite(INFERIOR, jql), limite(SUPERIOR, jql))).toList();
+    }
+
+    // Datas do JQL em UTC com precisão de minuto (formato usado em partitionJql)
+    private static Instant limite(Pattern pattern, String jql) {
+        Matcher matcher = pattern.matcher(jql);
+        if (!matcher.find()) {
+            return null;
+        }
+        Instant limite = LocalDateTime.parse(matcher.group(1), FORMATO_JQL).toInstant(ZoneOffset.UTC);
+        assertNotNull(limite);
+        return limite;
+    }
+
+    private static void assertUmaFatia(List<Fatia> fatias, Instant created) {
+        long dentro = fatias.stream().filter(f -> f.contem(created)).count();
+        assertEquals(1, dentro, "created " + created + " está em " + dentro + " fatias");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.DTO.JiraSearchJqlResponse;
+import com.example.demo.DTO.JiraSummaryPage;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JiraIssueStreamExtractorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JiraIssueStreamExtractor extractor = new JiraIssueStreamExtractor(mapper);
+
+    @Test
+    void issuesDoFixtureSaemIguaisAoCaminhoTipado() throws Exception {
+        // issues.json na raiz do módulo (UTF-16; o Jackson detecta pelo BOM)
+        List<Map<String, Object>> issues = mapper.readValue(new File("issues.json"), new TypeReference<>() {});
+        assertFalse(issues.isEmpty());
+
+        Map<String, Object> pagina = new LinkedHashMap<>();
+        pagina.put("expand", "names,schema");
+        pagina.put("issues", issues);
+        pagina.put("nextPageToken", "abc");
+        pagina.put("isLast", false);
+        byte[] conteudo = mapper.writeValueAsBytes(pagina);
+
+        JiraSummaryPage extraida = extractor.extractPage(conteudo);
+        assertEquals(tipado(conteudo), extraida.issues());
+        assertEquals(issues.size(), extraida.issues().size());
+        assertEquals("abc", extraida.nextPageToken());
+        assertEquals(Boolean.FALSE, extraida.isLast());
+    }
+
+    @Test
+    void casosDeBordaSaemIguaisAoCaminhoTipado() throws Exception {
+        String json = """
+                {
+                  "names": {"summary": "Resumo", "lista": [1, [2, 3], {"x": null}]},
+                  "issues": [
+                    {
+                      "id": "1", "key": "AP-1", "self": "https://jira/1",
+                      "fields": {
+                        "summary": "Sem responsável, duedate nulo",
+                        "status": {"self": "s", "statusCategory": {"key": "new", "colorName": "blue"}, "name": "To Do"},
+                        "assignee": null,
+                        "duedate": null,
+                        "labels": ["a", "b", {"c": [1, 2]}],
+                        "customfield_10020": [{"id": 1, "sprint": {"name": "S1", "goal": null}}],
+                        "project": {"avatarUrls": {"48x48": "u"}, "name": "Projeto A", "key": "AP"},
+                        "issuetype": {"name": "Bug", "subtask": false},
+                        "created": "2025-10-24T11:21:43.226-0300",
+                        "updated": "2025-10-25T11:21:43.226-0300"
+                      }
+                    },
+                    {
+                      "key": "AP-2",
+                      "fields": {
+                        "assignee": {"accountId": "x", "avatarUrls": {"16x16": "a"}, "displayName": "Maria", "active": true},
+                        "summary": "Sem duedate",
+                        "status": {"name": "Done"},
+                        "updated": "2025-10-26T00:00:00.000-0300"
+                      }
+                    },
+                    {"key": "AP-3", "fields": null},
+                    {"key": "AP-4", "changelog": {"histories": [{"items": []}]}}
+                  ],
+                  "isLast": true
+                }
+                """;
+        byte[] conteudo = json.getBytes(StandardCharsets.UTF_8);
+
+        JiraSummaryPage pagina = extractor.extractPage(conteudo);
+        assertEquals(tipado(conteudo), pagina.issues());
+        assertNull(pagina.nextPageToken());
+        assertTrue(pagina.isLast());
+
+        List<IssueSummary> issues = pagina.issues();
+        assertEquals(new IssueSummary("AP-1", "Sem responsável, duedate nulo", "To Do", null, "Projeto A", "Bug",
+                "2025-10-24T11:21:43.226-0300", "2025-10-25T11:21:43.226-0300", null), issues.get(0));
+        assertEquals(new IssueSummary("AP-2", "Sem duedate", "Done", "Maria", null, null, null,
+                "2025-10-26T00:00:00.000-0300", null), issues.get(1));
+        assertEquals("Sem fields na resposta", issues.get(2).summary());
+        assertEquals("Sem fields na resposta", issues.get(3).summary());
+    }
+
+    @Test
+    void elementoQueNaoEObjetoNaoCortaAPagina() throws Exception {
+        byte[] conteudo = """
+                {
+                  "issues": [
+                    {"key": "AP-1", "fields": {"summary": "Um"}},
+                    null,
+                    7,
+                    ["x", {"key": "AP-9"}],
+                    {"key": "AP-2", "fields": {"summary": "Dois"}}
+                  ],
+                  "nextPageToken": "tok-2",
+                  "isLast": false
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        JiraSummaryPage pagina = extractor.extractPage(conteudo);
+        assertEquals(List.of("AP-1", "AP-2"), pagina.issues().stream().map(IssueSummary::key).toList());
+        assertEquals("tok-2", pagina.nextPageToken());
+        assertEquals(Boolean.FALSE, pagina.isLast());
+    }
+
+    @Test
+    void paginaSemIssues() throws Exception {
+        byte[] conteudo = "{\"issues\": [], \"isLast\": true}".getBytes(StandardCharsets.UTF_8);
+
+        JiraSummaryPage pagina = extractor.extractPage(conteudo);
+        assertTrue(pagina.issues().isEmpty());
+        assertEquals(tipado(conteudo), pagina.issues());
+        assertTrue(pagina.isLast());
+    }
+
+    // Caminho anterior: databind em JiraSearchJqlResponse + JiraIssueTipado
+    private List<IssueSummary> tipado(byte[] conteudo) throws Exception {
+        return mapper.readValue(conteudo, JiraSearchJqlResponse.class).issues().stream()
+                .map(JiraIssueTipado::convertToSummary)
+                .toList();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.IssueSummary;
+import com.example.demo.DTO.JiraIssue;
+import com.example.demo.DTO.JiraIssueFields;
+
+/**
+ * Conversão JiraIssue → IssueSummary do caminho tipado (databind em JiraSearchJqlResponse), usado
+ * antes do {@link JiraIssueStreamExtractor}. Referência do JiraIssueStreamExtractorTest e linha de
+ * base do JiraIssueDecodingBenchmark.
+ */
+public final class JiraIssueTipado {
+
+    private JiraIssueTipado() {
+    }
+
+    public static IssueSummary convertToSummary(JiraIssue issue) {
+        String key = issue.key();
+        JiraIssueFields fields = issue.fields();
+
+        if (fields == null) {
+            return new IssueSummary(key != null ? key : "?",
+                    "Sem fields na resposta", null, null, null, null, null, null, null);
+        }
+
+        return new IssueSummary(
+                key,
+                fields.summary(),
+                fields.status() != null ? fields.status().name() : null,
+                fields.assignee() != null ? fields.assignee().displayName() : null,
+                fields.project() != null ? fields.project().name() : null,
+                fields.issuetype() != null ? fields.issuetype().name() : null,
+                fields.created(),
+                fields.updated(),
+                fields.duedate()
+        );
+    }
+}
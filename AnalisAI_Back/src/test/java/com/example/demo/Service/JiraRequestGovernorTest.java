@@ -0,0 +1,218 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.JiraSummaryPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JiraRequestGovernorTest {
+
+    private static final String PAGINA = """
+            {"issues": [{"key": "AP-9", "fields": {"summary": "Nove"}}], "nextPageToken": "tok-3", "isLast": false}
+            """;
+
+    // Cada requisição recebida pelo Jira falso: corpo e instante de chegada
+    private record Requisicao(String corpo, long nanos) {}
+
+    private final List<Requisicao> requisicoes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void retryAfterEmSegundosOuDataHttp() {
+        assertEquals(Duration.ofSeconds(2), JiraRequestGovernor.parseRetryAfter("2"));
+        assertEquals(Duration.ZERO, JiraRequestGovernor.parseRetryAfter("-5"));
+
+        String daqui10s = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(10));
+        Duration ate = JiraRequestGovernor.parseRetryAfter(daqui10s);
+        assertTrue(ate.compareTo(Duration.ofSeconds(8)) >= 0 && ate.compareTo(Duration.ofSeconds(10)) <= 0, ate.toString());
+
+        String passado = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+        assertEquals(Duration.ZERO, JiraRequestGovernor.parseRetryAfter(passado));
+
+        assertNull(JiraRequestGovernor.parseRetryAfter("amanhã"));
+        assertNull(JiraRequestGovernor.parseRetryAfter(" "));
+        assertNull(JiraRequestGovernor.parseRetryAfter(null));
+    }
+
+    @Test
+    void status429EsperaRetryAfterERepeteAMesmaPagina() {
+        AtomicInteger chamadas = new AtomicInteger();
+        JiraRequestGovernor governor = governor(10, 20, 4, 4, 3);
+        JiraClient client = client(governor, n -> chamadas.incrementAndGet() == 1
+                ? resposta(HttpStatus.TOO_MANY_REQUESTS, "2")
+                : resposta(HttpStatus.OK, null));
+
+        JiraSummaryPage pagina = client.searchPage("project = AP", "tok-2").block();
+
+        assertEquals("tok-3", pagina.nextPageToken());
+        assertEquals(2, requisicoes.size());
+        // A retentativa continua do cursor da página que falhou
+        requisicoes.forEach(r -> assertTrue(r.corpo().contains("\"nextPageToken\":\"tok-2\""), r.corpo()));
+        long intervaloMs = (requisicoes.get(1).nanos() - requisicoes.get(0).nanos()) / 1_000_000;
+        assertTrue(intervaloMs >= 1900, "retentativa após " + intervaloMs + " ms");
+
+        // 429 corta a concorrência e a taxa pela metade
+        Map<String, Object> estado = governor.snapshot();
+        assertEquals(1L, estado.get("throttled"));
+        assertEquals(1L, estado.get("retries"));
+        assertEquals(2.0, estado.get("concurrencyLimit"));
+        assertTrue((double) estado.get("ratePerSecond") < 10);
+    }
+
+    @Test
+    void status429PausaAsOutrasChamadas() throws Exception {
+        CountDownLatch limitado = new CountDownLatch(1);
+        AtomicInteger chamadas = new AtomicInteger();
+        JiraRequestGovernor governor = governor(10, 20, 4, 4, 3);
+        WebClient webClient = webClient(n -> {
+            if (chamadas.incrementAndGet() == 1) {
+                limitado.countDown();
+                return resposta(HttpStatus.TOO_MANY_REQUESTS, "1");
+            }
+            return resposta(HttpStatus.OK, null);
+        });
+
+        CompletableFuture<String> primeira = governor.execute("search/jql",
+                () -> webClient.get().uri("/a").retrieve().bodyToMono(String.class)).toFuture();
+        assertTrue(limitado.await(5, TimeUnit.SECONDS));
+        long limitadoEm = System.nanoTime();
+        Thread.sleep(100);
+
+        // Outra operação, chamada durante a pausa, só roda depois do prazo do Retry-After
+        long executadaEm = governor.execute("myself", () -> Mono.fromCallable(System::nanoTime)).block();
+        long esperaMs = (executadaEm - limitadoEm) / 1_000_000;
+        assertTrue(esperaMs >= 900, "executada " + esperaMs + " ms após o 429");
+        primeira.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void retentativasAcabamNoLimiteComOErroDoJira() {
+        JiraRequestGovernor governor = governor(100, 100, 4, 4, 2);
+        JiraClient client = client(governor, n -> resposta(HttpStatus.BAD_GATEWAY, null));
+
+        WebClientResponseException erro = assertThrows(WebClientResponseException.class,
+                () -> client.searchPage("project = AP", "tok-5").block());
+        assertEquals(502, erro.getStatusCode().value());
+        assertEquals(3, requisicoes.size());
+        requisicoes.forEach(r -> assertTrue(r.corpo().contains("\"nextPageToken\":\"tok-5\""), r.corpo()));
+        assertEquals(2L, governor.snapshot().get("retries"));
+        assertEquals(1L, governor.snapshot().get("failures"));
+
+        // Erro do cliente (400) não é retentado
+        requisicoes.clear();
+        JiraClient invalido = client(governor(100, 100, 4, 4, 2), n -> resposta(HttpStatus.BAD_REQUEST, null));
+        assertThrows(WebClientResponseException.BadRequest.class, () -> invalido.searchPage("x", null).block());
+        assertEquals(1, requisicoes.size());
+    }
+
+    @Test
+    void tokenBucketLimitaATaxa() {
+        // 5 req/s sem rajada: depois da primeira, cada chamada espera ~200 ms pelo token
+        JiraRequestGovernor governor = governor(5, 1, 4, 4, 0);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            governor.execute("myself", () -> Mono.just("ok")).block();
+        }
+        long decorridoMs = (System.nanoTime() - inicio) / 1_000_000;
+        assertTrue(decorridoMs >= 900, "6 chamadas em " + decorridoMs + " ms");
+    }
+
+    @Test
+    void limiteDeConcorrenciaSobeComSucessoECaiEm429() {
+        // Alvo de 70 ms: chamadas de 100 ms não mexem no limite (só acima de 140 ms ele cai)
+        JiraRequestGovernor governor = governor(1000, 1000, 2, 16, 0, 70);
+        AtomicInteger emVoo = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+
+        // Limite inicial 2: seis chamadas de 100 ms ao mesmo tempo nunca passam de duas em voo
+        Flux.range(0, 6)
+                .flatMap(i -> governor.execute("myself", () -> Mono.defer(() -> {
+                    maximo.accumulateAndGet(emVoo.incrementAndGet(), Math::max);
+                    return Mono.delay(Duration.ofMillis(100)).doOnTerminate(emVoo::decrementAndGet);
+                })))
+                .blockLast();
+        assertEquals(2, maximo.get());
+
+        // Aumento aditivo: +1/limite por chamada rápida
+        for (int i = 0; i < 10; i++) {
+            governor.execute("myself", () -> Mono.just("ok")).block();
+        }
+        double limite = (double) governor.snapshot().get("concurrencyLimit");
+        assertTrue(limite >= 4, "limite " + limite);
+
+        // Redução multiplicativa: 429 corta pela metade
+        WebClient webClient = webClient(n -> resposta(HttpStatus.TOO_MANY_REQUESTS, "0"));
+        assertThrows(WebClientResponseException.TooManyRequests.class, () -> governor.execute("search/jql",
+                () -> webClient.get().uri("/a").retrieve().bodyToMono(String.class)).block());
+        assertEquals(Math.floor(limite / 2), governor.snapshot().get("concurrencyLimit"));
+    }
+
+    private JiraRequestGovernor governor(double taxa, double rajada, int concorrencia, int maxConcorrencia, int retentativas) {
+        return governor(taxa, rajada, concorrencia, maxConcorrencia, retentativas, 1500);
+    }
+
+    private JiraRequestGovernor governor(double taxa, double rajada, int concorrencia, int maxConcorrencia, int retentativas,
+                                         long alvoLatenciaMs) {
+        return new JiraRequestGovernor(new SimpleMeterRegistry(), taxa, 1, rajada, concorrencia, 1, maxConcorrencia,
+                alvoLatenciaMs, retentativas, 10, 50, 120000);
+    }
+
+    private JiraClient client(JiraRequestGovernor governor, Function<Integer, Mono<ClientResponse>> respostas) {
+        return new JiraClient(webClient(respostas), governor, new JiraIssueStreamExtractor(new ObjectMapper()),
+                "user", "token", "project = AP ORDER BY updated DESC", 50, 1, 1);
+    }
+
+    // Jira falso: grava o corpo de cada requisição e responde conforme o número da chamada
+    private WebClient webClient(Function<Integer, Mono<ClientResponse>> respostas) {
+        ExchangeFunction jira = request -> {
+            long chegada = System.nanoTime();
+            MockClientHttpRequest gravada = new MockClientHttpRequest(request.method(), request.url());
+            return request.writeTo(gravada, ExchangeStrategies.withDefaults())
+                    .then(Mono.defer(gravada::getBodyAsString))
+                    .defaultIfEmpty("")
+                    .flatMap(corpo -> {
+                        requisicoes.add(new Requisicao(corpo, chegada));
+                        return respostas.apply(requisicoes.size());
+                    });
+        };
+        return WebClient.builder().baseUrl("http://jira").exchangeFunction(jira).build();
+    }
+
+    private static Mono<ClientResponse> resposta(HttpStatus status, String retryAfter) {
+        ClientResponse.Builder builder = ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(status.is2xxSuccessful() ? PAGINA : "{\"errorMessages\": [\"" + status.getReasonPhrase() + "\"]}");
+        if (retryAfter != null) {
+            builder.header(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return Mono.just(builder.build());
+    }
+}
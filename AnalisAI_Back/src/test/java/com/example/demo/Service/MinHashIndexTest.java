@@ -0,0 +1,107 @@
+package com.example.demo.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashIndexTest {
+
+    private static final String[] PALAVRAS = {
+            "criar", "tela", "cadastro", "funcionario", "ajustar", "relatorio", "folha", "pagamento",
+            "integrar", "api", "beneficios", "revisar", "fluxo", "admissao", "documentar", "ferias",
+            "dashboard", "metricas", "pipeline", "deploy", "corrigir", "erro", "login", "exportar",
+            "planilha", "ponto", "eletronico", "treinamento", "avaliacao", "desempenho", "contrato"
+    };
+
+    @Test
+    void encontraResumoQuaseIgualEIgnoraDiferente() {
+        MinHashIndex<String> index = new MinHashIndex<>();
+        index.put("AP-1", "Criar tela de cadastro de funcionários", "a1");
+        index.put("AP-2", "Integrar API de benefícios", "a2");
+
+        Optional<MinHashIndex.Match<String>> match = index.maisSimilar("criar tela de Cadastro de funcionario!", 0.6);
+        assertTrue(match.isPresent());
+        assertEquals("AP-1", match.get().key());
+        assertEquals("a1", match.get().value());
+
+        assertFalse(index.maisSimilar("Exportar planilha de ponto eletrônico", 0.6).isPresent());
+    }
+
+    @Test
+    void putComMesmaChaveSubstituiEntradaAnterior() {
+        MinHashIndex<Integer> index = new MinHashIndex<>();
+        // Passa do limite de compactação várias vezes
+        for (int i = 0; i < 5000; i++) {
+            index.put("AP-" + (i % 3), "Ajustar relatório de folha versão " + i, i);
+        }
+        assertEquals(3, index.size());
+
+        Optional<MinHashIndex.Match<Integer>> match = index.maisSimilar("Ajustar relatório de folha versão 4999", 0.99);
+        assertTrue(match.isPresent());
+        assertEquals(4999, match.get().value());
+        assertFalse(index.maisSimilar("Ajustar relatório de folha versão 10", 0.99).isPresent());
+    }
+
+    @Test
+    void recallProximoDaBuscaExaustiva() {
+        Random random = new Random(7);
+        MinHashIndex<Integer> index = new MinHashIndex<>();
+        Map<String, String> resumos = new LinkedHashMap<>();
+        for (int i = 0; i < 1500; i++) {
+            String resumo = frase(random, 4 + random.nextInt(4));
+            resumos.put("AP-" + i, resumo);
+            index.put("AP-" + i, resumo, i);
+        }
+
+        // Consultas: resumos existentes com uma palavra trocada ou acrescentada
+        List<String> consultas = new ArrayList<>();
+        List<String> existentes = new ArrayList<>(resumos.values());
+        for (int i = 0; i < 150; i++) {
+            String base = existentes.get(random.nextInt(existentes.size()));
+            consultas.add(random.nextBoolean()
+                    ? base + " " + PALAVRAS[random.nextInt(PALAVRAS.length)]
+                    : base.substring(0, base.lastIndexOf(' ')) + " " + PALAVRAS[random.nextInt(PALAVRAS.length)]);
+        }
+
+        double minimo = 0.7;
+        int esperados = 0;
+        int encontrados = 0;
+        for (String consulta : consultas) {
+            double melhor = 0;
+            for (String resumo : resumos.values()) {
+                melhor = Math.max(melhor, MinHashIndex.similaridade(consulta, resumo));
+            }
+            if (melhor < minimo) {
+                continue;
+            }
+            esperados++;
+            Optional<MinHashIndex.Match<Integer>> match = index.maisSimilar(consulta, minimo);
+            if (match.isPresent() && match.get().similaridade() == melhor) {
+                encontrados++;
+            }
+        }
+
+        assertTrue(esperados > 50, "consultas com vizinho acima do limiar: " + esperados);
+        assertTrue(encontrados >= esperados * 0.95, encontrados + " de " + esperados);
+    }
+
+    private static String frase(Random random, int palavras) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < palavras; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(PALAVRAS[random.nextInt(PALAVRAS.length)]);
+        }
+        return sb.toString();
+    }
+}
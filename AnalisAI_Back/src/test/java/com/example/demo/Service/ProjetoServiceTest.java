@@ -0,0 +1,72 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Projeto;
+import com.example.demo.Model.Tarefa;
+import com.example.demo.Repository.ProjetoRepository;
+import com.example.demo.Repository.TarefaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProjetoServiceTest {
+
+    @Autowired
+    private ProjetoService projetoService;
+
+    @Autowired
+    private TarefaService tarefaService;
+
+    @Autowired
+    private CronogramaService cronogramaService;
+
+    @Autowired
+    private ProjetoRepository projetoRepository;
+
+    @Autowired
+    private TarefaRepository tarefaRepository;
+
+    @Test
+    void deletarProjetoRemoveAsTarefasEOGrafoEmMemoria() {
+        Projeto projeto = new Projeto();
+        projeto.setNome("Excluir");
+        Long id = projetoRepository.save(projeto).getId();
+        Long base = tarefaService.salvarTarefa(tarefa("Base", 2, id, Set.of())).getId();
+        Long depois = tarefaService.salvarTarefa(tarefa("Depois", 4, id, Set.of(base))).getId();
+
+        assertEquals(6, cronogramaService.duracaoDias(id));
+        assertTrue(grafos().containsKey(id));
+
+        projetoService.deletarProjeto(id);
+
+        assertFalse(projetoRepository.existsById(id));
+        assertFalse(tarefaRepository.existsById(base));
+        assertFalse(tarefaRepository.existsById(depois));
+        assertFalse(grafos().containsKey(id));
+    }
+
+    private static Tarefa tarefa(String nome, int duracaoDias, Long projetoId, Set<Long> dependencias) {
+        Projeto projeto = new Projeto();
+        projeto.setId(projetoId);
+        Tarefa tarefa = new Tarefa();
+        tarefa.setNome(nome);
+        tarefa.setDuracaoDias(duracaoDias);
+        tarefa.setProjeto(projeto);
+        tarefa.setDependencias(new HashSet<>(dependencias));
+        return tarefa;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, CaminhoCritico> grafos() {
+        return (Map<Long, CaminhoCritico>) ReflectionTestUtils.getField(cronogramaService, "porProjeto");
+    }
+}